@@ -41,8 +41,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import pt.psoft.g1.psoftg1.auth.services.CurrentPrincipal;
+import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
+import pt.psoft.g1.psoftg1.readermanagement.services.ReaderService;
 import pt.psoft.g1.psoftg1.usermanagement.api.UserView;
 import pt.psoft.g1.psoftg1.usermanagement.api.UserViewMapper;
+import pt.psoft.g1.psoftg1.usermanagement.model.Reader;
 import pt.psoft.g1.psoftg1.usermanagement.model.User;
 import pt.psoft.g1.psoftg1.usermanagement.services.CreateUserRequest;
 import pt.psoft.g1.psoftg1.usermanagement.services.UserService;
@@ -69,6 +73,8 @@ public class AuthApi {
 
 	private final UserService userService;
 
+	private final ReaderService readerService;
+
 	@PostMapping("login")
 	public ResponseEntity<UserView> login(@RequestBody @Valid final AuthRequest request) {
 		try {
@@ -85,11 +91,17 @@ public class AuthApi {
 			final String scope = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority)
 					.collect(joining(" "));
 
-			final JwtClaimsSet claims = JwtClaimsSet.builder().issuer("example.io").issuedAt(now)
+			// user id, roles and reader number let each request check ownership without querying the database
+			final JwtClaimsSet.Builder claims = JwtClaimsSet.builder().issuer("example.io").issuedAt(now)
 					.expiresAt(now.plusSeconds(expiry)).subject(format("%s,%s", user.getId(), user.getUsername()))
-					.claim("roles", scope).build();
-
-			final String token = this.jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+					.claim(CurrentPrincipal.USER_ID_CLAIM, user.getId())
+					.claim(CurrentPrincipal.ROLES_CLAIM, scope);
+			if (user instanceof Reader) {
+				readerService.findByUsername(user.getUsername()).map(ReaderDetails::getReaderNumber)
+						.ifPresent(readerNumber -> claims.claim(CurrentPrincipal.READER_NUMBER_CLAIM, readerNumber));
+			}
+
+			final String token = this.jwtEncoder.encode(JwtEncoderParameters.from(claims.build())).getTokenValue();
 
 			return ResponseEntity.ok().header(HttpHeaders.AUTHORIZATION, token).body(userViewMapper.toUserView(user));
 		} catch (final BadCredentialsException ex) {
@@ -0,0 +1,125 @@
+package pt.psoft.g1.psoftg1.auth.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import pt.psoft.g1.psoftg1.usermanagement.model.User;
+import pt.psoft.g1.psoftg1.usermanagement.repositories.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Keeps the tokens already verified by another decoder, so that a client reusing its token does not pay for a
+ * signature verification on every request.
+ * <p>
+ * Tokens are kept under their SHA-256 digest until they expire, in a cache bounded in size. Whether the token was
+ * verified now or earlier, its user must still exist and be enabled; users are themselves cached by the repository
+ * and evicted as soon as they are disabled.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    public static final String CACHE_NAME = "jwt";
+
+    private final JwtDecoder delegate;
+    private final UserRepository userRepository;
+    private final Clock clock;
+    private final Cache<String, Jwt> verified;
+
+    public CachingJwtDecoder(final JwtDecoder delegate, final UserRepository userRepository,
+                             final long maximumSize, final Clock clock) {
+        this.delegate = delegate;
+        this.userRepository = userRepository;
+        this.clock = clock;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Jwt decode(final String token) throws JwtException {
+        final String key = digest(token);
+        Jwt jwt = verified.getIfPresent(key);
+        if (jwt == null || isExpired(jwt)) {
+            jwt = delegate.decode(token);
+            if (jwt.getExpiresAt() != null) {
+                verified.put(key, jwt);
+            }
+        }
+        ensureUserIsEnabled(jwt);
+        return jwt;
+    }
+
+    /**
+     * Makes the cache statistics available next to the other caches of the application.
+     */
+    @SuppressWarnings("unchecked")
+    public void registerIn(final CaffeineCacheManager cacheManager) {
+        cacheManager.registerCustomCache(CACHE_NAME, (Cache<Object, Object>) (Cache<?, ?>) verified);
+    }
+
+    private boolean isExpired(final Jwt jwt) {
+        return !jwt.getExpiresAt().isAfter(clock.instant());
+    }
+
+    private void ensureUserIsEnabled(final Jwt jwt) {
+        final Long userId = userId(jwt);
+        final boolean enabled = userRepository.findById(userId).map(User::isEnabled).orElse(false);
+        if (!enabled) {
+            throw new BadJwtException("User of the token is no longer enabled");
+        }
+    }
+
+    // tokens issued before the user id claim existed only have it in the subject, before the username
+    private static Long userId(final Jwt jwt) {
+        final Object userId = jwt.getClaim(CurrentPrincipal.USER_ID_CLAIM);
+        if (userId instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return Long.valueOf(jwt.getSubject().split(",", 2)[0]);
+        } catch (RuntimeException e) {
+            throw new BadJwtException("Token does not identify its user");
+        }
+    }
+
+    private static String digest(final String token) {
+        try {
+            final MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private class UntilTokenExpires implements Expiry<String, Jwt> {
+        @Override
+        public long expireAfterCreate(final String key, final Jwt jwt, final long currentTime) {
+            final Instant expiresAt = jwt.getExpiresAt();
+            return Math.max(0, Duration.between(clock.instant(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(final String key, final Jwt jwt, final long currentTime,
+                                      final long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(final String key, final Jwt jwt, final long currentTime,
+                                    final long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package pt.psoft.g1.psoftg1.auth.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
+import pt.psoft.g1.psoftg1.readermanagement.services.ReaderService;
+import pt.psoft.g1.psoftg1.usermanagement.model.Role;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The authenticated user of the current request, as described by the claims of its token.
+ * <p>
+ * Tokens issued by {@code AuthApi.login} carry the user id, roles and, for readers, the reader number, so ownership
+ * checks need no database round trip. Tokens issued before those claims existed are still accepted: the reader number
+ * is then looked up once per request.
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class CurrentPrincipal {
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String READER_NUMBER_CLAIM = "readerNumber";
+
+    private final ReaderService readerService;
+
+    private Jwt token;
+    private Optional<String> readerNumber;
+
+    private Jwt token() {
+        if (token == null) {
+            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof Jwt jwt)) {
+                throw new AccessDeniedException("User is not logged in");
+            }
+            token = jwt;
+        }
+        return token;
+    }
+
+    // the subject holds the id and the username, separated by a comma
+    private String[] subject() {
+        return token().getSubject().split(",", 2);
+    }
+
+    public Long getUserId() {
+        final Object userId = token().getClaim(USER_ID_CLAIM);
+        if (userId instanceof Number number) {
+            return number.longValue();
+        }
+        return Long.valueOf(subject()[0]);
+    }
+
+    public String getUsername() {
+        return subject()[1];
+    }
+
+    public boolean hasRole(final String role) {
+        final String roles = token().getClaimAsString(ROLES_CLAIM);
+        return roles != null && Arrays.asList(roles.split(" ")).contains(role);
+    }
+
+    public boolean isLibrarian() {
+        return hasRole(Role.LIBRARIAN);
+    }
+
+    public Optional<String> getReaderNumber() {
+        if (readerNumber == null) {
+            final String claim = token().getClaimAsString(READER_NUMBER_CLAIM);
+            if (claim != null) {
+                readerNumber = Optional.of(claim);
+            } else if (hasRole(Role.READER)) {
+                readerNumber = readerService.findByUsername(getUsername()).map(ReaderDetails::getReaderNumber);
+            } else {
+                readerNumber = Optional.empty();
+            }
+        }
+        return readerNumber;
+    }
+
+    /**
+     * The reader number of the current user, who must be a reader.
+     */
+    public String requireReaderNumber() {
+        return getReaderNumber()
+                .orElseThrow(() -> new AccessDeniedException("Could not find a valid reader from current auth"));
+    }
+
+    /**
+     * Whether the current user is the reader with the given number.
+     */
+    public boolean isReader(final String readerNumber) {
+        return getReaderNumber().map(own -> Objects.equals(own, readerNumber)).orElse(false);
+    }
+}
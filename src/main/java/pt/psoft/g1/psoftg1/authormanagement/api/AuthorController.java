@@ -4,10 +4,9 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
@@ -28,6 +27,8 @@ import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
 import pt.psoft.g1.psoftg1.shared.api.ListResponse;
 import pt.psoft.g1.psoftg1.shared.services.ConcurrencyService;
 import pt.psoft.g1.psoftg1.shared.services.FileStorageService;
+import pt.psoft.g1.psoftg1.shared.services.PhotoSize;
+import pt.psoft.g1.psoftg1.shared.services.ResponseCache;
 import pt.psoft.g1.psoftg1.usermanagement.model.User;
 
 import java.util.ArrayList;
@@ -44,6 +45,7 @@ public class AuthorController {
     private final AuthorViewMapper authorViewMapper;
     private final ConcurrencyService concurrencyService;
     private final FileStorageService fileStorageService;
+    private final ResponseCache responseCache;
     private final BookViewMapper bookViewMapper;
 
 
@@ -96,6 +98,9 @@ public class AuthorController {
             resource.setPhotoURI(fileName);
         }
         Author author = authorService.partialUpdate(authorNumber, resource, concurrencyService.getVersionFromIfMatchHeader(ifMatchValue));
+        responseCache.invalidate(Author.class, authorNumber);
+        // books show the names of their authors
+        responseCache.invalidateAll(Book.class);
 
         return ResponseEntity.ok()
                 .eTag(Long.toString(author.getVersion()))
@@ -107,14 +112,25 @@ public class AuthorController {
     @GetMapping(value = "/{authorNumber}")
     public ResponseEntity<AuthorView> findByAuthorNumber(
             @PathVariable("authorNumber")
-            @Parameter(description = "The number of the Author to find") final Long authorNumber) {
+            @Parameter(description = "The number of the Author to find") final Long authorNumber,
+            final WebRequest request) {
+        final var version = authorService.findVersionByAuthorNumber(authorNumber);
+        if (concurrencyService.isNotModified(request, version)
+                || responseCache.writeCached(request, Author.class, authorNumber, version)) {
+            return null;
+        }
 
+        final long generation = responseCache.generation(Author.class);
         final var author = authorService.findByAuthorNumber(authorNumber)
                 .orElseThrow(() -> new NotFoundException(Author.class, authorNumber));
 
+        final AuthorView authorView = authorViewMapper.toAuthorView(author);
+        if (responseCache.write(request, Author.class, authorNumber, author.getVersion(), generation, authorView)) {
+            return null;
+        }
         return ResponseEntity.ok()
                 .eTag(Long.toString(author.getVersion()))
-                .body(authorViewMapper.toAuthorView(author));
+                .body(authorView);
     }
 
     @Operation(summary = "Search authors by name")
@@ -142,10 +158,12 @@ public class AuthorController {
     }
 
     //Know the Top 5 authors which have the most lent books
-    @Operation(summary = "Know the Top 5 authors which have the most lent books")
+    @Operation(summary = "Know the Top 5 authors which have the most lent books, of all time or in the last days")
     @GetMapping("/top5")
-    public ListResponse<AuthorLendingView> getTop5() {
-        final var list = authorService.findTopAuthorByLendings();
+    public ListResponse<AuthorLendingView> getTop5(
+            @RequestParam(value = "limit", defaultValue = "5") final int limit,
+            @RequestParam(value = "days", required = false) final Integer days) {
+        final var list = authorService.findTopAuthorByLendings(limit, days);
 
         if(list.isEmpty())
             throw new NotFoundException("No authors to show");
@@ -157,9 +175,11 @@ public class AuthorController {
     @Operation(summary= "Gets a author photo")
     @GetMapping("/{authorNumber}/photo")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<byte[]> getSpecificAuthorPhoto(@PathVariable("authorNumber")
+    public ResponseEntity<Resource> getSpecificAuthorPhoto(@PathVariable("authorNumber")
                                                              @Parameter(description = "The number of the Author to find")
-                                                             final Long authorNumber) {
+                                                             final Long authorNumber,
+                                                           @RequestParam(value = "size", defaultValue = "original") final String size,
+                                                           final WebRequest request) {
 
         Author authorDetails = authorService.findByAuthorNumber(authorNumber)
                 .orElseThrow(() -> new NotFoundException(Author.class, authorNumber));
@@ -169,18 +189,8 @@ public class AuthorController {
             return ResponseEntity.ok().build();
         }
 
-        String photoFile = authorDetails.getPhoto().getPhotoFile();
-        byte[] image = this.fileStorageService.getFile(photoFile);
-        String fileFormat = this.fileStorageService.getExtension(authorDetails.getPhoto().getPhotoFile())
-                .orElseThrow(() -> new ValidationException("Unable to get file extension"));
-
-        if(image == null) {
-            return ResponseEntity.ok().build();
-        }
-
-        return ResponseEntity.ok()
-                .contentType(fileFormat.equals("png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG)
-                .body(image);
+        return this.fileStorageService.getPhoto(authorDetails.getPhoto().getPhotoFile(), PhotoSize.fromParameter(size),
+                request);
     }
     //Co-authors and their respective books
     @Operation(summary = "Get co-authors and their respective books for a specific author")
@@ -212,8 +222,8 @@ public class AuthorController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        this.fileStorageService.deleteFile(author.getPhoto().getPhotoFile());
         authorService.removeAuthorPhoto(author.getAuthorNumber(), author.getVersion());
+        responseCache.invalidate(Author.class, authorNumber);
 
         return ResponseEntity.ok().build();
     }
@@ -1,13 +1,11 @@
 package pt.psoft.g1.psoftg1.authormanagement.infrastructure.repositories.impl;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
-import pt.psoft.g1.psoftg1.authormanagement.api.AuthorLendingView;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
 import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,13 +14,13 @@ public interface SpringDataAuthorRepository extends AuthorRepository, CrudReposi
     Optional<Author> findByAuthorNumber(Long authorNumber);
 
     @Override
-    @Query("SELECT new pt.psoft.g1.psoftg1.authormanagement.api.AuthorLendingView(a.name.name, COUNT(l.pk)) " +
-            "FROM Book b " +
-            "JOIN b.authors a " +
-            "JOIN Lending l ON l.book.pk = b.pk " +
-            "GROUP BY a.name " +
-            "ORDER BY COUNT(l) DESC")
-    Page<AuthorLendingView> findTopAuthorByLendings(Pageable pageable);
+    @Query("SELECT a.version " +
+            "FROM Author a " +
+            "WHERE a.authorNumber = :authorNumber")
+    Optional<Long> findVersionByAuthorNumber(Long authorNumber);
+
+    @Override
+    List<Author> findByAuthorNumberIn(Collection<Long> authorNumbers);
 
     @Query("SELECT DISTINCT coAuthor FROM Book b " +
             "JOIN b.authors coAuthor " +
@@ -3,12 +3,15 @@ package pt.psoft.g1.psoftg1.authormanagement.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import org.hibernate.StaleObjectStateException;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import pt.psoft.g1.psoftg1.authormanagement.services.UpdateAuthorRequest;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
 import pt.psoft.g1.psoftg1.shared.model.EntityWithPhoto;
 import pt.psoft.g1.psoftg1.shared.model.Name;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author")
 public class Author extends EntityWithPhoto {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -1,21 +1,20 @@
 package pt.psoft.g1.psoftg1.authormanagement.repositories;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import pt.psoft.g1.psoftg1.authormanagement.api.AuthorLendingView;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AuthorRepository {
 
     Optional<Author> findByAuthorNumber(Long authorNumber);
+    Optional<Long> findVersionByAuthorNumber(Long authorNumber);
     List<Author> searchByNameNameStartsWith(String name);
     List<Author> searchByNameName(String name);
     Author save(Author author);
     Iterable<Author> findAll();
-    Page<AuthorLendingView> findTopAuthorByLendings (Pageable pageableRules);
+    List<Author> findByAuthorNumberIn(Collection<Long> authorNumbers);
     void delete(Author author);
     List<Author> findCoAuthorsByAuthorNumber(Long authorNumber);
 
@@ -13,13 +13,15 @@ public interface AuthorService {
 
     Optional<Author> findByAuthorNumber(Long authorNumber);
 
+    Optional<Long> findVersionByAuthorNumber(Long authorNumber);
+
     List<Author> findByName(String name);
 
     Author create(CreateAuthorRequest resource);
 
     Author partialUpdate(Long authorNumber, UpdateAuthorRequest resource, long desiredVersion);
 
-    List<AuthorLendingView> findTopAuthorByLendings();
+    List<AuthorLendingView> findTopAuthorByLendings(int limit, Integer days);
 
     List<Book> findBooksByAuthorNumber(Long authorNumber);
 
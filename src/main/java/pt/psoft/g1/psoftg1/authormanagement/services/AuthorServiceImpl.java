@@ -1,19 +1,26 @@
 package pt.psoft.g1.psoftg1.authormanagement.services;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import pt.psoft.g1.psoftg1.authormanagement.api.AuthorLendingView;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
 import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
 import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.bookmanagement.services.BookSearchIndex;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingLeaderboard;
+import pt.psoft.g1.psoftg1.shared.model.Photo;
 import pt.psoft.g1.psoftg1.shared.repositories.PhotoRepository;
+import pt.psoft.g1.psoftg1.shared.services.FileStorageService;
+import pt.psoft.g1.psoftg1.shared.services.Leaderboard;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -23,6 +30,9 @@ public class AuthorServiceImpl implements AuthorService {
     private final BookRepository bookRepository;
     private final AuthorMapper mapper;
     private final PhotoRepository photoRepository;
+    private final LendingLeaderboard lendingLeaderboard;
+    private final BookSearchIndex bookSearchIndex;
+    private final FileStorageService fileStorageService;
 
     @Override
     public Iterable<Author> findAll() {
@@ -34,6 +44,11 @@ public class AuthorServiceImpl implements AuthorService {
         return authorRepository.findByAuthorNumber(authorNumber);
     }
 
+    @Override
+    public Optional<Long> findVersionByAuthorNumber(final Long authorNumber) {
+        return authorRepository.findVersionByAuthorNumber(authorNumber);
+    }
+
     @Override
     public List<Author> findByName(String name) {
         return authorRepository.searchByNameNameStartsWith(name);
@@ -94,12 +109,32 @@ public class AuthorServiceImpl implements AuthorService {
         // in the meantime some other user might have changed this object on the
         // database, so concurrency control will still be applied when we try to save
         // this updated object
-        return authorRepository.save(author);
+        final Author updatedAuthor = authorRepository.save(author);
+        if (request.getName() != null) {
+            bookSearchIndex.authorRenamed(authorNumber, updatedAuthor.getName());
+        }
+        return updatedAuthor;
     }
     @Override
-    public List<AuthorLendingView> findTopAuthorByLendings() {
-        Pageable pageableRules = PageRequest.of(0,5);
-        return authorRepository.findTopAuthorByLendings(pageableRules).getContent();
+    public List<AuthorLendingView> findTopAuthorByLendings(int limit, Integer days) {
+        final var top = lendingLeaderboard.topAuthors(limit, days);
+        if (top.isEmpty()) {
+            return List.of();
+        }
+
+        final Map<Long, Author> authors = new HashMap<>();
+        for (Author author : authorRepository.findByAuthorNumberIn(top.stream().map(Leaderboard.Score::getKey).toList())) {
+            authors.put(author.getAuthorNumber(), author);
+        }
+
+        final List<AuthorLendingView> result = new ArrayList<>(top.size());
+        for (Leaderboard.Score<Long> score : top) {
+            final Author author = authors.get(score.getKey());
+            if (author != null) {
+                result.add(new AuthorLendingView(author.getName(), score.getCount()));
+            }
+        }
+        return result;
     }
 
     @Override
@@ -112,14 +147,16 @@ public class AuthorServiceImpl implements AuthorService {
         return authorRepository.findCoAuthorsByAuthorNumber(authorNumber);
     }
     @Override
+    @Transactional
     public Optional<Author> removeAuthorPhoto(Long authorNumber, long desiredVersion) {
         Author author = authorRepository.findByAuthorNumber(authorNumber)
                 .orElseThrow(() -> new NotFoundException("Cannot find reader"));
 
-        String photoFile = author.getPhoto().getPhotoFile();
+        Photo photo = author.getPhoto();
         author.removePhoto(desiredVersion);
         Optional<Author> updatedAuthor = Optional.of(authorRepository.save(author));
-        photoRepository.deleteByPhotoFile(photoFile);
+        photoRepository.delete(photo);
+        fileStorageService.deleteFileIfUnreferenced(photo.getPhotoFile());
         return updatedAuthor;
     }
 
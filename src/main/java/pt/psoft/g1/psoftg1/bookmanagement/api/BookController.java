@@ -3,17 +3,16 @@ package pt.psoft.g1.psoftg1.bookmanagement.api;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import pt.psoft.g1.psoftg1.auth.services.CurrentPrincipal;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
 import pt.psoft.g1.psoftg1.bookmanagement.services.BookService;
 import pt.psoft.g1.psoftg1.bookmanagement.services.CreateBookRequest;
@@ -22,20 +21,14 @@ import pt.psoft.g1.psoftg1.bookmanagement.services.UpdateBookRequest;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingService;
-import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
-import pt.psoft.g1.psoftg1.readermanagement.services.ReaderService;
 import pt.psoft.g1.psoftg1.shared.api.ListResponse;
 import pt.psoft.g1.psoftg1.shared.services.ConcurrencyService;
 import pt.psoft.g1.psoftg1.shared.services.FileStorageService;
+import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.PhotoSize;
+import pt.psoft.g1.psoftg1.shared.services.ResponseCache;
 import pt.psoft.g1.psoftg1.shared.services.SearchRequest;
-import pt.psoft.g1.psoftg1.usermanagement.model.User;
-import pt.psoft.g1.psoftg1.usermanagement.services.UserService;
 
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Tag(name = "Books", description = "Endpoints for managing Books")
 @RestController
@@ -43,11 +36,11 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/books")
 public class BookController {
     private final BookService bookService;
+    private final CurrentPrincipal currentPrincipal;
     private final LendingService lendingService;
     private final ConcurrencyService concurrencyService;
     private final FileStorageService fileStorageService;
-    private final UserService userService;
-    private final ReaderService readerService;
+    private final ResponseCache responseCache;
 
     private final BookViewMapper bookViewMapper;
 
@@ -85,11 +78,20 @@ public class BookController {
 
     @Operation(summary = "Gets a specific Book by isbn")
     @GetMapping(value = "/{isbn}")
-    public ResponseEntity<BookView> findByIsbn(@PathVariable final String isbn) {
+    public ResponseEntity<BookView> findByIsbn(@PathVariable final String isbn, final WebRequest request) {
+        final var version = bookService.findVersionByIsbn(isbn);
+        if (concurrencyService.isNotModified(request, version)
+                || responseCache.writeCached(request, Book.class, isbn, version)) {
+            return null;
+        }
 
+        final long generation = responseCache.generation(Book.class);
         final var book = bookService.findByIsbn(isbn);
 
         BookView bookView = bookViewMapper.toBookView(book);
+        if (responseCache.write(request, Book.class, isbn, book.getVersion(), generation, bookView)) {
+            return null;
+        }
 
         return ResponseEntity.ok()
                 .eTag(Long.toString(book.getVersion()))
@@ -105,8 +107,8 @@ public class BookController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        fileStorageService.deleteFile(book.getPhoto().getPhotoFile());
         bookService.removeBookPhoto(book.getIsbn(), book.getVersion());
+        responseCache.invalidate(Book.class, book.getIsbn());
 
         return ResponseEntity.ok().build();
     }
@@ -114,7 +116,9 @@ public class BookController {
     @Operation(summary= "Gets a book photo")
     @GetMapping("/{isbn}/photo")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<byte[]> getSpecificBookPhoto(@PathVariable("isbn") final String isbn){
+    public ResponseEntity<Resource> getSpecificBookPhoto(@PathVariable("isbn") final String isbn,
+                                                         @RequestParam(value = "size", defaultValue = "original") final String size,
+                                                         final WebRequest request){
 
         Book book = bookService.findByIsbn(isbn);
 
@@ -123,16 +127,7 @@ public class BookController {
             return ResponseEntity.ok().build();
         }
 
-        String photoFile = book.getPhoto().getPhotoFile();
-        byte[] image = fileStorageService.getFile(photoFile);
-        String fileFormat = fileStorageService.getExtension(book.getPhoto().getPhotoFile()).orElseThrow(() -> new ValidationException("Unable to get file extension"));
-
-        if(image == null) {
-            return ResponseEntity.ok().build();
-        }
-
-        return ResponseEntity.ok().contentType(fileFormat.equals("png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG).body(image);
-
+        return fileStorageService.getPhoto(book.getPhoto().getPhotoFile(), PhotoSize.fromParameter(size), request);
     }
 
 
@@ -163,43 +158,33 @@ public class BookController {
         }catch (Exception e){
             throw new ConflictException("Could not update book: "+ e.getMessage());
         }
+        responseCache.invalidate(Book.class, isbn);
         return ResponseEntity.ok()
                 .eTag(Long.toString(book.getVersion()))
                 .body(bookViewMapper.toBookView(book));
     }
 
-    @Operation(summary = "Gets Books by title or genre")
+    @Operation(summary = "Gets Books by title, genre, author name or any text, best matches first")
     @GetMapping
     public ListResponse<BookView> findBooks(@RequestParam(value = "title", required = false) final String title,
                                             @RequestParam(value = "genre", required = false) final String genre,
-                                            @RequestParam(value = "authorName", required = false) final String authorName) {
+                                            @RequestParam(value = "authorName", required = false) final String authorName,
+                                            @RequestParam(value = "text", required = false) final String text,
+                                            @RequestParam(value = "page", defaultValue = "1") final int page,
+                                            @RequestParam(value = "limit", defaultValue = "10") final int limit) {
 
         //Este método, como está, faz uma junção 'OR'.
         //Para uma junção 'AND', ver o "/search"
 
-        List<Book> booksByTitle = null;
-        if (title != null)
-            booksByTitle = bookService.findByTitle(title);
-
-        List<Book> booksByGenre = null;
-        if (genre != null)
-            booksByGenre = bookService.findByGenre(genre);
-
-        List<Book> booksByAuthorName = null;
-        if (authorName != null)
-            booksByAuthorName = bookService.findByAuthorName(authorName);
+        if (page < 1 || limit < 1 || limit > 100)
+            throw new IllegalArgumentException("Page must start at 1 and limit must be between 1 and 100");
 
-        Set<Book> bookSet = new HashSet<>();
-        if (booksByTitle!= null)
-            bookSet.addAll(booksByTitle);
-        if(booksByGenre != null)
-            bookSet.addAll(booksByGenre);
-        if(booksByAuthorName != null)
-            bookSet.addAll(booksByAuthorName);
+        // without any criteria no book matches; "/search" lists them all instead
+        if (title == null && genre == null && authorName == null && text == null)
+            throw new NotFoundException("No books found with the provided criteria");
 
-        List<Book> books = bookSet.stream()
-                .sorted(Comparator.comparing(b -> b.getTitle().toString()))
-                .collect(Collectors.toList());
+        final var books = bookService.findBooks(new Page(page, limit),
+                new SearchBooksQuery(title, genre, authorName, text));
 
         if(books.isEmpty())
             throw new NotFoundException("No books found with the provided criteria");
@@ -207,20 +192,27 @@ public class BookController {
         return new ListResponse<>(bookViewMapper.toBookView(books));
     }
 
-    @Operation(summary = "Gets the top 5 books lent")
+    @Operation(summary = "Gets the top books lent, by default the top 5 of the last year")
     @GetMapping("top5")
-    public ListResponse<BookCountView> getTop5BooksLent() {
-        return new ListResponse<>(bookViewMapper.toBookCountView(bookService.findTop5BooksLent()));
+    public ListResponse<BookCountView> getTop5BooksLent(
+            @RequestParam(value = "limit", defaultValue = "5") final int limit,
+            @RequestParam(value = "days", required = false) final Integer days) {
+        return new ListResponse<>(bookViewMapper.toBookCountView(bookService.findTopBooksLent(limit, days)));
     }
 
-    @Operation(summary = "Gets some books suggestions based on the reader's interests")
+    @Operation(summary = "Gets books suggestions based on what readers with similar lendings borrowed and the reader's interests")
     @GetMapping("suggestions")
-    public ListResponse<BookView> getBooksSuggestions(Authentication authentication) {
-        User loggedUser = userService.getAuthenticatedUser(authentication);
-        ReaderDetails readerDetails = readerService.findByUsername(loggedUser.getUsername())
-                .orElseThrow(() -> new NotFoundException(ReaderDetails.class, loggedUser.getUsername()));
+    public ListResponse<BookView> getBooksSuggestions() {
+        return new ListResponse<>(bookViewMapper.toBookView(
+                bookService.getBooksSuggestionsForReader(currentPrincipal.requireReaderNumber())));
+    }
 
-        return new ListResponse<>(bookViewMapper.toBookView(bookService.getBooksSuggestionsForReader(readerDetails.getReaderNumber())));
+    @Operation(summary = "Gets the books whose title and description are most similar to those of the given book")
+    @GetMapping("/{isbn}/similar")
+    public ListResponse<BookView> getSimilarBooks(
+            @PathVariable("isbn") final String isbn,
+            @RequestParam(value = "limit", defaultValue = "5") final int limit) {
+        return new ListResponse<>(bookViewMapper.toBookView(bookService.findSimilarBooks(isbn, limit)));
     }
 
     @Operation(summary = "Get average lendings duration")
@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import org.hibernate.StaleObjectStateException;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
 import pt.psoft.g1.psoftg1.bookmanagement.services.UpdateBookRequest;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
@@ -16,6 +18,7 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 @Table(name = "Book", uniqueConstraints = {
         @UniqueConstraint(name = "uc_book_isbn", columnNames = {"ISBN"})
 })
@@ -43,6 +46,7 @@ public class Book extends EntityWithPhoto {
 
     @Getter
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book.authors")
     private List<Author> authors = new ArrayList<>();
 
     @Embedded
@@ -60,7 +64,7 @@ public class Book extends EntityWithPhoto {
 
     private void setAuthors(List<Author> authors) {this.authors = authors; }
 
-    public String getDescription(){ return this.description.toString(); }
+    public String getDescription(){ return this.description == null ? null : this.description.toString(); }
 
     public Book(String isbn, String title, String description, Genre genre, List<Author> authors, String photoURI) {
         setTitle(title);
@@ -0,0 +1,282 @@
+package pt.psoft.g1.psoftg1.bookmanagement.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingCreatedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
+import pt.psoft.g1.psoftg1.shared.services.AfterCommit;
+
+import java.util.*;
+
+/**
+ * In-memory item-to-item recommendations from the lending history.
+ * <p>
+ * Two books co-occur once for every reader who borrowed both. Each book keeps the number of readers who borrowed it
+ * and a sparse row of co-occurrence counts with the other books, in primitive arrays. A book scores, for each book the
+ * reader borrowed, its co-occurrences with it divided by the geometric mean of their number of readers (so popular
+ * books do not co-occur with everything), plus {@link #GENRE_WEIGHT} if it is of one of the reader's interest genres.
+ * Books the reader already borrowed are never recommended; ties go to the most borrowed book.
+ * <p>
+ * The data is loaded once the application is ready and kept up to date from the lending events and by the book
+ * service, once their changes are committed.
+ */
+@Component
+public class BookRecommender {
+    static final double GENRE_WEIGHT = 1.0;
+
+    private final BookRepository bookRepository;
+    private final LendingRepository lendingRepository;
+
+    private final Map<String, Integer> bookIds = new HashMap<>();
+    private final Map<String, Integer> genreIds = new HashMap<>();
+    private final Map<String, BookSet> borrowedByReader = new HashMap<>();
+    private String[] isbns = new String[64];
+    private int[] genres = new int[64];
+    private int[] readerCounts = new int[64];
+    private CoOccurrences[] coOccurrences = new CoOccurrences[64];
+    private int bookCount;
+
+    @Autowired
+    public BookRecommender(BookRepository bookRepository, LendingRepository lendingRepository) {
+        this.bookRepository = bookRepository;
+        this.lendingRepository = lendingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        synchronized (this) {
+            bookIds.clear();
+            genreIds.clear();
+            borrowedByReader.clear();
+            isbns = new String[64];
+            genres = new int[64];
+            readerCounts = new int[64];
+            coOccurrences = new CoOccurrences[64];
+            bookCount = 0;
+
+            for (Book book : bookRepository.findAll()) {
+                index(book.getIsbn(), book.getGenre().getGenre());
+            }
+            for (Object[] row : lendingRepository.findReaderBookPairs()) {
+                borrowed((String) row[0], (String) row[1], null);
+            }
+        }
+    }
+
+    /**
+     * Adds the book, or records its new genre, once the current transaction commits.
+     */
+    public void index(Book book) {
+        final String isbn = book.getIsbn();
+        final String genre = book.getGenre().getGenre();
+        AfterCommit.run(() -> index(isbn, genre));
+    }
+
+    private synchronized void index(String isbn, String genre) {
+        genres[bookId(isbn)] = genreId(genre);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLendingCreated(LendingCreatedEvent event) {
+        final Lending lending = event.getLending();
+        borrowed(lending.getReaderDetails().getReaderNumber(), lending.getBook().getIsbn(),
+                lending.getBook().getGenre().getGenre());
+    }
+
+    /**
+     * Isbns of the books recommended to the reader, best first.
+     *
+     * @param interests genres the reader is interested in
+     */
+    public synchronized List<String> recommend(String readerNumber, Collection<String> interests, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        final double[] scores = new double[bookCount];
+
+        final BookSet borrowed = borrowedByReader.get(readerNumber);
+        if (borrowed != null) {
+            for (int i = 0; i < borrowed.size; i++) {
+                final int book = borrowed.books[i];
+                final CoOccurrences row = coOccurrences[book];
+                for (int slot = 0; slot < row.others.length; slot++) {
+                    final int other = row.others[slot];
+                    if (other != CoOccurrences.EMPTY) {
+                        scores[other] += row.counts[slot] / Math.sqrt((double) readerCounts[book] * readerCounts[other]);
+                    }
+                }
+            }
+        }
+
+        final boolean[] interesting = new boolean[genreIds.size()];
+        for (String genre : interests) {
+            final Integer genreId = genreIds.get(genre);
+            if (genreId != null) {
+                interesting[genreId] = true;
+            }
+        }
+        for (int book = 0; book < bookCount; book++) {
+            if (interesting[genres[book]]) {
+                scores[book] += GENRE_WEIGHT;
+            }
+        }
+        if (borrowed != null) {
+            for (int i = 0; i < borrowed.size; i++) {
+                scores[borrowed.books[i]] = 0;
+            }
+        }
+
+        // keeps the best books so far with the worst of them on top
+        final Comparator<Integer> ranking = Comparator.<Integer>comparingDouble(book -> scores[book])
+                .thenComparingInt(book -> readerCounts[book])
+                .thenComparing(book -> isbns[book], Comparator.reverseOrder());
+        final PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, ranking);
+        for (int book = 0; book < bookCount; book++) {
+            if (scores[book] > 0) {
+                best.add(book);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        final String[] result = new String[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = isbns[best.poll()];
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Records that the reader borrowed the book; borrowing the same book again changes nothing.
+     *
+     * @param genre genre of the book, if it may not be known yet
+     */
+    private synchronized void borrowed(String readerNumber, String isbn, String genre) {
+        final boolean known = bookIds.containsKey(isbn);
+        final int book = bookId(isbn);
+        if (!known && genre != null) {
+            genres[book] = genreId(genre);
+        }
+
+        final BookSet borrowed = borrowedByReader.computeIfAbsent(readerNumber, r -> new BookSet());
+        if (borrowed.contains(book)) {
+            return;
+        }
+        for (int i = 0; i < borrowed.size; i++) {
+            final int other = borrowed.books[i];
+            coOccurrences[book].increment(other);
+            coOccurrences[other].increment(book);
+        }
+        borrowed.add(book);
+        readerCounts[book]++;
+    }
+
+    private int bookId(String isbn) {
+        final Integer id = bookIds.get(isbn);
+        if (id != null) {
+            return id;
+        }
+        if (bookCount == isbns.length) {
+            final int capacity = bookCount * 2;
+            isbns = Arrays.copyOf(isbns, capacity);
+            genres = Arrays.copyOf(genres, capacity);
+            readerCounts = Arrays.copyOf(readerCounts, capacity);
+            coOccurrences = Arrays.copyOf(coOccurrences, capacity);
+        }
+        isbns[bookCount] = isbn;
+        genres[bookCount] = genreId("");
+        coOccurrences[bookCount] = new CoOccurrences();
+        bookIds.put(isbn, bookCount);
+        return bookCount++;
+    }
+
+    private int genreId(String genre) {
+        return genreIds.computeIfAbsent(genre, g -> genreIds.size());
+    }
+
+    /**
+     * Open-addressing map from book id to co-occurrence count.
+     */
+    private static class CoOccurrences {
+        private static final int EMPTY = -1;
+
+        private int[] others = emptySlots(8);
+        private int[] counts = new int[8];
+        private int size;
+
+        void increment(int other) {
+            if ((size + 1) * 4 > others.length * 3) {
+                grow();
+            }
+            final int slot = slotOf(others, other);
+            if (others[slot] == EMPTY) {
+                others[slot] = other;
+                size++;
+            }
+            counts[slot]++;
+        }
+
+        private void grow() {
+            final int[] oldOthers = others;
+            final int[] oldCounts = counts;
+            others = emptySlots(oldOthers.length * 2);
+            counts = new int[oldOthers.length * 2];
+            for (int i = 0; i < oldOthers.length; i++) {
+                if (oldOthers[i] != EMPTY) {
+                    final int slot = slotOf(others, oldOthers[i]);
+                    others[slot] = oldOthers[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int slotOf(int[] others, int other) {
+            final int mask = others.length - 1;
+            final int hash = other * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (others[slot] != EMPTY && others[slot] != other) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static int[] emptySlots(int length) {
+            final int[] slots = new int[length];
+            Arrays.fill(slots, EMPTY);
+            return slots;
+        }
+    }
+
+    /**
+     * Ids of the books borrowed by a reader.
+     */
+    private static class BookSet {
+        private int[] books = new int[4];
+        private int size;
+
+        boolean contains(int book) {
+            for (int i = 0; i < size; i++) {
+                if (books[i] == book) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(int book) {
+            if (size == books.length) {
+                books = Arrays.copyOf(books, size * 2);
+            }
+            books[size++] = book;
+        }
+    }
+}
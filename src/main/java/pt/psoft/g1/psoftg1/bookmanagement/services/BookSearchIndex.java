@@ -0,0 +1,287 @@
+package pt.psoft.g1.psoftg1.bookmanagement.services;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.shared.services.AfterCommit;
+import pt.psoft.g1.psoftg1.shared.services.Page;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the book catalogue: title, description, genre and author names.
+ * <p>
+ * Text is folded to lower case without accents ("Ação" matches "acao") and split into words. Every query word must
+ * match the start of an indexed word; exact words score higher than prefixes, rarer words higher than common ones and
+ * title matches higher than author and genre matches, which in turn score higher than description matches.
+ * <p>
+ * The index is built once the application is ready and kept up to date by the book and author services, with their
+ * changes applied once committed.
+ */
+@Component
+public class BookSearchIndex {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double PREFIX_WEIGHT = 0.5;
+
+    public enum Field {
+        TITLE(3), AUTHOR(2), GENRE(2), DESCRIPTION(1);
+
+        private final double weight;
+
+        Field(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final BookRepository bookRepository;
+
+    /**
+     * Field -> word -> isbn -> number of occurrences of the word in that field of the book.
+     */
+    private final Map<Field, NavigableMap<String, Map<String, Integer>>> postings = new EnumMap<>(Field.class);
+    private final Map<String, IndexedBook> books = new HashMap<>();
+    private final Map<Long, Set<String>> booksByAuthor = new HashMap<>();
+
+    public BookSearchIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+        for (Field field : Field.values()) {
+            postings.put(field, new TreeMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        synchronized (this) {
+            postings.values().forEach(Map::clear);
+            books.clear();
+            booksByAuthor.clear();
+            for (Book book : bookRepository.findAll()) {
+                index(indexedBook(book));
+            }
+        }
+    }
+
+    /**
+     * Adds the book to the index, replacing any previous version of it, once the current transaction commits.
+     */
+    public void index(Book book) {
+        // read the book while its persistence context is still open, but only index it once it is committed
+        final IndexedBook indexedBook = indexedBook(book);
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                index(indexedBook);
+            }
+        });
+    }
+
+    /**
+     * Re-indexes the books of an author whose name changed, once the current transaction commits.
+     */
+    public void authorRenamed(Long authorNumber, String name) {
+        AfterCommit.run(() -> reindexAuthor(authorNumber, name));
+    }
+
+    private synchronized void reindexAuthor(Long authorNumber, String name) {
+        for (String isbn : List.copyOf(booksByAuthor.getOrDefault(authorNumber, Set.of()))) {
+            final IndexedBook book = books.get(isbn);
+            final Map<Long, String> authors = new LinkedHashMap<>(book.authors);
+            authors.put(authorNumber, name);
+            index(new IndexedBook(book.isbn, book.title, book.description, book.genre, authors));
+        }
+    }
+
+    /**
+     * Isbns of the books matching the criteria, best match first.
+     *
+     * @param criteria text to look for in each field; a single text may be looked for in several fields at once
+     * @param matchAll whether a book must match every criterion or any of them
+     */
+    public synchronized List<String> search(List<Criterion> criteria, boolean matchAll, Page page) {
+        Map<String, Double> scores = null;
+        for (Criterion criterion : criteria) {
+            final List<String> words = tokenize(criterion.text);
+            if (words.isEmpty()) {
+                continue;
+            }
+            final Map<String, Double> matches = match(words, criterion.fields);
+            if (scores == null) {
+                scores = matches;
+            } else {
+                if (matchAll) {
+                    scores.keySet().retainAll(matches.keySet());
+                    matches.keySet().retainAll(scores.keySet());
+                }
+                final Map<String, Double> combined = scores;
+                matches.forEach((isbn, score) -> combined.merge(isbn, score, Double::sum));
+            }
+        }
+        if (scores == null) {
+            scores = new HashMap<>();
+            for (String isbn : books.keySet()) {
+                scores.put(isbn, 0.0);
+            }
+        }
+
+        final Map<String, Double> ranked = scores;
+        return ranked.keySet().stream()
+                .sorted(Comparator.<String>comparingDouble(ranked::get).reversed()
+                        .thenComparing(isbn -> books.get(isbn).sortTitle)
+                        .thenComparing(Comparator.naturalOrder()))
+                .skip((long) (page.getNumber() - 1) * page.getLimit())
+                .limit(page.getLimit())
+                .toList();
+    }
+
+    /**
+     * Folds the text to lower case without diacritics and splits it into words.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        final String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        final List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(folded)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Books where every word matches (the start of) a word in at least one of the fields, and their scores.
+     */
+    private Map<String, Double> match(List<String> words, Set<Field> fields) {
+        Map<String, Double> result = null;
+        for (String word : words) {
+            final Map<String, Double> wordScores = new HashMap<>();
+            for (Field field : fields) {
+                matchWord(word, field).forEach((isbn, score) -> wordScores.merge(isbn, score, Double::sum));
+            }
+            if (result == null) {
+                result = wordScores;
+            } else {
+                result.keySet().retainAll(wordScores.keySet());
+                for (Map.Entry<String, Double> entry : result.entrySet()) {
+                    entry.setValue(entry.getValue() + wordScores.get(entry.getKey()));
+                }
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result == null ? new HashMap<>() : result;
+    }
+
+    /**
+     * Best score of the word in the field for each book where some indexed word starts with it.
+     */
+    private Map<String, Double> matchWord(String word, Field field) {
+        final Map<String, Double> scores = new HashMap<>();
+        final NavigableMap<String, Map<String, Integer>> terms = postings.get(field)
+                .subMap(word, true, word + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<String, Integer>> term : terms.entrySet()) {
+            final double idf = Math.log(1 + (double) books.size() / term.getValue().size());
+            final double weight = field.weight * idf * (term.getKey().equals(word) ? 1 : PREFIX_WEIGHT);
+            term.getValue().forEach((isbn, frequency) ->
+                    scores.merge(isbn, weight * (1 + Math.log(frequency)), Math::max));
+        }
+        return scores;
+    }
+
+    private static IndexedBook indexedBook(Book book) {
+        final Map<Long, String> authors = new LinkedHashMap<>();
+        for (Author author : book.getAuthors()) {
+            authors.put(author.getAuthorNumber(), author.getName());
+        }
+        return new IndexedBook(book.getIsbn(), book.getTitle().toString(), book.getDescription(),
+                book.getGenre().getGenre(), authors);
+    }
+
+    private void index(IndexedBook book) {
+        remove(book.isbn);
+        books.put(book.isbn, book);
+        book.frequencies.forEach((field, frequencies) -> frequencies.forEach((word, frequency) ->
+                postings.get(field).computeIfAbsent(word, w -> new HashMap<>()).put(book.isbn, frequency)));
+        for (Long authorNumber : book.authors.keySet()) {
+            booksByAuthor.computeIfAbsent(authorNumber, a -> new HashSet<>()).add(book.isbn);
+        }
+    }
+
+    private void remove(String isbn) {
+        final IndexedBook book = books.remove(isbn);
+        if (book == null) {
+            return;
+        }
+        book.frequencies.forEach((field, frequencies) -> {
+            final NavigableMap<String, Map<String, Integer>> terms = postings.get(field);
+            for (String word : frequencies.keySet()) {
+                final Map<String, Integer> postingList = terms.get(word);
+                postingList.remove(isbn);
+                if (postingList.isEmpty()) {
+                    terms.remove(word);
+                }
+            }
+        });
+        for (Long authorNumber : book.authors.keySet()) {
+            final Set<String> isbns = booksByAuthor.get(authorNumber);
+            isbns.remove(isbn);
+            if (isbns.isEmpty()) {
+                booksByAuthor.remove(authorNumber);
+            }
+        }
+    }
+
+    /**
+     * Text to look for in one or more fields.
+     */
+    public static class Criterion {
+        private final String text;
+        private final Set<Field> fields;
+
+        public Criterion(String text, Field... fields) {
+            this.text = text;
+            this.fields = EnumSet.copyOf(Arrays.asList(fields));
+        }
+    }
+
+    private static class IndexedBook {
+        private final String isbn;
+        private final String title;
+        private final String description;
+        private final String genre;
+        private final Map<Long, String> authors;
+        private final String sortTitle;
+        private final Map<Field, Map<String, Integer>> frequencies = new EnumMap<>(Field.class);
+
+        IndexedBook(String isbn, String title, String description, String genre, Map<Long, String> authors) {
+            this.isbn = isbn;
+            this.title = title;
+            this.description = description;
+            this.genre = genre;
+            this.authors = authors;
+            this.sortTitle = String.join(" ", tokenize(title));
+            count(Field.TITLE, title);
+            count(Field.DESCRIPTION, description);
+            count(Field.GENRE, genre);
+            authors.values().forEach(name -> count(Field.AUTHOR, name));
+        }
+
+        private void count(Field field, String text) {
+            for (String word : tokenize(text)) {
+                frequencies.computeIfAbsent(field, f -> new HashMap<>()).merge(word, 1, Integer::sum);
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
 import pt.psoft.g1.psoftg1.shared.services.Page;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  *
@@ -13,12 +14,15 @@ public interface BookService {
     Book create(CreateBookRequest request, String isbn);
     Book save(Book book);
     Book findByIsbn(String isbn);
+    Optional<Long> findVersionByIsbn(String isbn);
     Book update(UpdateBookRequest request, String currentVersion);
-    List<Book> findByGenre(String genre);
-    List<Book> findByTitle(String title);
-    List<Book> findByAuthorName(String authorName);
-    List<BookCountDTO> findTop5BooksLent();
+    List<BookCountDTO> findTopBooksLent(int limit, Integer days);
     Book removeBookPhoto(String isbn, long desiredVersion);
     List<Book> getBooksSuggestionsForReader(String readerNumber);
+    /**
+     * Books whose title and description have the most words in common with those of the given book.
+     */
+    List<Book> findSimilarBooks(String isbn, int limit);
+    List<Book> findBooks(Page page, SearchBooksQuery query);
     List<Book> searchBooks(Page page, SearchBooksQuery query);
 }
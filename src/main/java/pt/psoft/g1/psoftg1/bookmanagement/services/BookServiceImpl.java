@@ -2,9 +2,8 @@ package pt.psoft.g1.psoftg1.bookmanagement.services;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.PropertySource;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.web.multipart.MultipartFile;
 import pt.psoft.g1.psoftg1.authormanagement.model.Author;
@@ -16,14 +15,21 @@ import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.services.GenreBookLeaderboard;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingLeaderboard;
 import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
 import pt.psoft.g1.psoftg1.readermanagement.repositories.ReaderRepository;
+import pt.psoft.g1.psoftg1.shared.model.Photo;
 import pt.psoft.g1.psoftg1.shared.repositories.PhotoRepository;
+import pt.psoft.g1.psoftg1.shared.services.BatchLoader;
+import pt.psoft.g1.psoftg1.shared.services.FileStorageService;
+import pt.psoft.g1.psoftg1.shared.services.Leaderboard;
 import pt.psoft.g1.psoftg1.shared.services.Page;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -36,29 +42,31 @@ public class BookServiceImpl implements BookService {
 	private final AuthorRepository authorRepository;
 	private final PhotoRepository photoRepository;
 	private final ReaderRepository readerRepository;
+	private final LendingLeaderboard lendingLeaderboard;
+	private final GenreBookLeaderboard genreBookLeaderboard;
+	private final BookSearchIndex bookSearchIndex;
+	private final BookRecommender bookRecommender;
+	private final BookSimilarityIndex bookSimilarityIndex;
+	private final FileStorageService fileStorageService;
+	private final BatchLoader batchLoader;
+
+	private static final BatchLoader.Source<Long, Author> AUTHORS =
+			new BatchLoader.Source<>("authors", Author::getAuthorNumber);
 
 	@Value("${suggestionsLimitPerGenre}")
 	private long suggestionsLimitPerGenre;
 
 	@Override
+	@Transactional
 	public Book create(CreateBookRequest request, String isbn) {
 
 		if(bookRepository.findByIsbn(isbn).isPresent()){
 			throw new ConflictException("Book with ISBN " + isbn + " already exists");
 		}
 
-		List<Long> authorNumbers = request.getAuthors();
-		List<Author> authors = new ArrayList<>();
-		for (Long authorNumber : authorNumbers) {
-
-			Optional<Author> temp = authorRepository.findByAuthorNumber(authorNumber);
-			if(temp.isEmpty()) {
-				continue;
-			}
-
-			Author author = temp.get();
-			authors.add(author);
-		}
+		// unknown authors are left out
+		List<Author> authors = new ArrayList<>(batchLoader.loadAll(AUTHORS, request.getAuthors(),
+				authorRepository::findByAuthorNumberIn).values());
 
 		MultipartFile photo = request.getPhoto();
 		String photoURI = request.getPhotoURI();
@@ -72,25 +80,23 @@ public class BookServiceImpl implements BookService {
 
 		Book newBook = new Book(isbn, request.getTitle(), request.getDescription(), genre, authors, photoURI);
 
-        return bookRepository.save(newBook);
+		final Book savedBook = bookRepository.save(newBook);
+		genreBookLeaderboard.bookAdded(genre);
+		bookSearchIndex.index(savedBook);
+		bookRecommender.index(savedBook);
+		bookSimilarityIndex.index(savedBook);
+		return savedBook;
 	}
 
 
 	@Override
+	@Transactional
 	public Book update(UpdateBookRequest request, String currentVersion) {
 
         var book = findByIsbn(request.getIsbn());
         if(request.getAuthors()!= null) {
-            List<Long> authorNumbers = request.getAuthors();
-            List<Author> authors = new ArrayList<>();
-            for (Long authorNumber : authorNumbers) {
-                Optional<Author> temp = authorRepository.findByAuthorNumber(authorNumber);
-                if (temp.isEmpty()) {
-                    continue;
-                }
-                Author author = temp.get();
-                authors.add(author);
-            }
+            List<Author> authors = new ArrayList<>(batchLoader.loadAll(AUTHORS, request.getAuthors(),
+                    authorRepository::findByAuthorNumberIn).values());
 
             request.setAuthorObjList(authors);
         }
@@ -110,9 +116,14 @@ public class BookServiceImpl implements BookService {
             request.setGenreObj(genre.get());
         }
 
+        final Genre previousGenre = book.getGenre();
         book.applyPatch(Long.parseLong(currentVersion), request);
 
 		bookRepository.save(book);
+		genreBookLeaderboard.bookGenreChanged(previousGenre, book.getGenre());
+		bookSearchIndex.index(book);
+		bookRecommender.index(book);
+		bookSimilarityIndex.index(book);
 
 
 		return book;
@@ -124,87 +135,124 @@ public class BookServiceImpl implements BookService {
 	}
 
 	@Override
-	public List<BookCountDTO> findTop5BooksLent(){
-		LocalDate oneYearAgo = LocalDate.now().minusYears(1);
-		Pageable pageableRules = PageRequest.of(0,5);
-		return this.bookRepository.findTop5BooksLent(oneYearAgo, pageableRules).getContent();
+	public List<BookCountDTO> findTopBooksLent(int limit, Integer days){
+		final var top = lendingLeaderboard.topBooks(limit, days == null ? lendingLeaderboard.getWindowDays() : days);
+		if (top.isEmpty()) {
+			return List.of();
+		}
+
+		final Map<String, Book> books = new HashMap<>();
+		for (Book book : bookRepository.findByIsbnIn(top.stream().map(Leaderboard.Score::getKey).toList())) {
+			books.put(book.getIsbn(), book);
+		}
+
+		final List<BookCountDTO> result = new ArrayList<>(top.size());
+		for (Leaderboard.Score<String> score : top) {
+			final Book book = books.get(score.getKey());
+			if (book != null) {
+				result.add(new BookCountDTO(book, score.getCount()));
+			}
+		}
+		return result;
 	}
 
 	@Override
+	@Transactional
 	public Book removeBookPhoto(String isbn, long desiredVersion) {
 		Book book = this.findByIsbn(isbn);
-		String photoFile;
-		try {
-			photoFile = book.getPhoto().getPhotoFile();
-		}catch (NullPointerException e){
+		Photo photo = book.getPhoto();
+		if (photo == null) {
 			throw new NotFoundException("Book did not have a photo assigned to it.");
 		}
 
 		book.removePhoto(desiredVersion);
 		var updatedBook = bookRepository.save(book);
-		photoRepository.deleteByPhotoFile(photoFile);
+		photoRepository.delete(photo);
+		fileStorageService.deleteFileIfUnreferenced(photo.getPhotoFile());
 		return updatedBook;
 	}
 
-	@Override
-	public List<Book> findByGenre(String genre) {
-		return this.bookRepository.findByGenre(genre);
-	}
-
-	public List<Book> findByTitle(String title) {
-		return bookRepository.findByTitle(title);
-	}
-
-	@Override
-	public List<Book> findByAuthorName(String authorName) {
-		return bookRepository.findByAuthorName(authorName + "%");
-	}
-
 	public Book findByIsbn(String isbn) {
 		return this.bookRepository.findByIsbn(isbn)
 				.orElseThrow(() -> new NotFoundException(Book.class, isbn));
 	}
 
-	public List<Book> getBooksSuggestionsForReader(String readerNumber) {
-		List<Book> books = new ArrayList<>();
+	@Override
+	public Optional<Long> findVersionByIsbn(String isbn) {
+		return bookRepository.findVersionByIsbn(isbn);
+	}
 
+	public List<Book> getBooksSuggestionsForReader(String readerNumber) {
 		ReaderDetails readerDetails = readerRepository.findByReaderNumber(readerNumber)
 				.orElseThrow(() -> new NotFoundException("Reader not found with provided login"));
-		List<Genre> interestList = readerDetails.getInterestList();
-
-		if(interestList.isEmpty()) {
+		List<String> interests = readerDetails.getInterestList().stream()
+				.map(Genre::getGenre)
+				.toList();
+
+		// as many suggestions as before, when they were taken genre by genre
+		final int limit = (int) suggestionsLimitPerGenre * Math.max(1, interests.size());
+		final List<String> isbns = bookRecommender.recommend(readerNumber, interests, limit);
+		if (isbns.isEmpty() && interests.isEmpty()) {
 			throw new NotFoundException("Reader has no interests");
 		}
+		return findInOrder(isbns);
+	}
 
-		for(Genre genre : interestList) {
-			List<Book> tempBooks = bookRepository.findByGenre(genre.toString());
-			if(tempBooks.isEmpty()) {
-				continue;
-			}
-
-			long genreBookCount = 0;
-
-            for (Book loopBook : tempBooks) {
-                if (genreBookCount >= suggestionsLimitPerGenre) {
-                    break;
-                }
-
-                books.add(loopBook);
-				genreBookCount++;
-            }
+	@Override
+	public List<Book> findSimilarBooks(String isbn, int limit) {
+		if (bookRepository.findVersionByIsbn(isbn).isEmpty()) {
+			throw new NotFoundException(Book.class, isbn);
 		}
+		return findInOrder(bookSimilarityIndex.similar(isbn, limit));
+	}
 
-		return books;
+	@Override
+	public List<Book> findBooks(Page page, SearchBooksQuery query) {
+		return search(page, query, false);
 	}
 
 	@Override
 	public List<Book> searchBooks(Page page, SearchBooksQuery query) {
+		return search(page, query, true);
+	}
+
+	private List<Book> search(Page page, SearchBooksQuery query, boolean matchAll) {
 		if (page == null) {
 			page = new Page(1, 10);
 		}
 		if (query == null) {
-			query = new SearchBooksQuery("", "", "");
+			query = new SearchBooksQuery("", "", "", "");
+		}
+
+		final List<String> isbns = bookSearchIndex.search(List.of(
+				new BookSearchIndex.Criterion(query.getTitle(), BookSearchIndex.Field.TITLE),
+				new BookSearchIndex.Criterion(query.getGenre(), BookSearchIndex.Field.GENRE),
+				new BookSearchIndex.Criterion(query.getAuthorName(), BookSearchIndex.Field.AUTHOR),
+				new BookSearchIndex.Criterion(query.getText(), BookSearchIndex.Field.values())),
+				matchAll, page);
+		return findInOrder(isbns);
+	}
+
+	/**
+	 * The books with the given isbns, in the same order.
+	 */
+	private List<Book> findInOrder(List<String> isbns) {
+		if (isbns.isEmpty()) {
+			return List.of();
+		}
+
+		final Map<String, Book> books = new HashMap<>();
+		for (Book book : bookRepository.findByIsbnIn(isbns)) {
+			books.put(book.getIsbn(), book);
+		}
+
+		final List<Book> result = new ArrayList<>(isbns.size());
+		for (String isbn : isbns) {
+			final Book book = books.get(isbn);
+			if (book != null) {
+				result.add(book);
+			}
 		}
-		return bookRepository.searchBooks(page, query);
+		return result;
 	}
 }
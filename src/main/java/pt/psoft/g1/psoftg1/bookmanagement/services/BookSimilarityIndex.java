@@ -0,0 +1,200 @@
+package pt.psoft.g1.psoftg1.bookmanagement.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.shared.services.AfterCommit;
+
+import java.util.*;
+
+/**
+ * In-memory index of books by the words of their title and description, to find books similar to a given one.
+ * <p>
+ * Each book keeps a MinHash signature of its set of words (folded like in {@link BookSearchIndex}, and of at least
+ * {@link #MIN_WORD_LENGTH} letters so articles and prepositions do not make books look alike): for each of
+ * {@link #SIGNATURE_LENGTH} hash functions, the smallest hash of any of its words. Two signatures agree on a position
+ * with a probability equal to the Jaccard similarity of the word sets, so the fraction of agreeing positions estimates
+ * it. The signatures are split into {@link #BANDS} bands, and books sharing a band share a bucket; only the books in
+ * the buckets of a book are compared with it, so a lookup does not go through the whole catalogue. Two books share a
+ * bucket with a probability of {@code 1 - (1 - s^ROWS)^BANDS} for a similarity {@code s}, which turns at about
+ * {@code (1 / BANDS)^(1 / ROWS)}, one half: books with half their words in common share one about two times in three,
+ * books with 70% in common almost always (99%), and books with a fifth in common rarely (under 3%).
+ * <p>
+ * The index is built once the application is ready and kept up to date by the book service, with its changes applied
+ * once committed.
+ */
+@Component
+public class BookSimilarityIndex {
+    static final int SIGNATURE_LENGTH = 64;
+    static final int BANDS = 16;
+    static final int MIN_WORD_LENGTH = 3;
+    private static final int ROWS = SIGNATURE_LENGTH / BANDS;
+
+    private static final int[] SEEDS = new int[SIGNATURE_LENGTH];
+
+    static {
+        // fixed seeds, so signatures are the same on every run
+        final Random random = new Random(0x5EEDL);
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            SEEDS[i] = random.nextInt();
+        }
+    }
+
+    private final BookRepository bookRepository;
+
+    private final Map<String, int[]> signatures = new HashMap<>();
+    /**
+     * Band -> hash of the rows of the band -> isbns.
+     */
+    private final List<Map<Long, Set<String>>> buckets = new ArrayList<>(BANDS);
+
+    @Autowired
+    public BookSimilarityIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+        for (int band = 0; band < BANDS; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        synchronized (this) {
+            signatures.clear();
+            buckets.forEach(Map::clear);
+            for (Book book : bookRepository.findAll()) {
+                index(book.getIsbn(), signature(book));
+            }
+        }
+    }
+
+    /**
+     * Adds the book to the index, replacing any previous version of it, once the current transaction commits.
+     */
+    public void index(Book book) {
+        final String isbn = book.getIsbn();
+        final int[] signature = signature(book);
+        AfterCommit.run(() -> index(isbn, signature));
+    }
+
+    private synchronized void index(String isbn, int[] signature) {
+        remove(isbn);
+        if (signature == null) {
+            return;
+        }
+        signatures.put(isbn, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.get(band).computeIfAbsent(bandHash(signature, band), h -> new HashSet<>()).add(isbn);
+        }
+    }
+
+    private static int[] signature(Book book) {
+        return signature(book.getTitle().toString() + " " + Objects.toString(book.getDescription(), ""));
+    }
+
+    /**
+     * Isbns of the books most similar to the given one, most similar first.
+     */
+    public synchronized List<String> similar(String isbn, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        final int[] signature = signatures.get(isbn);
+        if (signature == null) {
+            return List.of();
+        }
+
+        final Set<String> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            candidates.addAll(buckets.get(band).get(bandHash(signature, band)));
+        }
+        candidates.remove(isbn);
+
+        final Map<String, Double> similarities = new HashMap<>();
+        for (String candidate : candidates) {
+            similarities.put(candidate, similarity(signature, signatures.get(candidate)));
+        }
+        return similarities.keySet().stream()
+                .sorted(Comparator.<String>comparingDouble(similarities::get).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Estimated Jaccard similarity of the word sets behind two signatures.
+     */
+    static double similarity(int[] signature, int[] other) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (signature[i] == other[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_LENGTH;
+    }
+
+    /**
+     * MinHash signature of the words of the text, or {@code null} if it has none.
+     */
+    static int[] signature(String text) {
+        final Set<String> words = new HashSet<>();
+        for (String word : BookSearchIndex.tokenize(text)) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                words.add(word);
+            }
+        }
+        if (words.isEmpty()) {
+            return null;
+        }
+        final int[] signature = new int[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String word : words) {
+            final int wordHash = word.hashCode();
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                signature[i] = Math.min(signature[i], mix(wordHash ^ SEEDS[i]));
+            }
+        }
+        return signature;
+    }
+
+    private void remove(String isbn) {
+        final int[] signature = signatures.remove(isbn);
+        if (signature == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            final Map<Long, Set<String>> bandBuckets = buckets.get(band);
+            final long hash = bandHash(signature, band);
+            final Set<String> bucket = bandBuckets.get(hash);
+            bucket.remove(isbn);
+            if (bucket.isEmpty()) {
+                bandBuckets.remove(hash);
+            }
+        }
+    }
+
+    private static long bandHash(int[] signature, int band) {
+        long hash = 17;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            hash = hash * 31 + signature[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Murmur3 finalizer, so that each seed gives an independent-looking hash function.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
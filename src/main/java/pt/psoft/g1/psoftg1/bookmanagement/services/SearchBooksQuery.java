@@ -11,4 +11,5 @@ public class SearchBooksQuery {
     private String title;
     private String genre;
     private String authorName;
+    private String text;
 }
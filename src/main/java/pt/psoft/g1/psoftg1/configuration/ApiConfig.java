@@ -3,6 +3,7 @@ package pt.psoft.g1.psoftg1.configuration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.web.filter.ShallowEtagHeaderFilter;
 
 import io.swagger.v3.oas.models.Components;
@@ -12,6 +13,7 @@ import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import jakarta.servlet.http.HttpServletRequest;
 import pt.psoft.g1.psoftg1.shared.services.FileStorageProperties;
 
 /**
@@ -24,11 +26,18 @@ import pt.psoft.g1.psoftg1.shared.services.FileStorageProperties;
 public class ApiConfig {
 
     /*
-     * Etags
+     * Etags for the GET endpoints without one of their own. Endpoints returning a single versioned resource use its
+     * version instead (see ConcurrencyService#isNotModified) and opt out of the buffering, as do photos.
      */
     @Bean
     public ShallowEtagHeaderFilter shallowEtagHeaderFilter() {
-        return new ShallowEtagHeaderFilter();
+        return new ShallowEtagHeaderFilter() {
+            @Override
+            protected boolean shouldNotFilter(final HttpServletRequest request) {
+                // only GET and HEAD responses get an ETag, there is no point in buffering the others
+                return !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod());
+            }
+        };
     }
 
     /*
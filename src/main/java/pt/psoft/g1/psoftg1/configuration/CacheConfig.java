@@ -0,0 +1,111 @@
+package pt.psoft.g1.psoftg1.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * In-memory caches behind the {@code @Cacheable} repositories.
+ * <p>
+ * Every cache is bounded in size and entries expire after a while, so that changes made outside the application are
+ * eventually seen. Statistics are recorded for {@code api/admin/caches}. Evictions requested inside a transaction only
+ * happen once it commits, so a concurrent request cannot cache the old state again in between.
+ * <p>
+ * The catalogue entities (books, authors, genres and photos), the authors of each book, the interests of each reader
+ * and the results of the cacheable queries are also kept in Hibernate's second-level cache, one bounded region each.
+ * The regions are read-write, so entities being changed are locked out of the cache until the change commits, and a
+ * stale version read by a concurrent transaction never replaces a newer one.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Second-level cache regions named in the {@code @Cache} annotations of the entities, and the query results region.
+     */
+    static final List<String> HIBERNATE_REGIONS = List.of("book", "book.authors", "author", "genre", "photo",
+            "readerDetails.interestList", RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+    /**
+     * The caches themselves. Caches with their own bounds, such as the verified tokens, are registered here too.
+     */
+    @Bean
+    public CaffeineCacheManager caffeineCacheManager(@Value("${cache.maximum-size:10000}") final long maximumSize,
+                                                     @Value("${cache.expire-after-write:10m}") final Duration expireAfterWrite) {
+        final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        return cacheManager;
+    }
+
+    @Bean
+    @Primary
+    public CacheManager cacheManager(final CaffeineCacheManager caffeineCacheManager) {
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+
+    /**
+     * The second-level cache regions. Each application context gets a cache manager of its own, closed by Hibernate
+     * together with the session factory.
+     */
+    @Bean(destroyMethod = "")
+    public javax.cache.CacheManager hibernateCacheManager(
+            @Value("${hibernate-cache.maximum-size:10000}") final long maximumSize,
+            @Value("${hibernate-cache.expire-after-write:30m}") final Duration expireAfterWrite) {
+        final CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        final javax.cache.CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+
+        for (String region : HIBERNATE_REGIONS) {
+            cacheManager.createCache(region, regionConfiguration()
+                    .setMaximumSize(OptionalLong.of(maximumSize))
+                    .setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos())));
+        }
+        // when each table last changed, to tell stale query results; it must neither expire nor be evicted
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, regionConfiguration());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(final javax.cache.CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // a region missing from HIBERNATE_REGIONS would otherwise be created without bounds
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration() {
+        final CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate already stores disassembled copies of the entities
+        configuration.setStoreByValue(false);
+        configuration.setNativeStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -228,9 +228,11 @@ import static java.lang.String.format;
 
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -242,9 +244,9 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
@@ -266,6 +268,7 @@ import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
+import pt.psoft.g1.psoftg1.auth.services.CachingJwtDecoder;
 import pt.psoft.g1.psoftg1.usermanagement.model.Role;
 import lombok.RequiredArgsConstructor;
 import pt.psoft.g1.psoftg1.usermanagement.repositories.UserRepository;
@@ -293,10 +296,13 @@ public class SecurityConfig {
 
     @Bean
     public AuthenticationManager authenticationManager(final UserDetailsService userDetailsService,
-                                                       final PasswordEncoder passwordEncoder) {
+                                                       final PasswordEncoder passwordEncoder,
+                                                       final UserDetailsPasswordService userDetailsPasswordService) {
         final DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(userDetailsService);
         authenticationProvider.setPasswordEncoder(passwordEncoder);
+        // rehashes passwords hashed with a lower strength than the configured one on successful login
+        authenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return new ProviderManager(authenticationProvider);
     }
 
@@ -364,8 +370,12 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(this.rsaPublicKey).build();
+    public JwtDecoder jwtDecoder(final CaffeineCacheManager caffeineCacheManager,
+                                 @Value("${jwt.cache.maximum-size:10000}") final long maximumSize) {
+        final CachingJwtDecoder jwtDecoder = new CachingJwtDecoder(
+                NimbusJwtDecoder.withPublicKey(this.rsaPublicKey).build(), userRepo, maximumSize, Clock.systemUTC());
+        jwtDecoder.registerIn(caffeineCacheManager);
+        return jwtDecoder;
     }
 
     @Bean
@@ -379,11 +389,6 @@ public class SecurityConfig {
         return jwtAuthenticationConverter;
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     @Bean
     public CorsFilter corsFilter() {
         final UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
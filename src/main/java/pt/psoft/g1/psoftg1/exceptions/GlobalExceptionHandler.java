@@ -188,6 +188,16 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 				.body(new ApiCallError<>("Lending forbidden!", List.of(ex.getMessage())));
 	}
 
+	@ExceptionHandler({ServiceUnavailableException.class})
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	public ResponseEntity<ApiCallError<String>> handleServiceUnavailableException(final HttpServletRequest request,
+																				final ServiceUnavailableException ex) {
+		logger.warn("handleServiceUnavailableException {}\n", request.getRequestURI(), ex);
+
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+				.body(new ApiCallError<>("Service unavailable", List.of(ex.getMessage())));
+	}
+
 	@Data
 	@NoArgsConstructor
 	@AllArgsConstructor
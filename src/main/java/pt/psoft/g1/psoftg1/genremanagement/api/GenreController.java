@@ -26,8 +26,8 @@ public class GenreController {
     }
 
     @GetMapping("/top5")
-    public ListResponse<GenreBookCountView> getTop() {
-        final var list = genreService.findTopGenreByBooks();
+    public ListResponse<GenreBookCountView> getTop(@RequestParam(value = "limit", defaultValue = "5") final int limit) {
+        final var list = genreService.findTopGenreByBooks(limit);
 
         if(list.isEmpty())
             throw new NotFoundException("No genres to show");
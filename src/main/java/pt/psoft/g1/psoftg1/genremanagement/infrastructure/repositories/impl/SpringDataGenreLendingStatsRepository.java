@@ -0,0 +1,66 @@
+package pt.psoft.g1.psoftg1.genremanagement.infrastructure.repositories.impl;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.genremanagement.model.GenreLendingStats;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreLendingStatsRepository;
+
+import java.util.List;
+
+public interface SpringDataGenreLendingStatsRepository extends GenreLendingStatsRepository, CrudRepository<GenreLendingStats, Long> {
+    @Override
+    @Modifying
+    @Transactional
+    @Query("UPDATE GenreLendingStats s " +
+            "SET s.lendingCount = s.lendingCount + 1 " +
+            "WHERE s.genre = :genre AND s.year = :year AND s.month = :month")
+    int addLending(@Param("genre") String genre, @Param("year") int year, @Param("month") int month);
+
+    @Override
+    @Modifying
+    @Transactional
+    @Query("UPDATE GenreLendingStats s " +
+            "SET s.returnedCount = s.returnedCount + 1, " +
+                "s.totalDurationInDays = s.totalDurationInDays + :durationInDays " +
+            "WHERE s.genre = :genre AND s.year = :year AND s.month = :month")
+    int addReturnedLending(@Param("genre") String genre, @Param("year") int year, @Param("month") int month,
+                           @Param("durationInDays") long durationInDays);
+
+    @Override
+    @Query("SELECT s " +
+            "FROM GenreLendingStats s " +
+            "WHERE s.year * 100 + s.month BETWEEN :startPeriod AND :endPeriod " +
+            "ORDER BY s.year, s.month, s.genre")
+    List<GenreLendingStats> findByPeriodBetween(@Param("startPeriod") int startPeriod,
+                                                @Param("endPeriod") int endPeriod);
+
+    @Override
+    @Query("SELECT s " +
+            "FROM GenreLendingStats s " +
+            "WHERE s.year = :year AND s.month = :month AND s.lendingCount > 0 " +
+            "ORDER BY s.genre")
+    List<GenreLendingStats> findByYearAndMonth(@Param("year") int year, @Param("month") int month, Pageable pageable);
+
+    //http://www.h2database.com/html/commands.html
+
+    @Override
+    @Query(value =
+            "SELECT g.GENRE, YEAR(l.start_date), MONTH(l.start_date), COUNT(*), COUNT(l.returned_date), " +
+                    "SUM(DATEDIFF(day, l.start_date, l.returned_date)) " +
+                    "FROM Lending l " +
+                    "JOIN BOOK b ON l.BOOK_PK = b.PK " +
+                    "JOIN GENRE g ON b.GENRE_PK = g.PK " +
+                    "GROUP BY g.GENRE, YEAR(l.start_date), MONTH(l.start_date)"
+            , nativeQuery = true)
+    List<Object[]> sumLendingsByGenreAndMonth();
+
+    @Override
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GenreLendingStats s")
+    void deleteAllStats();
+}
@@ -0,0 +1,71 @@
+package pt.psoft.g1.psoftg1.genremanagement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+/**
+ * Monthly lending rollup of a genre: how many lendings of books of the genre started in a given month, how many of
+ * those have been returned and the sum of their durations in days.
+ * <p>
+ * Rows are updated as lendings are created and returned, so the genre reports read a handful of rows instead of
+ * joining and grouping the whole lending history.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"GENRE", "STATS_YEAR", "STATS_MONTH"}))
+public class GenreLendingStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long pk;
+
+    @Getter
+    @Column(name = "GENRE", nullable = false, length = 100)
+    private String genre;
+
+    @Getter
+    @Column(name = "STATS_YEAR", nullable = false)
+    private int year;
+
+    @Getter
+    @Column(name = "STATS_MONTH", nullable = false)
+    private int month;
+
+    @Getter
+    @Column(nullable = false)
+    private long lendingCount;
+
+    @Getter
+    @Column(nullable = false)
+    private long returnedCount;
+
+    @Getter
+    @Column(nullable = false)
+    private long totalDurationInDays;
+
+    protected GenreLendingStats() {
+        // for ORM only
+    }
+
+    public GenreLendingStats(String genre, int year, int month,
+                             long lendingCount, long returnedCount, long totalDurationInDays) {
+        if (genre == null || genre.isBlank())
+            throw new IllegalArgumentException("Genre cannot be blank");
+        if (month < 1 || month > 12)
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        if (lendingCount < 0 || returnedCount < 0 || totalDurationInDays < 0)
+            throw new IllegalArgumentException("Statistics cannot be negative");
+        this.genre = genre;
+        this.year = year;
+        this.month = month;
+        this.lendingCount = lendingCount;
+        this.returnedCount = returnedCount;
+        this.totalDurationInDays = totalDurationInDays;
+    }
+
+    /**
+     * Average duration in days of the returned lendings, or {@code null} if none has been returned.
+     */
+    public Double getAverageDuration() {
+        return returnedCount == 0 ? null : (double) totalDurationInDays / returnedCount;
+    }
+}
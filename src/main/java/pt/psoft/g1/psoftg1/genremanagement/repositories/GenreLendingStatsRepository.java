@@ -0,0 +1,47 @@
+package pt.psoft.g1.psoftg1.genremanagement.repositories;
+
+import org.springframework.data.domain.Pageable;
+import pt.psoft.g1.psoftg1.genremanagement.model.GenreLendingStats;
+
+import java.util.List;
+
+public interface GenreLendingStatsRepository {
+    /**
+     * Atomically adds one lending to the rollup of the given genre and month.
+     *
+     * @return number of rows updated, 0 if there is no rollup for that genre and month yet
+     */
+    int addLending(String genre, int year, int month);
+
+    /**
+     * Atomically adds one returned lending of the given duration to the rollup of the given genre and month.
+     *
+     * @return number of rows updated, 0 if there is no rollup for that genre and month yet
+     */
+    int addReturnedLending(String genre, int year, int month, long durationInDays);
+
+    /**
+     * Rollups of the months between the given periods (inclusive), where a period is {@code year * 100 + month},
+     * ordered by year, month and genre.
+     */
+    List<GenreLendingStats> findByPeriodBetween(int startPeriod, int endPeriod);
+
+    /**
+     * Rollups of the given month with at least one lending, ordered by genre.
+     */
+    List<GenreLendingStats> findByYearAndMonth(int year, int month, Pageable pageable);
+
+    /**
+     * Genre, year, month, number of lendings, number of returned lendings and sum of the durations in days of the
+     * returned lendings, computed from the lending table.
+     */
+    List<Object[]> sumLendingsByGenreAndMonth();
+
+    long count();
+
+    GenreLendingStats save(GenreLendingStats stats);
+
+    <S extends GenreLendingStats> Iterable<S> saveAll(Iterable<S> stats);
+
+    void deleteAllStats();
+}
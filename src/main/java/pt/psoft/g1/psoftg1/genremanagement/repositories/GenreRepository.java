@@ -1,13 +1,9 @@
 package pt.psoft.g1.psoftg1.genremanagement.repositories;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import pt.psoft.g1.psoftg1.bookmanagement.services.GenreBookCountDTO;
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
-import pt.psoft.g1.psoftg1.genremanagement.services.GenreLendingsDTO;
-import pt.psoft.g1.psoftg1.genremanagement.services.GenreLendingsPerMonthDTO;
 
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,10 +11,8 @@ public interface GenreRepository {
 
     Iterable<Genre> findAll();
     Optional<Genre> findByString(String genreName);
+    List<Genre> findByStringIn(Collection<String> genreNames);
     Genre save(Genre genre);
-    Page<GenreBookCountDTO> findTop5GenreByBookCount(Pageable pageable);
-    List<GenreLendingsDTO> getAverageLendingsInMonth(LocalDate month, pt.psoft.g1.psoftg1.shared.services.Page page);
-    List<GenreLendingsPerMonthDTO> getLendingsPerMonthLastYearByGenre();
-    List<GenreLendingsPerMonthDTO> getLendingsAverageDurationPerMonth(LocalDate startDate, LocalDate endDate);
+    List<GenreBookCountDTO> countBooksByGenre();
     void delete(Genre genre);
 }
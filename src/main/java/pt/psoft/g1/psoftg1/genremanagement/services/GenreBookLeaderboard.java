@@ -0,0 +1,78 @@
+package pt.psoft.g1.psoftg1.genremanagement.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.bookmanagement.services.GenreBookCountDTO;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+import pt.psoft.g1.psoftg1.shared.services.AfterCommit;
+import pt.psoft.g1.psoftg1.shared.services.Leaderboard.Score;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory ranking of genres by number of books.
+ * <p>
+ * The counts are loaded once the application is ready and kept up to date by the book service as books are created
+ * or change genre, once the change is committed.
+ */
+@Component
+public class GenreBookLeaderboard {
+    private final GenreRepository genreRepository;
+    private final Map<String, Long> counts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GenreBookLeaderboard(GenreRepository genreRepository) {
+        this.genreRepository = genreRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        counts.clear();
+        for (GenreBookCountDTO count : genreRepository.countBooksByGenre()) {
+            counts.put(count.getGenre(), count.getBookCount());
+        }
+    }
+
+    public void bookAdded(Genre genre) {
+        final String name = genre.getGenre();
+        AfterCommit.run(() -> counts.merge(name, 1L, Long::sum));
+    }
+
+    public void bookGenreChanged(Genre previous, Genre current) {
+        final String previousName = previous.getGenre();
+        final String currentName = current.getGenre();
+        if (Objects.equals(previousName, currentName)) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            counts.merge(previousName, -1L, Long::sum);
+            counts.merge(currentName, 1L, Long::sum);
+        });
+    }
+
+    public List<GenreBookCountDTO> top(int limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("Limit must be greater than 0");
+
+        // min-heap of the best scores seen so far: its head is the first one to give up its place
+        final PriorityQueue<Score<String>> best = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        counts.forEach((genre, count) -> {
+            if (count > 0) {
+                best.add(new Score<>(genre, count));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        });
+
+        final List<Score<String>> ranking = new ArrayList<>(best);
+        Collections.sort(ranking);
+        return ranking.stream()
+                .map(score -> new GenreBookCountDTO(score.getKey(), score.getCount()))
+                .toList();
+    }
+}
@@ -0,0 +1,162 @@
+package pt.psoft.g1.psoftg1.genremanagement.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.psoft.g1.psoftg1.genremanagement.model.GenreLendingStats;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreLendingStatsRepository;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingCreatedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingReturnedEvent;
+import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.RowCreator;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Maintains the genre x month lending rollup and answers the genre lending reports from it.
+ * <p>
+ * Lendings are attributed to the month they started in. The rollup is updated in the same transaction that creates
+ * or returns a lending, except for creating the row of a genre and month, which commits on its own so that two
+ * lendings creating it at once do not fail one another; {@link #rebuild()} recomputes it from the lending table and is run automatically on startup
+ * when the rollup is empty.
+ */
+@Service
+public class GenreLendingStatsService {
+    private final GenreLendingStatsRepository statsRepository;
+    private final RowCreator rowCreator;
+
+    @Autowired
+    public GenreLendingStatsService(GenreLendingStatsRepository statsRepository, RowCreator rowCreator) {
+        this.statsRepository = statsRepository;
+        this.rowCreator = rowCreator;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onLendingCreated(LendingCreatedEvent event) {
+        final Lending lending = event.getLending();
+        final String genre = lending.getBook().getGenre().getGenre();
+        final LocalDate start = lending.getStartDate();
+
+        if (statsRepository.addLending(genre, start.getYear(), start.getMonthValue()) == 0) {
+            createStats(genre, start.getYear(), start.getMonthValue());
+            statsRepository.addLending(genre, start.getYear(), start.getMonthValue());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onLendingReturned(LendingReturnedEvent event) {
+        final Lending lending = event.getLending();
+        final String genre = lending.getBook().getGenre().getGenre();
+        final LocalDate start = lending.getStartDate();
+        final long durationInDays = ChronoUnit.DAYS.between(start, lending.getReturnedDate());
+
+        if (statsRepository.addReturnedLending(genre, start.getYear(), start.getMonthValue(), durationInDays) == 0) {
+            // only before the rollup was first built, as creating the lending created the row otherwise
+            createStats(genre, start.getYear(), start.getMonthValue());
+            statsRepository.addLending(genre, start.getYear(), start.getMonthValue());
+            statsRepository.addReturnedLending(genre, start.getYear(), start.getMonthValue(), durationInDays);
+        }
+    }
+
+    /**
+     * Creates the empty rollup of the genre and month, unless a concurrent lending already did.
+     */
+    private void createStats(String genre, int year, int month) {
+        rowCreator.createIfAbsent(() -> statsRepository.save(new GenreLendingStats(genre, year, month, 0, 0, 0)));
+    }
+
+    /**
+     * Number of lendings per genre for each month of the last twelve months (including the current one).
+     */
+    public List<GenreLendingsPerMonthDTO> getLendingsPerMonthLastYearByGenre() {
+        final LocalDate now = LocalDate.now();
+        final List<GenreLendingStats> stats = statsRepository.findByPeriodBetween(period(now.minusMonths(11)), period(now));
+
+        return groupByMonth(stats, s -> s.getLendingCount() > 0
+                ? new GenreLendingsDTO(s.getGenre(), s.getLendingCount())
+                : null);
+    }
+
+    /**
+     * Average number of lendings per day of the given month, per genre.
+     */
+    public List<GenreLendingsDTO> getAverageLendingsInMonth(LocalDate month, Page page) {
+        final int days = month.lengthOfMonth();
+        final List<GenreLendingStats> stats = statsRepository.findByYearAndMonth(month.getYear(), month.getMonthValue(),
+                PageRequest.of(page.getNumber() - 1, page.getLimit()));
+
+        final List<GenreLendingsDTO> averages = new ArrayList<>(stats.size());
+        for (GenreLendingStats s : stats) {
+            averages.add(new GenreLendingsDTO(s.getGenre(), (double) s.getLendingCount() / days));
+        }
+        return averages;
+    }
+
+    /**
+     * Average duration of the returned lendings per genre, for each month between the months of the given dates.
+     */
+    public List<GenreLendingsPerMonthDTO> getLendingsAverageDurationPerMonth(LocalDate startDate, LocalDate endDate) {
+        final List<GenreLendingStats> stats = statsRepository.findByPeriodBetween(period(startDate), period(endDate));
+
+        return groupByMonth(stats, s -> s.getReturnedCount() > 0
+                ? new GenreLendingsDTO(s.getGenre(), s.getAverageDuration())
+                : null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (statsRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Discards the rollup and recomputes it from scratch from the lending history.
+     */
+    @Transactional
+    public void rebuild() {
+        statsRepository.deleteAllStats();
+
+        final List<GenreLendingStats> stats = new ArrayList<>();
+        for (Object[] row : statsRepository.sumLendingsByGenreAndMonth()) {
+            stats.add(new GenreLendingStats((String) row[0],
+                    ((Number) row[1]).intValue(),
+                    ((Number) row[2]).intValue(),
+                    ((Number) row[3]).longValue(),
+                    ((Number) row[4]).longValue(),
+                    row[5] == null ? 0 : ((Number) row[5]).longValue()));
+        }
+        statsRepository.saveAll(stats);
+    }
+
+    private static int period(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    /**
+     * Groups rollup rows (already ordered by year, month and genre) by month, skipping the rows the mapper ignores.
+     */
+    private static List<GenreLendingsPerMonthDTO> groupByMonth(List<GenreLendingStats> stats,
+                                                               Function<GenreLendingStats, GenreLendingsDTO> mapper) {
+        final Map<Integer, GenreLendingsPerMonthDTO> months = new LinkedHashMap<>();
+        for (GenreLendingStats s : stats) {
+            final GenreLendingsDTO value = mapper.apply(s);
+            if (value != null) {
+                months.computeIfAbsent(s.getYear() * 100 + s.getMonth(),
+                                k -> new GenreLendingsPerMonthDTO(s.getYear(), s.getMonth(), new ArrayList<>()))
+                        .getValues().add(value);
+            }
+        }
+        return new ArrayList<>(months.values());
+    }
+}
@@ -11,7 +11,7 @@ public interface GenreService {
     Iterable<Genre> findAll();
     Genre save(Genre genre);
     Optional<Genre> findByString(String name);
-    List<GenreBookCountDTO> findTopGenreByBooks();
+    List<GenreBookCountDTO> findTopGenreByBooks(int limit);
     List<GenreLendingsDTO> getAverageLendings(GetAverageLendingsQuery query, Page page);
     List<GenreLendingsPerMonthDTO> getLendingsPerMonthLastYearByGenre();
     List<GenreLendingsPerMonthDTO> getLendingsAverageDurationPerMonth(String startDate, String endDate);
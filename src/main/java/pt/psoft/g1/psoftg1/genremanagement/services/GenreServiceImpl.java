@@ -1,8 +1,6 @@
 package pt.psoft.g1.psoftg1.genremanagement.services;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import pt.psoft.g1.psoftg1.bookmanagement.services.GenreBookCountDTO;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
@@ -20,6 +18,8 @@ import java.util.Optional;
 public class GenreServiceImpl implements GenreService {
 
     private final GenreRepository genreRepository;
+    private final GenreLendingStatsService genreLendingStatsService;
+    private final GenreBookLeaderboard genreBookLeaderboard;
 
 
     public Optional<Genre> findByString(String name) {
@@ -32,9 +32,8 @@ public class GenreServiceImpl implements GenreService {
     }
 
     @Override
-    public List<GenreBookCountDTO> findTopGenreByBooks(){
-        Pageable pageableRules = PageRequest.of(0,5);
-        return this.genreRepository.findTop5GenreByBookCount(pageableRules).getContent();
+    public List<GenreBookCountDTO> findTopGenreByBooks(int limit){
+        return genreBookLeaderboard.top(limit);
     }
 
     @Override
@@ -44,7 +43,7 @@ public class GenreServiceImpl implements GenreService {
 
     @Override
     public List<GenreLendingsPerMonthDTO> getLendingsPerMonthLastYearByGenre() {
-        return genreRepository.getLendingsPerMonthLastYearByGenre();
+        return genreLendingStatsService.getLendingsPerMonthLastYearByGenre();
     }
 
     @Override
@@ -54,7 +53,7 @@ public class GenreServiceImpl implements GenreService {
 
         final var month = LocalDate.of(query.getYear(), query.getMonth(), 1);
 
-        return genreRepository.getAverageLendingsInMonth(month, page);
+        return genreLendingStatsService.getAverageLendingsInMonth(month, page);
     }
 
     @Override
@@ -72,7 +71,7 @@ public class GenreServiceImpl implements GenreService {
         if(startDate.isAfter(endDate))
             throw new IllegalArgumentException("Start date cannot be after end date");
 
-        final var list = genreRepository.getLendingsAverageDurationPerMonth(startDate, endDate);
+        final var list = genreLendingStatsService.getLendingsAverageDurationPerMonth(startDate, endDate);
 
         if (list.isEmpty())
             throw new NotFoundException("No objects match the provided criteria");
@@ -0,0 +1,37 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.command.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.security.RolesAllowed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pt.psoft.g1.psoftg1.lendingmanagement.command.handlers.LendingCommandExecutor;
+import pt.psoft.g1.psoftg1.shared.api.ListResponse;
+import pt.psoft.g1.psoftg1.usermanagement.model.Role;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Tag(name = "LendingCommandAdmin")
+@RestController
+@RequestMapping(path = "api/admin/lending-partitions")
+@RolesAllowed(Role.ADMIN)
+@RequiredArgsConstructor
+public class LendingCommandAdminApi {
+
+    private final LendingCommandExecutor commandExecutor;
+
+    @Operation(summary = "Gets the queue depth and throughput of every partition running lending commands")
+    @GetMapping
+    public ListResponse<LendingCommandPartitionView> getPartitions() {
+        final List<LendingCommandPartitionView> partitions = new ArrayList<>();
+        for (int i = 0; i < commandExecutor.getPartitionCount(); i++) {
+            partitions.add(new LendingCommandPartitionView(i, commandExecutor.getQueueDepth(i),
+                    commandExecutor.isBusy(i), commandExecutor.getCompletedCount(i),
+                    commandExecutor.getRejectedCount(i)));
+        }
+        return new ListResponse<>(partitions);
+    }
+}
@@ -0,0 +1,23 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.command.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Load of a partition running lending commands since the application started")
+public class LendingCommandPartitionView {
+    private int partition;
+
+    @Schema(description = "Commands waiting to run, not counting the one running")
+    private int queueDepth;
+
+    @Schema(description = "Whether a command is running")
+    private boolean busy;
+
+    private long completedCount;
+
+    @Schema(description = "Commands refused with 503 because the queue was full")
+    private long rejectedCount;
+}
@@ -1,37 +1,46 @@
 package pt.psoft.g1.psoftg1.lendingmanagement.command.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.security.RolesAllowed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import pt.psoft.g1.psoftg1.auth.services.CurrentPrincipal;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
+import pt.psoft.g1.psoftg1.lendingmanagement.command.handlers.CreateLendingHandler;
+import pt.psoft.g1.psoftg1.lendingmanagement.command.handlers.SetLendingReturnedHandler;
+import pt.psoft.g1.psoftg1.lendingmanagement.command.handlers.dto.CreateLendingCommand;
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
 import pt.psoft.g1.psoftg1.lendingmanagement.command.services.CreateLendingRequest;
 import pt.psoft.g1.psoftg1.lendingmanagement.command.services.LendingService;
 import pt.psoft.g1.psoftg1.lendingmanagement.command.services.SearchLendingQuery;
-import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
-import pt.psoft.g1.psoftg1.readermanagement.services.ReaderService;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingDurationStatsService;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
 import pt.psoft.g1.psoftg1.shared.api.ListResponse;
 import pt.psoft.g1.psoftg1.shared.services.ConcurrencyService;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 import pt.psoft.g1.psoftg1.shared.services.SearchRequest;
-import pt.psoft.g1.psoftg1.usermanagement.model.Librarian;
-import pt.psoft.g1.psoftg1.usermanagement.model.User;
-import pt.psoft.g1.psoftg1.usermanagement.services.UserService;
-import pt.psoft.g1.psoftg1.lendingmanagement.command.services.SetLendingReturnedRequest;
+import pt.psoft.g1.psoftg1.usermanagement.model.Role;
+import pt.psoft.g1.psoftg1.lendingmanagement.command.handlers.dto.SetLendingReturnedRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.Objects;
+import java.util.Optional;
 
 @Tag(name = "Lendings", description = "Endpoints for managing Lendings")
 @RestController
@@ -40,17 +49,21 @@ import java.util.Objects;
 public class LendingController {
 
     private final LendingService lendingService;
-    private final ReaderService readerService;
-    private final UserService userService;
+    private final CreateLendingHandler createLendingHandler;
+    private final SetLendingReturnedHandler setLendingReturnedHandler;
+    private final CurrentPrincipal currentPrincipal;
     private final ConcurrencyService concurrencyService;
     private final LendingViewMapper lendingViewMapper;
+    private final LendingDurationStatsService lendingDurationStatsService;
+    private final ObjectMapper objectMapper;
 
     // ---------------- CREATE ----------------
     @Operation(summary = "Creates a new Lending")
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public ResponseEntity<LendingView> create(@Valid @RequestBody CreateLendingRequest request) {
-        Lending lending = lendingService.create(request);
+        Lending lending = createLendingHandler.handle(
+                new CreateLendingCommand(request.getIsbn(), request.getReaderNumber()));
 
         var newLendingUri = ServletUriComponentsBuilder.fromCurrentRequestUri()
                 .pathSegment(lending.getLendingNumber())
@@ -67,24 +80,27 @@ public class LendingController {
     @Operation(summary = "Get a specific Lending by its Lending Number")
     @GetMapping("/{year}/{seq}")
     public ResponseEntity<LendingView> findByLendingNumber(
-            Authentication authentication,
             @PathVariable("year") @Parameter(description = "Year of the Lending") Integer year,
-            @PathVariable("seq") @Parameter(description = "Sequential number of the Lending") Integer seq) {
+            @PathVariable("seq") @Parameter(description = "Sequential number of the Lending") Integer seq,
+            WebRequest request) {
 
         String lendingNumber = year + "/" + seq;
+        // readers only get the version of their own lendings
+        final Optional<Long> version = currentPrincipal.isLibrarian()
+                ? lendingService.findVersionByLendingNumber(lendingNumber)
+                : currentPrincipal.getReaderNumber().flatMap(readerNumber ->
+                        lendingService.findVersionByLendingNumberAndReaderNumber(lendingNumber, readerNumber));
+        if (concurrencyService.isNotModified(request, version)) {
+            return null;
+        }
+
         Lending lending = lendingService.findByLendingNumber(lendingNumber)
                 .orElseThrow(() -> new NotFoundException(Lending.class, lendingNumber));
 
-        User loggedUser = userService.getAuthenticatedUser(authentication);
-
         // Only allow access if librarian or the reader owning the lending
-        if (!(loggedUser instanceof Librarian)) {
-            ReaderDetails readerDetails = readerService.findByUsername(loggedUser.getUsername())
-                    .orElseThrow(() -> new NotFoundException(ReaderDetails.class, loggedUser.getUsername()));
-
-            if (!Objects.equals(readerDetails.getReaderNumber(), lending.getReaderDetails().getReaderNumber())) {
-                throw new AccessDeniedException("Reader does not have permission to view this lending");
-            }
+        if (!currentPrincipal.isLibrarian()
+                && !currentPrincipal.isReader(lending.getReaderDetails().getReaderNumber())) {
+            throw new AccessDeniedException("Reader does not have permission to view this lending");
         }
 
         var lendingUri = ServletUriComponentsBuilder.fromCurrentRequestUri().build().toUri();
@@ -101,7 +117,6 @@ public class LendingController {
     @PatchMapping("/{year}/{seq}")
     public ResponseEntity<LendingView> setLendingReturned(
             WebRequest request,
-            Authentication authentication,
             @PathVariable("year") Integer year,
             @PathVariable("seq") Integer seq,
             @Valid @RequestBody SetLendingReturnedRequest resource) {
@@ -115,16 +130,13 @@ public class LendingController {
         Lending lending = lendingService.findByLendingNumber(lendingNumber)
                 .orElseThrow(() -> new NotFoundException(Lending.class, lendingNumber));
 
-        User loggedUser = userService.getAuthenticatedUser(authentication);
-
-        ReaderDetails readerDetails = readerService.findByUsername(loggedUser.getUsername())
-                .orElseThrow(() -> new NotFoundException(ReaderDetails.class, loggedUser.getUsername()));
-
-        if (!Objects.equals(readerDetails.getReaderNumber(), lending.getReaderDetails().getReaderNumber())) {
+        final String readerNumber = lending.getReaderDetails().getReaderNumber();
+        if (!currentPrincipal.isReader(readerNumber)) {
             throw new AccessDeniedException("Reader does not have permission to edit this lending");
         }
 
-        Lending updatedLending = lendingService.setReturned(lendingNumber, resource, concurrencyService.getVersionFromIfMatchHeader(ifMatchValue).longValue());
+        Lending updatedLending = setLendingReturnedHandler.handle(readerNumber, lendingNumber,
+                concurrencyService.getVersionFromIfMatchHeader(ifMatchValue).longValue(), resource);
 
         return ResponseEntity.ok()
                 .contentType(MediaType.parseMediaType("application/hal+json"))
@@ -141,22 +153,74 @@ public class LendingController {
         );
     }
 
+    @Operation(summary = "Rebuilds the lending duration statistics from the lending history")
+    @PostMapping("/avgDuration/rebuild")
+    @RolesAllowed(Role.ADMIN)
+    public ResponseEntity<LendingsAverageDurationView> rebuildAvgDuration() {
+        lendingDurationStatsService.rebuild();
+        return ResponseEntity.ok(
+                lendingViewMapper.toLendingsAverageDurationView(lendingService.getAverageDuration())
+        );
+    }
+
     // ---------------- LISTS ----------------
     @Operation(summary = "Get list of overdue lendings")
     @GetMapping("/overdue")
     public ListResponse<LendingView> getOverdueLendings(@Valid @RequestBody Page page) {
-        List<Lending> overdueLendings = lendingService.getOverdue(page);
+        List<LendingSummary> overdueLendings = lendingService.getOverdue(page);
         if (overdueLendings.isEmpty()) {
             throw new NotFoundException("No lendings to show");
         }
-        return new ListResponse<>(lendingViewMapper.toLendingView(overdueLendings));
+        return new ListResponse<>(lendingViewMapper.toLendingViewFromSummaries(overdueLendings));
+    }
+
+    @Operation(summary = "Get list of outstanding lendings due within the given number of days")
+    @GetMapping("/dueWithin")
+    public ListResponse<LendingView> getLendingsDueWithin(
+            @RequestParam("days") @Parameter(description = "Number of days from today") int days,
+            @Valid @RequestBody(required = false) Page page) {
+        List<LendingSummary> dueLendings = lendingService.getDueWithin(days, page);
+        if (dueLendings.isEmpty()) {
+            throw new NotFoundException("No lendings to show");
+        }
+        return new ListResponse<>(lendingViewMapper.toLendingViewFromSummaries(dueLendings));
     }
 
     @PostMapping("/search")
     @Operation(summary = "Search lendings by criteria")
     public ListResponse<LendingView> searchLendings(@RequestBody SearchRequest<SearchLendingQuery> request) {
-        List<Lending> lendings = lendingService.searchLendings(request.getPage(), request.getQuery());
-        return new ListResponse<>(lendingViewMapper.toLendingView(lendings));
+        Slice<Lending> lendings = lendingService.searchLendings(request.getPage(), request.getQuery());
+        return new ListResponse<>(lendingViewMapper.toLendingView(lendings.getItems()), lendings.getNext());
+    }
+
+    @PostMapping("/export")
+    @RolesAllowed(Role.LIBRARIAN)
+    @Operation(summary = "Exports every lending matching the criteria, as newline-delimited JSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportLendings(
+            @RequestBody(required = false) SearchLendingQuery query,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        final LendingExportWriter.Format exportFormat = LendingExportWriter.Format.parse(format);
+        final SearchLendingQuery criteria = query == null ? new SearchLendingQuery() : query;
+        // checked before the response starts, while a bad request can still be answered with 400
+        criteria.parseStartDate();
+        criteria.parseEndDate();
+
+        final StreamingResponseBody body = out -> {
+            final LendingExportWriter writer = LendingExportWriter.of(exportFormat, out, objectMapper);
+            lendingService.exportLendings(criteria, lending -> {
+                try {
+                    writer.write(lendingViewMapper.toLendingExportView(lending));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("lendings." + exportFormat.name().toLowerCase()).build().toString())
+                .body(body);
     }
 
     /*
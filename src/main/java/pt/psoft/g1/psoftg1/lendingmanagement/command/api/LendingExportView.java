@@ -0,0 +1,37 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.command.api;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * A lending as exported in bulk: flat, without links, with the columns in a fixed order.
+ */
+@Data
+@Schema(description = "An exported Lending")
+@JsonPropertyOrder({"lendingNumber", "readerNumber", "isbn", "bookTitle", "startDate", "limitDate", "returnedDate",
+        "daysOverdue", "fineValueInCents", "rating"})
+public class LendingExportView {
+
+    private String lendingNumber;
+
+    private String readerNumber;
+
+    private String isbn;
+
+    private String bookTitle;
+
+    private LocalDate startDate;
+
+    private LocalDate limitDate;
+
+    private LocalDate returnedDate;
+
+    private Integer daysOverdue;
+
+    private Integer fineValueInCents;
+
+    private Integer rating;
+}
@@ -0,0 +1,105 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.command.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes exported lendings one at a time, as newline-delimited JSON or as CSV with a header row.
+ */
+public abstract class LendingExportWriter implements Flushable {
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the format is not supported
+         */
+        public static Format parse(String format) {
+            for (Format value : values()) {
+                if (value.name().equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    protected final Writer out;
+
+    private LendingExportWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public static LendingExportWriter of(Format format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return format == Format.CSV ? new Csv(out) : new NdJson(out, objectMapper);
+    }
+
+    public abstract void write(LendingExportView lending) throws IOException;
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private static final class NdJson extends LendingExportWriter {
+        private final ObjectWriter writer;
+
+        NdJson(OutputStream out, ObjectMapper objectMapper) {
+            super(out);
+            this.writer = objectMapper.writerFor(LendingExportView.class);
+        }
+
+        @Override
+        public void write(LendingExportView lending) throws IOException {
+            out.write(writer.writeValueAsString(lending));
+            out.write('\n');
+        }
+    }
+
+    private static final class Csv extends LendingExportWriter {
+        Csv(OutputStream out) throws IOException {
+            super(out);
+            line("lendingNumber", "readerNumber", "isbn", "bookTitle", "startDate", "limitDate", "returnedDate",
+                    "daysOverdue", "fineValueInCents", "rating");
+        }
+
+        @Override
+        public void write(LendingExportView lending) throws IOException {
+            line(lending.getLendingNumber(), lending.getReaderNumber(), lending.getIsbn(), lending.getBookTitle(),
+                    lending.getStartDate(), lending.getLimitDate(), lending.getReturnedDate(),
+                    lending.getDaysOverdue(), lending.getFineValueInCents(), lending.getRating());
+        }
+
+        private void line(Object... values) throws IOException {
+            out.write(Stream.of(values).map(Csv::field).collect(Collectors.joining(",")));
+            // RFC 4180 line break
+            out.write("\r\n");
+        }
+
+        private static String field(Object value) {
+            final String text = Objects.toString(value, "");
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -3,6 +3,7 @@ package pt.psoft.g1.psoftg1.lendingmanagement.command.api;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
 import pt.psoft.g1.psoftg1.shared.api.MapperInterface;
 import java.util.List;
 
@@ -21,5 +22,14 @@ public abstract class LendingViewMapper extends MapperInterface {
 
     public abstract List<LendingView> toLendingView(List<Lending> lendings);
 
+    public abstract LendingExportView toLendingExportView(LendingSummary lending);
+
+    @Mapping(target = "_links.self", source = "lendingNumber", qualifiedByName = "lendingNumberLink")
+    @Mapping(target = "_links.book", source = "isbn", qualifiedByName = "isbnLink")
+    @Mapping(target = "_links.reader", source = "readerNumber", qualifiedByName = "readerNumberLink")
+    public abstract LendingView toLendingView(LendingSummary lending);
+
+    public abstract List<LendingView> toLendingViewFromSummaries(List<LendingSummary> lendings);
+
     public abstract LendingsAverageDurationView toLendingsAverageDurationView(Double lendingsAverageDuration);
 }
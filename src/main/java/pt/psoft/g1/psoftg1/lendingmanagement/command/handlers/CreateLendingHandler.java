@@ -13,9 +13,10 @@ import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
 public class CreateLendingHandler {
 
     private final LendingService lendingService;
+    private final LendingCommandExecutor commandExecutor;
 
     public Lending handle(CreateLendingCommand command) {
         CreateLendingRequest request = new CreateLendingRequest(command.getIsbn(), command.getReaderNumber());
-        return lendingService.create(request);
+        return commandExecutor.execute(command.getReaderNumber(), () -> lendingService.create(request));
     }
 }
@@ -0,0 +1,29 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.command.handlers;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pt.psoft.g1.psoftg1.shared.services.PartitionedExecutor;
+
+/**
+ * Runs the lending commands of each reader one at a time, on the partition of their reader number.
+ * <p>
+ * Two checkouts for the same reader can then no longer both pass the limit of outstanding lendings, and two returns
+ * for the same reader no longer race for the same rows, while the commands of other readers go on in parallel.
+ */
+@Component
+public class LendingCommandExecutor extends PartitionedExecutor {
+
+    @Autowired
+    public LendingCommandExecutor(@Value("${lending.command-partitions:8}") int partitionCount,
+                                  @Value("${lending.command-queue-capacity:64}") int queueCapacity) {
+        super("lending-commands", partitionCount, queueCapacity);
+    }
+
+    @PreDestroy
+    @Override
+    public void shutdown() {
+        super.shutdown();
+    }
+}
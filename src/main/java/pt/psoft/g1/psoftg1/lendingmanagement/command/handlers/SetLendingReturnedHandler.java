@@ -12,8 +12,12 @@ import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
 public class SetLendingReturnedHandler {
 
     private final LendingService lendingService;
+    private final LendingCommandExecutor commandExecutor;
 
-    public Lending handle(String lendingNumber, long version,
+    /**
+     * @param readerNumber reader of the lending, whose commands are run one at a time
+     */
+    public Lending handle(String readerNumber, String lendingNumber, long version,
             pt.psoft.g1.psoftg1.lendingmanagement.command.handlers.dto.SetLendingReturnedRequest request) {
 
         var commandRequest = new pt.psoft.g1.psoftg1.lendingmanagement.command.services.SetLendingReturnedRequest(
@@ -21,6 +25,7 @@ public class SetLendingReturnedHandler {
             request.getRating()
         );
 
-        return lendingService.setReturned(lendingNumber, commandRequest, version);
+        return commandExecutor.execute(readerNumber,
+            () -> lendingService.setReturned(lendingNumber, commandRequest, version));
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,24 @@
 package pt.psoft.g1.psoftg1.lendingmanagement.command.services;
 
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface LendingService {
 
     Optional<Lending> findByLendingNumber(String lendingNumber);
 
-    List<Lending> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned);
+    Optional<Long> findVersionByLendingNumber(String lendingNumber);
+
+    Optional<Long> findVersionByLendingNumberAndReaderNumber(String lendingNumber, String readerNumber);
+
+    List<LendingSummary> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned);
 
     Lending create(CreateLendingRequest resource);
 
@@ -19,9 +26,18 @@ public interface LendingService {
 
     Double getAverageDuration();
 
-    List<Lending> getOverdue(Page page);
+    List<LendingSummary> getOverdue(Page page);
+
+    List<LendingSummary> getDueWithin(int days, Page page);
 
     Double getAvgLendingDurationByIsbn(String isbn);
 
-    List<Lending> searchLendings(Page page, SearchLendingQuery request);
+    Slice<Lending> searchLendings(Page page, SearchLendingQuery request);
+
+    /**
+     * Streams every lending matching the query to the action, within a single read-only transaction.
+     *
+     * @return the number of lendings exported
+     */
+    long exportLendings(SearchLendingQuery query, Consumer<LendingSummary> action);
 }
@@ -4,20 +4,25 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
-import pt.psoft.g1.psoftg1.exceptions.LendingForbiddenException;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
 import pt.psoft.g1.psoftg1.lendingmanagement.repositories.FineRepository;
 import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingDurationStatsService;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.OverdueLendingTracker;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.ReaderEligibilityService;
 import pt.psoft.g1.psoftg1.readermanagement.repositories.ReaderRepository;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
+import pt.psoft.g1.psoftg1.shared.services.SequenceService;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -25,9 +30,13 @@ import java.util.Optional;
 public class LendingServiceImpl implements LendingService {
 
     private final LendingRepository lendingRepository;
+    private final LendingDurationStatsService lendingDurationStatsService;
     private final FineRepository fineRepository;
     private final BookRepository bookRepository;
     private final ReaderRepository readerRepository;
+    private final SequenceService sequenceService;
+    private final OverdueLendingTracker overdueLendingTracker;
+    private final ReaderEligibilityService readerEligibilityService;
 
     @Value("${lendingDurationInDays}")
     private int lendingDurationInDays;
@@ -35,36 +44,33 @@ public class LendingServiceImpl implements LendingService {
     @Value("${fineValuePerDayInCents}")
     private int fineValuePerDayInCents;
 
+    @Value("${lending.export.fetch-size:500}")
+    private int exportFetchSize;
+
     @Override
     public Optional<Lending> findByLendingNumber(String lendingNumber) {
         return lendingRepository.findByLendingNumber(lendingNumber);
     }
 
     @Override
-    public List<Lending> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned) {
-        List<Lending> lendings = lendingRepository.listByReaderNumberAndIsbn(readerNumber, isbn);
+    public Optional<Long> findVersionByLendingNumber(String lendingNumber) {
+        return lendingRepository.findVersionByLendingNumber(lendingNumber);
+    }
 
-        if (returned.isPresent()) {
-            lendings.removeIf(l -> (l.getReturnedDate() == null) == returned.get());
-        }
+    @Override
+    public Optional<Long> findVersionByLendingNumberAndReaderNumber(String lendingNumber, String readerNumber) {
+        return lendingRepository.findVersionByLendingNumberAndReaderNumber(lendingNumber, readerNumber);
+    }
 
-        return lendings;
+    @Override
+    public List<LendingSummary> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned) {
+        return lendingRepository.listByReaderNumberAndIsbn(readerNumber, isbn, returned.orElse(null));
     }
 
     @Override
+    @Transactional
     public Lending create(CreateLendingRequest resource) {
-        int count = 0;
-
-        Iterable<Lending> lendingList = lendingRepository.listOutstandingByReaderNumber(resource.getReaderNumber());
-        for (Lending lending : lendingList) {
-            if (lending.getDaysDelayed() > 0) {
-                throw new LendingForbiddenException("Reader has book(s) past their due date");
-            }
-            count++;
-            if (count >= 3) {
-                throw new LendingForbiddenException("Reader has three books outstanding already");
-            }
-        }
+        readerEligibilityService.checkCanBorrow(resource.getReaderNumber());
 
         final var book = bookRepository.findByIsbn(resource.getIsbn())
                 .orElseThrow(() -> new NotFoundException("Book not found"));
@@ -72,13 +78,15 @@ public class LendingServiceImpl implements LendingService {
         final var reader = readerRepository.findByReaderNumber(resource.getReaderNumber())
                 .orElseThrow(() -> new NotFoundException("Reader not found"));
 
-        int seq = lendingRepository.getCountFromCurrentYear() + 1;
+        int seq = sequenceService.nextValue(SequenceService.LENDING_SEQUENCE, LocalDate.now().getYear(),
+                lendingRepository::getCountFromCurrentYear);
         final Lending lending = new Lending(book, reader, seq, lendingDurationInDays, fineValuePerDayInCents);
 
         return lendingRepository.save(lending);
     }
 
     @Override
+    @Transactional
     public Lending setReturned(String lendingNumber, SetLendingReturnedRequest resource, long desiredVersion) {
         Lending lending = lendingRepository.findByLendingNumber(lendingNumber)
                 .orElseThrow(() -> new RuntimeException("Lending not found"));
@@ -91,42 +99,50 @@ public class LendingServiceImpl implements LendingService {
 
     @Override
     public Double getAverageDuration() {
-        Double avg = lendingRepository.getAverageDuration();
-        return Double.valueOf(String.format(Locale.US, "%.1f", avg));
+        return lendingDurationStatsService.getAverageDuration();
+    }
+
+    @Override
+    public List<LendingSummary> getOverdue(Page page) {
+        if (page == null) page = new Page(1, 10);
+        return overdueLendingTracker.getOverdue(page);
     }
 
     @Override
-    public List<Lending> getOverdue(Page page) {
+    public List<LendingSummary> getDueWithin(int days, Page page) {
         if (page == null) page = new Page(1, 10);
-        return lendingRepository.getOverdue(page);
+        return overdueLendingTracker.getDueWithin(days, page);
     }
 
     @Override
     public Double getAvgLendingDurationByIsbn(String isbn) {
-        Double avg = lendingRepository.getAvgLendingDurationByIsbn(isbn);
-        return Double.valueOf(String.format(Locale.US, "%.1f", avg));
+        return lendingDurationStatsService.getAverageDurationByIsbn(isbn);
     }
 
     @Override
-    public List<Lending> searchLendings(Page page, SearchLendingQuery query) {
+    public Slice<Lending> searchLendings(Page page, SearchLendingQuery query) {
         if (page == null) page = new Page(1, 10);
         if (query == null) query = new SearchLendingQuery("", "", null,
                 LocalDate.now().minusDays(10L).toString(), null);
 
-        LocalDate startDate = null;
-        LocalDate endDate = null;
-        try {
-            if (query.getStartDate() != null) startDate = LocalDate.parse(query.getStartDate());
-            if (query.getEndDate() != null) endDate = LocalDate.parse(query.getEndDate());
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Expected format is YYYY-MM-DD");
-        }
-
         return lendingRepository.searchLendings(page,
                 query.getReaderNumber(),
                 query.getIsbn(),
                 query.getReturned(),
-                startDate,
-                endDate);
+                query.parseStartDate(),
+                query.parseEndDate());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportLendings(SearchLendingQuery query, Consumer<LendingSummary> action) {
+        return lendingRepository.exportLendings(
+                query.getReaderNumber(),
+                query.getIsbn(),
+                query.getReturned(),
+                query.parseStartDate(),
+                query.parseEndDate(),
+                exportFetchSize,
+                action);
     }
 }
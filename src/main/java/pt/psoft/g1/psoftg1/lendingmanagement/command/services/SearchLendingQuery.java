@@ -6,6 +6,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.format.annotation.DateTimeFormat;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,4 +24,26 @@ public class SearchLendingQuery {
 
     @DateTimeFormat(pattern = "yyyy-MM-dd")
     private String endDate;
+
+    /**
+     * @throws IllegalArgumentException if a date is not in YYYY-MM-DD format
+     */
+    public LocalDate parseStartDate() {
+        return parse(startDate);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a date is not in YYYY-MM-DD format
+     */
+    public LocalDate parseEndDate() {
+        return parse(endDate);
+    }
+
+    private static LocalDate parse(String date) {
+        try {
+            return date == null ? null : LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Expected format is YYYY-MM-DD");
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.infrastructure.repositories.impl;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingDurationStats;
+import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingDurationStatsRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SpringDataLendingDurationStatsRepository extends LendingDurationStatsRepository, CrudRepository<LendingDurationStats, Long> {
+    @Override
+    @Query("SELECT s " +
+            "FROM LendingDurationStats s " +
+            "WHERE s.scope = :scope")
+    Optional<LendingDurationStats> findByScope(@Param("scope") String scope);
+
+    @Override
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s " +
+            "FROM LendingDurationStats s " +
+            "WHERE s.scope = :scope")
+    Optional<LendingDurationStats> findForUpdate(@Param("scope") String scope);
+
+    @Override
+    @Modifying
+    @Transactional
+    @Query("UPDATE LendingDurationStats s " +
+            "SET s.returnedCount = s.returnedCount + 1, " +
+                "s.totalDurationInDays = s.totalDurationInDays + :durationInDays " +
+            "WHERE s.scope = :scope")
+    int addReturnedLending(@Param("scope") String scope, @Param("durationInDays") long durationInDays);
+
+    @Override
+    @Modifying
+    @Transactional
+    @Query("UPDATE LendingDurationStats s " +
+            "SET s.returnedCount = :returnedCount, " +
+                "s.totalDurationInDays = :totalDurationInDays " +
+            "WHERE s.scope = :scope")
+    int setReturnedLendings(@Param("scope") String scope, @Param("returnedCount") long returnedCount,
+                            @Param("totalDurationInDays") long totalDurationInDays);
+
+    @Override
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LendingDurationStats s WHERE s.scope <> :scope")
+    void deleteAllStatsExcept(@Param("scope") String scope);
+
+    //http://www.h2database.com/html/commands.html
+
+    @Override
+    @Query(value =
+            "SELECT b.ISBN, COUNT(*), SUM(DATEDIFF(day, l.start_date, l.returned_date)) " +
+                    "FROM Lending l " +
+                    "JOIN BOOK b ON l.BOOK_PK = b.PK " +
+                    "WHERE l.returned_date IS NOT NULL " +
+                    "GROUP BY b.ISBN"
+            , nativeQuery = true)
+    List<Object[]> sumReturnedDurationsByIsbn();
+}
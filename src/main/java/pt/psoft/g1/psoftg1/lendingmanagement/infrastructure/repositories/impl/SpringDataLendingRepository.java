@@ -5,6 +5,7 @@ import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -14,15 +15,21 @@ import pt.psoft.g1.psoftg1.genremanagement.services.GenreLendingsDTO;
 import pt.psoft.g1.psoftg1.genremanagement.services.GenreLendingsPerMonthDTO;
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
 import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
 import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
 import pt.psoft.g1.psoftg1.readermanagement.services.ReaderAverageDto;
 import pt.psoft.g1.psoftg1.readermanagement.services.ReaderLendingsAvgPerMonthDto;
+import pt.psoft.g1.psoftg1.shared.services.Cursor;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 import pt.psoft.g1.psoftg1.usermanagement.model.User;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public interface SpringDataLendingRepository extends LendingRepository, LendingRepoCustom, CrudRepository<Lending, Long> {
     @Override
@@ -31,16 +38,47 @@ public interface SpringDataLendingRepository extends LendingRepository, LendingR
             "WHERE l.lendingNumber.lendingNumber = :lendingNumber")
     Optional<Lending> findByLendingNumber(String lendingNumber);
 
+    @Override
+    @Query("SELECT l.version " +
+            "FROM Lending l " +
+            "WHERE l.lendingNumber.lendingNumber = :lendingNumber")
+    Optional<Long> findVersionByLendingNumber(@Param("lendingNumber") String lendingNumber);
+
+    @Override
+    @Query("SELECT l.version " +
+            "FROM Lending l " +
+            "WHERE l.lendingNumber.lendingNumber = :lendingNumber " +
+            "AND l.readerDetails.readerNumber.readerNumber = :readerNumber")
+    Optional<Long> findVersionByLendingNumberAndReaderNumber(@Param("lendingNumber") String lendingNumber,
+                                                             @Param("readerNumber") String readerNumber);
+
     //http://www.h2database.com/html/commands.html
 
     @Override
-    @Query("SELECT l " +
+    @Query("SELECT new pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary(" +
+                "l.lendingNumber.lendingNumber, b.isbn.isbn, b.title.title, r.readerNumber.readerNumber, " +
+                "l.startDate, l.limitDate, l.returnedDate, l.rating, l.fineValuePerDayInCents) " +
             "FROM Lending l " +
-            "JOIN Book b ON l.book.pk = b.pk " +
-            "JOIN ReaderDetails r ON l.readerDetails.pk = r.pk " +
+                "JOIN l.book b " +
+                "JOIN l.readerDetails r " +
+            "WHERE l.lendingNumber.lendingNumber = :lendingNumber")
+    Optional<LendingSummary> findSummaryByLendingNumber(@Param("lendingNumber") String lendingNumber);
+
+    @Override
+    @Query("SELECT new pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary(" +
+                "l.lendingNumber.lendingNumber, b.isbn.isbn, b.title.title, r.readerNumber.readerNumber, " +
+                "l.startDate, l.limitDate, l.returnedDate, l.rating, l.fineValuePerDayInCents) " +
+            "FROM Lending l " +
+                "JOIN l.book b " +
+                "JOIN l.readerDetails r " +
             "WHERE b.isbn.isbn = :isbn " +
-            "AND r.readerNumber.readerNumber = :readerNumber ")
-    List<Lending> listByReaderNumberAndIsbn(String readerNumber, String isbn);
+                "AND r.readerNumber.readerNumber = :readerNumber " +
+                "AND (:returned IS NULL " +
+                    "OR (:returned = TRUE AND l.returnedDate IS NOT NULL) " +
+                    "OR (:returned = FALSE AND l.returnedDate IS NULL))")
+    List<LendingSummary> listByReaderNumberAndIsbn(@Param("readerNumber") String readerNumber,
+                                                   @Param("isbn") String isbn,
+                                                   @Param("returned") Boolean returned);
 
     @Override
     @Query("SELECT COUNT (l) " +
@@ -57,27 +95,55 @@ public interface SpringDataLendingRepository extends LendingRepository, LendingR
     List<Lending> listOutstandingByReaderNumber(@Param("readerNumber") String readerNumber);
 
     @Override
-    @Query(value =
-            "SELECT AVG(DATEDIFF(day, l.start_date, l.returned_date)) " +
-            "FROM Lending l"
-            , nativeQuery = true)
-    Double getAverageDuration();
+    @Query("SELECT l.lendingNumber.lendingNumber, l.limitDate " +
+            "FROM Lending l " +
+                "JOIN l.readerDetails r " +
+            "WHERE r.readerNumber.readerNumber = :readerNumber " +
+                "AND l.returnedDate IS NULL")
+    List<Object[]> findOutstandingLimitDatesByReaderNumber(@Param("readerNumber") String readerNumber);
 
     @Override
-    @Query(value =
-            "SELECT AVG(DATEDIFF(day, l.start_date, l.returned_date)) " +
-                    "FROM Lending l " +
-                    "JOIN BOOK b ON l.BOOK_PK = b.PK " +
-                    "WHERE b.ISBN = :isbn"
-            , nativeQuery = true)
-    Double getAvgLendingDurationByIsbn(@Param("isbn") String isbn);
+    @Query("SELECT new pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary(" +
+                "l.lendingNumber.lendingNumber, b.isbn.isbn, b.title.title, r.readerNumber.readerNumber, " +
+                "l.startDate, l.limitDate, l.returnedDate, l.rating, l.fineValuePerDayInCents) " +
+            "FROM Lending l " +
+                "JOIN l.book b " +
+                "JOIN l.readerDetails r " +
+            "WHERE l.returnedDate IS NULL")
+    List<LendingSummary> findOutstandingSummaries();
+
+    @Override
+    @Query("SELECT b.isbn.isbn, r.readerNumber.readerNumber, g.genre, l.startDate, COUNT(l) " +
+            "FROM Lending l " +
+                "JOIN l.book b " +
+                "JOIN b.genre g " +
+                "JOIN l.readerDetails r " +
+            "GROUP BY b.isbn.isbn, r.readerNumber.readerNumber, g.genre, l.startDate")
+    List<Object[]> countLendingsByBookReaderAndDay();
+
+    @Override
+    @Query("SELECT DISTINCT r.readerNumber.readerNumber, b.isbn.isbn " +
+            "FROM Lending l " +
+                "JOIN l.book b " +
+                "JOIN l.readerDetails r")
+    List<Object[]> findReaderBookPairs();
+
+    @Override
+    @Query("SELECT a.authorNumber, l.startDate, COUNT(l) " +
+            "FROM Lending l " +
+                "JOIN l.book b " +
+                "JOIN b.authors a " +
+            "GROUP BY a.authorNumber, l.startDate")
+    List<Object[]> countLendingsByAuthorAndDay();
 
 
 }
 
 interface LendingRepoCustom {
     List<Lending> getOverdue(Page page);
-    List<Lending> searchLendings(Page page, String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate);
+    Slice<Lending> searchLendings(Page page, String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate);
+    Slice<LendingSummary> searchLendingSummaries(Page page, String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate);
+    long exportLendings(String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate, int fetchSize, Consumer<LendingSummary> action);
 //    List<ReaderAverageDto> getAverageMonthlyPerReader(LocalDate startDate, LocalDate endDate);
 
 }
@@ -113,7 +179,7 @@ class LendingRepoCustomImpl implements LendingRepoCustom {
         return q.getResultList();
     }
 
-    public List<Lending> searchLendings(Page page, String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate){
+    public Slice<Lending> searchLendings(Page page, String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate){
         final CriteriaBuilder cb = em.getCriteriaBuilder();
         final CriteriaQuery<Lending> cq = cb.createQuery(Lending.class);
         final Root<Lending> lendingRoot = cq.from(Lending.class);
@@ -121,6 +187,103 @@ class LendingRepoCustomImpl implements LendingRepoCustom {
         final Join<Lending, ReaderDetails> readerDetailsJoin = lendingRoot.join("readerDetails");
         cq.select(lendingRoot);
 
+        final List<Predicate> where = searchPredicates(cb, lendingRoot, bookJoin, readerDetailsJoin,
+                readerNumber, isbn, returned, startDate, endDate);
+
+        return searchPage(cq, lendingRoot, where, page, Lending::getLendingNumber);
+    }
+
+    @Override
+    public Slice<LendingSummary> searchLendingSummaries(Page page, String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate){
+        final CriteriaBuilder cb = em.getCriteriaBuilder();
+        final CriteriaQuery<LendingSummary> cq = cb.createQuery(LendingSummary.class);
+        final Root<Lending> lendingRoot = cq.from(Lending.class);
+        final Join<Lending, Book> bookJoin = lendingRoot.join("book");
+        final Join<Lending, ReaderDetails> readerDetailsJoin = lendingRoot.join("readerDetails");
+        // only the columns of the view, so that neither the lendings nor their eager associations are loaded
+        cq.select(cb.construct(LendingSummary.class,
+                lendingRoot.get("lendingNumber").get("lendingNumber"),
+                bookJoin.get("isbn").get("isbn"),
+                bookJoin.get("title").get("title"),
+                readerDetailsJoin.get("readerNumber").get("readerNumber"),
+                lendingRoot.get("startDate"),
+                lendingRoot.get("limitDate"),
+                lendingRoot.get("returnedDate"),
+                lendingRoot.get("rating"),
+                lendingRoot.get("fineValuePerDayInCents")));
+
+        final List<Predicate> where = searchPredicates(cb, lendingRoot, bookJoin, readerDetailsJoin,
+                readerNumber, isbn, returned, startDate, endDate);
+
+        return searchPage(cq, lendingRoot, where, page, LendingSummary::getLendingNumber);
+    }
+
+    /**
+     * Orders the search by lending number and reads the page, by seeking past the cursor when there is one.
+     */
+    private <T> Slice<T> searchPage(CriteriaQuery<T> cq, Root<Lending> lendingRoot, List<Predicate> where, Page page,
+                                    Function<T, String> lendingNumberOf) {
+        final CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        // lending numbers are unique, so they are enough to seek to the next page
+        final Path<String> lendingNumber = lendingRoot.get("lendingNumber").get("lendingNumber");
+        if (page.hasCursor())
+            where.add(cb.greaterThan(lendingNumber, Cursor.decode(page.getCursor(), 1).get(0)));
+
+        cq.where(where.toArray(new Predicate[0]));
+        cq.orderBy(cb.asc(lendingNumber));
+
+        final TypedQuery<T> q = em.createQuery(cq);
+        if (!page.hasCursor())
+            q.setFirstResult((page.getNumber() - 1) * page.getLimit());
+        q.setMaxResults(page.getLimit() + 1);
+
+        return Slice.of(q.getResultList(), page, result -> Cursor.of(lendingNumberOf.apply(result)));
+    }
+
+    @Override
+    public long exportLendings(String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate,
+                               int fetchSize, Consumer<LendingSummary> action) {
+        final CriteriaBuilder cb = em.getCriteriaBuilder();
+        final CriteriaQuery<LendingSummary> cq = cb.createQuery(LendingSummary.class);
+        final Root<Lending> lendingRoot = cq.from(Lending.class);
+        final Join<Lending, Book> bookJoin = lendingRoot.join("book");
+        final Join<Lending, ReaderDetails> readerDetailsJoin = lendingRoot.join("readerDetails");
+        // only the exported columns, so that neither the lendings nor their eager associations are loaded
+        cq.select(cb.construct(LendingSummary.class,
+                lendingRoot.get("lendingNumber").get("lendingNumber"),
+                bookJoin.get("isbn").get("isbn"),
+                bookJoin.get("title").get("title"),
+                readerDetailsJoin.get("readerNumber").get("readerNumber"),
+                lendingRoot.get("startDate"),
+                lendingRoot.get("limitDate"),
+                lendingRoot.get("returnedDate"),
+                lendingRoot.get("rating"),
+                lendingRoot.get("fineValuePerDayInCents")));
+        cq.where(searchPredicates(cb, lendingRoot, bookJoin, readerDetailsJoin,
+                readerNumber, isbn, returned, startDate, endDate).toArray(new Predicate[0]));
+        cq.orderBy(cb.asc(lendingRoot.get("lendingNumber").get("lendingNumber")));
+
+        final TypedQuery<LendingSummary> q = em.createQuery(cq);
+        q.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+
+        // a forward-only cursor over the rows; the summaries are not managed, so memory does not grow with their number
+        long count = 0;
+        try (Stream<LendingSummary> lendings = q.getResultStream()) {
+            final Iterator<LendingSummary> iterator = lendings.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static List<Predicate> searchPredicates(CriteriaBuilder cb, Root<Lending> lendingRoot,
+                                                    Join<Lending, Book> bookJoin,
+                                                    Join<Lending, ReaderDetails> readerDetailsJoin,
+                                                    String readerNumber, String isbn, Boolean returned,
+                                                    LocalDate startDate, LocalDate endDate) {
         final List<Predicate> where = new ArrayList<>();
 
         if (StringUtils.hasText(readerNumber))
@@ -138,15 +301,7 @@ class LendingRepoCustomImpl implements LendingRepoCustom {
             where.add(cb.greaterThanOrEqualTo(lendingRoot.get("startDate"), startDate));
         if(endDate!=null)
             where.add(cb.lessThanOrEqualTo(lendingRoot.get("startDate"), endDate));
-
-        cq.where(where.toArray(new Predicate[0]));
-        cq.orderBy(cb.asc(lendingRoot.get("lendingNumber")));
-
-        final TypedQuery<Lending> q = em.createQuery(cq);
-        q.setFirstResult((page.getNumber() - 1) * page.getLimit());
-        q.setMaxResults(page.getLimit());
-
-        return q.getResultList();
+        return where;
     }
 
 /*
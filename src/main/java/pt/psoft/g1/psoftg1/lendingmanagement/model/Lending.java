@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import org.hibernate.StaleObjectStateException;
+import org.springframework.data.domain.AbstractAggregateRoot;
 import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
 import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
 import jakarta.validation.constraints.NotBlank;
@@ -22,11 +23,14 @@ import java.util.Optional;
  * be returned, and the date it actually was returned.
  * It also stores an optional reader {@code commentary} and rating (0-10) upon return,
  * and the {@code Fine}, if applicable.
+ * <p>
+ * Creating and returning a lending register a {@link LendingCreatedEvent} and a {@link LendingReturnedEvent},
+ * which are published when the lending is saved through its repository.
  */
 @Entity
 @Table(uniqueConstraints = {
         @UniqueConstraint(columnNames={"LENDING_NUMBER"})})
-public class Lending {
+public class Lending extends AbstractAggregateRoot<Lending> {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -91,6 +95,7 @@ public class Lending {
         this.fineValuePerDayInCents = fineValuePerDayInCents;
         setDaysUntilReturn();
         setDaysOverdue();
+        registerEvent(new LendingCreatedEvent(this));
     }
 
     /**
@@ -110,6 +115,7 @@ public class Lending {
         this.returnedDate = LocalDate.now();
         this.commentary = commentary;
         this.rating = rating; // rating pode ser null
+        registerEvent(new LendingReturnedEvent(this));
     }
 
     private void setDaysUntilReturn() {
@@ -0,0 +1,13 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a new {@code Lending} is saved.
+ */
+@Getter
+@RequiredArgsConstructor
+public class LendingCreatedEvent {
+    private final Lending lending;
+}
@@ -0,0 +1,58 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * Running count and sum of the duration (in days) of returned lendings, either for all lendings
+ * ({@link #GLOBAL_SCOPE}) or for the lendings of a single book (scope is the book's ISBN).
+ * <p>
+ * Rows are updated in place whenever a lending is returned, so averages are read in constant time instead of
+ * aggregating the whole lending history.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"SCOPE"}))
+public class LendingDurationStats {
+    public static final String GLOBAL_SCOPE = "*";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long pk;
+
+    @Getter
+    @Column(name = "SCOPE", nullable = false, length = 16)
+    private String scope;
+
+    @Getter
+    @Column(nullable = false)
+    private long returnedCount;
+
+    @Getter
+    @Column(nullable = false)
+    private long totalDurationInDays;
+
+    protected LendingDurationStats() {
+        // for ORM only
+    }
+
+    public LendingDurationStats(String scope, long returnedCount, long totalDurationInDays) {
+        if (scope == null || scope.isBlank())
+            throw new IllegalArgumentException("Scope cannot be blank");
+        if (returnedCount < 0 || totalDurationInDays < 0)
+            throw new IllegalArgumentException("Statistics cannot be negative");
+        this.scope = scope;
+        this.returnedCount = returnedCount;
+        this.totalDurationInDays = totalDurationInDays;
+    }
+
+    /**
+     * Average duration rounded to one decimal place, or 0 if no lending has been returned yet.
+     */
+    public Double getAverageDuration() {
+        if (returnedCount == 0)
+            return 0.0;
+        return Double.valueOf(String.format(Locale.US, "%.1f", (double) totalDurationInDays / returnedCount));
+    }
+}
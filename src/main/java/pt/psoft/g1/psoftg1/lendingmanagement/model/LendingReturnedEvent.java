@@ -0,0 +1,13 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a {@code Lending} marked as returned is saved.
+ */
+@Getter
+@RequiredArgsConstructor
+public class LendingReturnedEvent {
+    private final Lending lending;
+}
@@ -9,8 +9,10 @@ import org.springframework.web.bind.annotation.*;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
 import pt.psoft.g1.psoftg1.lendingmanagement.query.services.LendingService;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
 import pt.psoft.g1.psoftg1.shared.api.ListResponse;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 import pt.psoft.g1.psoftg1.lendingmanagement.query.services.SearchLendingQuery;
 
 import java.util.List;
@@ -31,7 +33,7 @@ public class LendingQueryController {
             @PathVariable Integer seq) {
 
         String lendingNumber = year + "/" + seq;
-        Lending lending = lendingService.findByLendingNumber(lendingNumber)
+        LendingSummary lending = lendingService.findByLendingNumber(lendingNumber)
                 .orElseThrow(() -> new NotFoundException(Lending.class, lendingNumber));
 
         return ResponseEntity.ok()
@@ -46,12 +48,28 @@ public class LendingQueryController {
 
         if (page == null) page = new Page(1, 10);
 
-        List<Lending> overdue = lendingService.getOverdue(page);
+        List<LendingSummary> overdue = lendingService.getOverdue(page);
 
         if (overdue.isEmpty())
             throw new NotFoundException("No overdue lendings found");
 
-        return new ListResponse<>(lendingViewMapper.toLendingView(overdue));
+        return new ListResponse<>(lendingViewMapper.toLendingViewFromSummaries(overdue));
+    }
+
+    @Operation(summary = "List outstanding lendings due within the given number of days")
+    @GetMapping("/dueWithin")
+    public ListResponse<LendingView> getLendingsDueWithin(
+            @RequestParam("days") int days,
+            @RequestBody(required = false) Page page) {
+
+        if (page == null) page = new Page(1, 10);
+
+        List<LendingSummary> due = lendingService.getDueWithin(days, page);
+
+        if (due.isEmpty())
+            throw new NotFoundException("No lendings due within " + days + " days");
+
+        return new ListResponse<>(lendingViewMapper.toLendingViewFromSummaries(due));
     }
 
     @Operation(summary = "Search lendings")
@@ -62,12 +80,12 @@ public class LendingQueryController {
 
         if (page == null) page = new Page(1, 10);
 
-        List<Lending> results = lendingService.searchLendings(page, query);
+        Slice<LendingSummary> results = lendingService.searchLendings(page, query);
 
-        if (results.isEmpty())
+        if (results.getItems().isEmpty())
             throw new NotFoundException("No lendings found for given search criteria");
 
-        return new ListResponse<>(lendingViewMapper.toLendingView(results));
+        return new ListResponse<>(lendingViewMapper.toLendingViewFromSummaries(results.getItems()), results.getNext());
     }
 
     @Operation(summary = "Get average lending duration")
@@ -1,22 +1,25 @@
 package pt.psoft.g1.psoftg1.lendingmanagement.query.services;
 
-import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface LendingService {
 
-    Optional<Lending> findByLendingNumber(String lendingNumber);
+    Optional<LendingSummary> findByLendingNumber(String lendingNumber);
 
-    List<Lending> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned);
+    List<LendingSummary> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned);
 
     Double getAverageDuration();
 
-    List<Lending> getOverdue(Page page);
+    List<LendingSummary> getOverdue(Page page);
+
+    List<LendingSummary> getDueWithin(int days, Page page);
 
     Double getAvgLendingDurationByIsbn(String isbn);
 
-    List<Lending> searchLendings(Page page, SearchLendingQuery request);
+    Slice<LendingSummary> searchLendings(Page page, SearchLendingQuery request);
 }
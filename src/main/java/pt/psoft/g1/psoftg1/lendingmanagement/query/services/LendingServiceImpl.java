@@ -2,14 +2,16 @@ package pt.psoft.g1.psoftg1.lendingmanagement.query.services;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
 import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingDurationStatsService;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.OverdueLendingTracker;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
 
 @Service
@@ -17,39 +19,43 @@ import java.util.Optional;
 public class LendingServiceImpl implements LendingService {
 
     private final LendingRepository lendingRepository;
+    private final LendingDurationStatsService lendingDurationStatsService;
+    private final OverdueLendingTracker overdueLendingTracker;
 
     @Override
-    public Optional<Lending> findByLendingNumber(String lendingNumber){
-        return lendingRepository.findByLendingNumber(lendingNumber);
+    public Optional<LendingSummary> findByLendingNumber(String lendingNumber){
+        return lendingRepository.findSummaryByLendingNumber(lendingNumber);
     }
 
     @Override
-    public List<Lending> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned){
-        List<Lending> lendings = lendingRepository.listByReaderNumberAndIsbn(readerNumber, isbn);
-        returned.ifPresent(r -> lendings.removeIf(l -> (l.getReturnedDate() == null) == r));
-        return lendings;
+    public List<LendingSummary> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned){
+        return lendingRepository.listByReaderNumberAndIsbn(readerNumber, isbn, returned.orElse(null));
     }
 
     @Override
     public Double getAverageDuration(){
-        Double avg = lendingRepository.getAverageDuration();
-        return Double.valueOf(String.format(Locale.US,"%.1f", avg));
+        return lendingDurationStatsService.getAverageDuration();
     }
 
     @Override
-    public List<Lending> getOverdue(Page page) {
+    public List<LendingSummary> getOverdue(Page page) {
         if(page == null) page = new Page(1, 10);
-        return lendingRepository.getOverdue(page);
+        return overdueLendingTracker.getOverdue(page);
+    }
+
+    @Override
+    public List<LendingSummary> getDueWithin(int days, Page page) {
+        if(page == null) page = new Page(1, 10);
+        return overdueLendingTracker.getDueWithin(days, page);
     }
 
     @Override
     public Double getAvgLendingDurationByIsbn(String isbn){
-        Double avg = lendingRepository.getAvgLendingDurationByIsbn(isbn);
-        return Double.valueOf(String.format(Locale.US,"%.1f", avg));
+        return lendingDurationStatsService.getAverageDurationByIsbn(isbn);
     }
 
     @Override
-    public List<Lending> searchLendings(Page page, SearchLendingQuery query){
+    public Slice<LendingSummary> searchLendings(Page page, SearchLendingQuery query){
         if(page == null) page = new Page(1, 10);
         if(query == null) query = new SearchLendingQuery("", "", null, null, null);
 
@@ -62,7 +68,7 @@ public class LendingServiceImpl implements LendingService {
             throw new IllegalArgumentException("Expected format is YYYY-MM-DD");
         }
 
-        return lendingRepository.searchLendings(page,
+        return lendingRepository.searchLendingSummaries(page,
                 query.getReaderNumber(),
                 query.getIsbn(),
                 query.getReturned(),
@@ -0,0 +1,45 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.repositories;
+
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingDurationStats;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface LendingDurationStatsRepository {
+    Optional<LendingDurationStats> findByScope(String scope);
+
+    /**
+     * Finds the statistics of the scope and locks them for update until the end of the current transaction.
+     */
+    Optional<LendingDurationStats> findForUpdate(String scope);
+
+    /**
+     * Atomically adds one returned lending of the given duration to the statistics of the given scope.
+     *
+     * @return number of rows updated, 0 if there are no statistics for the scope yet
+     */
+    int addReturnedLending(String scope, long durationInDays);
+
+    /**
+     * Replaces the statistics of the given scope.
+     *
+     * @return number of rows updated, 0 if there are no statistics for the scope
+     */
+    int setReturnedLendings(String scope, long returnedCount, long totalDurationInDays);
+
+    /**
+     * Number of returned lendings and sum of their durations in days, per book ISBN, computed from the lending table.
+     */
+    List<Object[]> sumReturnedDurationsByIsbn();
+
+    long count();
+
+    LendingDurationStats save(LendingDurationStats stats);
+
+    <S extends LendingDurationStats> Iterable<S> saveAll(Iterable<S> stats);
+
+    /**
+     * Deletes the statistics of every scope but the given one.
+     */
+    void deleteAllStatsExcept(String scope);
+}
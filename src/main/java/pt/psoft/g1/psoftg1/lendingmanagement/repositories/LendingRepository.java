@@ -1,23 +1,52 @@
 package pt.psoft.g1.psoftg1.lendingmanagement.repositories;
 
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface LendingRepository {
     Optional<Lending> findByLendingNumber(String lendingNumber);
-    List<Lending> listByReaderNumberAndIsbn(String readerNumber, String isbn);
+    Optional<Long> findVersionByLendingNumber(String lendingNumber);
+    Optional<Long> findVersionByLendingNumberAndReaderNumber(String lendingNumber, String readerNumber);
+    Optional<LendingSummary> findSummaryByLendingNumber(String lendingNumber);
+
+    /**
+     * @param returned whether to list only returned lendings, only outstanding ones, or (if null) both
+     */
+    List<LendingSummary> listByReaderNumberAndIsbn(String readerNumber, String isbn, Boolean returned);
     int getCountFromCurrentYear();
     List<Lending> listOutstandingByReaderNumber(String readerNumber);
-    Double getAverageDuration();
-    Double getAvgLendingDurationByIsbn(String isbn);
+    /**
+     * Lending number and limit date of each outstanding lending of the reader.
+     */
+    List<Object[]> findOutstandingLimitDatesByReaderNumber(String readerNumber);
+    List<LendingSummary> findOutstandingSummaries();
+    List<Object[]> countLendingsByBookReaderAndDay();
+    List<Object[]> countLendingsByAuthorAndDay();
+    /**
+     * Every (reader number, isbn) pair such that the reader borrowed the book at least once.
+     */
+    List<Object[]> findReaderBookPairs();
 
 
     List<Lending> getOverdue(Page page);
-    List<Lending> searchLendings(Page page, String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate);
+    Slice<Lending> searchLendings(Page page, String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate);
+    Slice<LendingSummary> searchLendingSummaries(Page page, String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Passes every lending matching the search criteria, in lending number order, to the action without holding
+     * them all in memory. The lendings are read in a single query, as summaries rather than entities.
+     *
+     * @param fetchSize rows read from the database at a time
+     * @return the number of lendings exported
+     */
+    long exportLendings(String readerNumber, String isbn, Boolean returned, LocalDate startDate, LocalDate endDate, int fetchSize, Consumer<LendingSummary> action);
 
     Lending save(Lending lending);
 
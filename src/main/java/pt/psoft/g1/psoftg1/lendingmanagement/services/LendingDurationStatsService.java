@@ -0,0 +1,111 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingDurationStats;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingReturnedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingDurationStatsRepository;
+import pt.psoft.g1.psoftg1.shared.services.RowCreator;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the average lending duration, globally and per book, as running totals.
+ * <p>
+ * Totals are updated in the same transaction that marks a lending as returned, except for creating the row of a
+ * scope, which commits on its own so that two returns creating it at once do not fail one another.
+ * {@link #rebuild()} recomputes them from the lending table and is run automatically on startup when no statistics
+ * exist yet.
+ */
+@Service
+public class LendingDurationStatsService {
+    private final LendingDurationStatsRepository statsRepository;
+    private final RowCreator rowCreator;
+
+    @Autowired
+    public LendingDurationStatsService(LendingDurationStatsRepository statsRepository, RowCreator rowCreator) {
+        this.statsRepository = statsRepository;
+        this.rowCreator = rowCreator;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onLendingReturned(LendingReturnedEvent event) {
+        final Lending lending = event.getLending();
+        final long durationInDays = ChronoUnit.DAYS.between(lending.getStartDate(), lending.getReturnedDate());
+
+        // the global totals first, as rebuild() relies on it
+        addReturnedLending(LendingDurationStats.GLOBAL_SCOPE, durationInDays);
+        addReturnedLending(lending.getBook().getIsbn(), durationInDays);
+    }
+
+    public Double getAverageDuration() {
+        return getAverageDuration(LendingDurationStats.GLOBAL_SCOPE);
+    }
+
+    public Double getAverageDurationByIsbn(String isbn) {
+        return getAverageDuration(isbn);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (statsRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Discards the running totals and recomputes them from scratch from the lending history.
+     * <p>
+     * Every return updates the global totals first, so the rebuild locks them before reading the lending history:
+     * returns that already updated them are waited for and then read from the lending table, while later ones wait
+     * for the rebuild to commit before adding themselves to the new totals.
+     */
+    @Transactional
+    public void rebuild() {
+        createStats(LendingDurationStats.GLOBAL_SCOPE);
+        statsRepository.findForUpdate(LendingDurationStats.GLOBAL_SCOPE);
+        statsRepository.deleteAllStatsExcept(LendingDurationStats.GLOBAL_SCOPE);
+
+        final List<LendingDurationStats> stats = new ArrayList<>();
+        long returnedCount = 0;
+        long totalDurationInDays = 0;
+        for (Object[] row : statsRepository.sumReturnedDurationsByIsbn()) {
+            final long count = ((Number) row[1]).longValue();
+            final long duration = row[2] == null ? 0 : ((Number) row[2]).longValue();
+            stats.add(new LendingDurationStats((String) row[0], count, duration));
+            returnedCount += count;
+            totalDurationInDays += duration;
+        }
+        statsRepository.saveAll(stats);
+        statsRepository.setReturnedLendings(LendingDurationStats.GLOBAL_SCOPE, returnedCount, totalDurationInDays);
+    }
+
+    private Double getAverageDuration(String scope) {
+        return statsRepository.findByScope(scope)
+                .map(LendingDurationStats::getAverageDuration)
+                .orElse(0.0);
+    }
+
+    private void addReturnedLending(String scope, long durationInDays) {
+        if (statsRepository.addReturnedLending(scope, durationInDays) == 0) {
+            createStats(scope);
+            statsRepository.addReturnedLending(scope, durationInDays);
+        }
+    }
+
+    /**
+     * Creates the empty statistics of the scope, unless a concurrent return already did.
+     */
+    private void createStats(String scope) {
+        rowCreator.createIfAbsent(() -> statsRepository.save(new LendingDurationStats(scope, 0, 0)));
+    }
+}
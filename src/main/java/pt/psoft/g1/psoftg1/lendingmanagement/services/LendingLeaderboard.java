@@ -0,0 +1,142 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingCreatedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
+import pt.psoft.g1.psoftg1.shared.services.AfterCommit;
+import pt.psoft.g1.psoftg1.shared.services.Leaderboard;
+import pt.psoft.g1.psoftg1.shared.services.Leaderboard.Score;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * In-memory lending counts per book, author and reader, and per reader within each genre, bucketed by the day the
+ * lending started.
+ * <p>
+ * The counts are loaded once the application is ready and kept up to date from the lending events, so the "top"
+ * reports never aggregate the lending table.
+ */
+@Component
+public class LendingLeaderboard {
+    private final LendingRepository lendingRepository;
+    private final int windowDays;
+    private final Clock clock;
+
+    private final Leaderboard<String> books;
+    private final Leaderboard<Long> authors;
+    private final Leaderboard<String> readers;
+    private final Map<String, Leaderboard<String>> readersByGenre = new HashMap<>();
+
+    @Autowired
+    public LendingLeaderboard(LendingRepository lendingRepository,
+                              @Value("${leaderboard.window-days:365}") int windowDays) {
+        this(lendingRepository, windowDays, Clock.systemDefaultZone());
+    }
+
+    LendingLeaderboard(LendingRepository lendingRepository, int windowDays, Clock clock) {
+        this.lendingRepository = lendingRepository;
+        this.windowDays = windowDays;
+        this.clock = clock;
+        this.books = new Leaderboard<>(windowDays, clock);
+        this.authors = new Leaderboard<>(windowDays, clock);
+        this.readers = new Leaderboard<>(windowDays, clock);
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        books.clear();
+        authors.clear();
+        readers.clear();
+        readersByGenre.clear();
+
+        for (Object[] row : lendingRepository.countLendingsByBookReaderAndDay()) {
+            record((String) row[0], (String) row[1], (String) row[2], List.of(), (LocalDate) row[3],
+                    ((Number) row[4]).longValue());
+        }
+        for (Object[] row : lendingRepository.countLendingsByAuthorAndDay()) {
+            authors.add((Long) row[0], (LocalDate) row[1], ((Number) row[2]).longValue());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onLendingCreated(LendingCreatedEvent event) {
+        // read the lending while its persistence context is still open, but only count it once it is committed
+        final Lending lending = event.getLending();
+        final String isbn = lending.getBook().getIsbn();
+        final String readerNumber = lending.getReaderDetails().getReaderNumber();
+        final String genre = lending.getBook().getGenre().getGenre();
+        final List<Long> authorNumbers = lending.getBook().getAuthors().stream()
+                .map(Author::getAuthorNumber)
+                .toList();
+        final LocalDate startDate = lending.getStartDate();
+
+        AfterCommit.run(() -> record(isbn, readerNumber, genre, authorNumbers, startDate, 1));
+    }
+
+    /**
+     * Most lent books in the last {@code days} days, or of all time if {@code days} is {@code null}.
+     */
+    public List<Score<String>> topBooks(int limit, Integer days) {
+        return top(books, limit, days);
+    }
+
+    /**
+     * Authors whose books were lent the most in the last {@code days} days, or of all time if {@code days} is
+     * {@code null}.
+     */
+    public List<Score<Long>> topAuthors(int limit, Integer days) {
+        return top(authors, limit, days);
+    }
+
+    /**
+     * Readers with the most lendings in the last {@code days} days, or of all time if {@code days} is {@code null}.
+     */
+    public List<Score<String>> topReaders(int limit, Integer days) {
+        return top(readers, limit, days);
+    }
+
+    /**
+     * Readers with the most lendings of books of the given genre started between the given dates (inclusive).
+     */
+    public List<Score<String>> topReadersByGenre(String genre, int limit, LocalDate startDate, LocalDate endDate) {
+        final Leaderboard<String> board;
+        synchronized (this) {
+            board = readersByGenre.get(genre);
+        }
+        if (board == null) {
+            if (limit < 1)
+                throw new IllegalArgumentException("Limit must be greater than 0");
+            return List.of();
+        }
+        return board.top(limit, startDate, endDate);
+    }
+
+    private synchronized void record(String isbn, String readerNumber, String genre, List<Long> authorNumbers,
+                                     LocalDate startDate, long count) {
+        books.add(isbn, startDate, count);
+        readers.add(readerNumber, startDate, count);
+        readersByGenre.computeIfAbsent(genre, g -> new Leaderboard<>(windowDays, clock))
+                .add(readerNumber, startDate, count);
+        for (Long authorNumber : authorNumbers) {
+            authors.add(authorNumber, startDate, count);
+        }
+    }
+
+    private static <K extends Comparable<K>> List<Score<K>> top(Leaderboard<K> board, int limit, Integer days) {
+        return days == null ? board.top(limit) : board.topInLastDays(limit, days);
+    }
+}
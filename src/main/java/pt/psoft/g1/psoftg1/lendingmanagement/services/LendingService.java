@@ -2,6 +2,7 @@ package pt.psoft.g1.psoftg1.lendingmanagement.services;
 
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 import pt.psoft.g1.psoftg1.lendingmanagement.command.services.SetLendingReturnedRequest;
 
 import java.util.List;
@@ -19,12 +20,12 @@ public interface LendingService {
      * @param returned     - Wether it's intended to filter by the return status of a lending
      * @return {@code Iterable<Lending>}
      */
-    List<Lending> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned);
+    List<LendingSummary> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned);
     Lending create(CreateLendingRequest resource); //No ID passed, as it is auto generated
     Lending setReturned(String lendingNumber, pt.psoft.g1.psoftg1.lendingmanagement.services.SetLendingReturnedRequest domainRequest, long desiredVersion);
     Double getAverageDuration();
     List<Lending> getOverdue(Page page);
     Double getAvgLendingDurationByIsbn(String isbn);
-    List<Lending> searchLendings(Page page, SearchLendingQuery request);
+    Slice<Lending> searchLendings(Page page, SearchLendingQuery request);
 
 }
@@ -4,8 +4,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
-import pt.psoft.g1.psoftg1.exceptions.LendingForbiddenException;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Fine;
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
@@ -13,6 +13,8 @@ import pt.psoft.g1.psoftg1.lendingmanagement.repositories.FineRepository;
 import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
 import pt.psoft.g1.psoftg1.readermanagement.repositories.ReaderRepository;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
+import pt.psoft.g1.psoftg1.shared.services.SequenceService;
 import pt.psoft.g1.psoftg1.lendingmanagement.services.SetLendingReturnedRequest;
 import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingService;
 
@@ -20,7 +22,6 @@ import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingService;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
 
 @Service
@@ -28,9 +29,12 @@ import java.util.Optional;
 @PropertySource({"classpath:config/library.properties"})
 public class LendingServiceImpl implements LendingService{
     private final LendingRepository lendingRepository;
+    private final LendingDurationStatsService lendingDurationStatsService;
     private final FineRepository fineRepository;
     private final BookRepository bookRepository;
     private final ReaderRepository readerRepository;
+    private final SequenceService sequenceService;
+    private final ReaderEligibilityService readerEligibilityService;
 
     @Value("${lendingDurationInDays}")
     private int lendingDurationInDays;
@@ -43,49 +47,30 @@ public class LendingServiceImpl implements LendingService{
     }
 
     @Override
-    public List<Lending> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned){
-        List<Lending> lendings = lendingRepository.listByReaderNumberAndIsbn(readerNumber, isbn);
-        if(returned.isEmpty()){
-            return lendings;
-        }else{
-            for(int i = 0; i < lendings.size(); i++){
-                if ((lendings.get(i).getReturnedDate() == null) == returned.get()){
-                    lendings.remove(i);
-                    i--;
-                }
-            }
-        }
-        return lendings;
+    public List<LendingSummary> listByReaderNumberAndIsbn(String readerNumber, String isbn, Optional<Boolean> returned){
+        return lendingRepository.listByReaderNumberAndIsbn(readerNumber, isbn, returned.orElse(null));
     }
 
     @Override
+    @Transactional
     public Lending create(final CreateLendingRequest resource) {
-        int count = 0;
-
-        Iterable<Lending> lendingList = lendingRepository.listOutstandingByReaderNumber(resource.getReaderNumber());
-        for (Lending lending : lendingList) {
-            //Business rule: cannot create a lending if user has late outstanding books to return.
-            if (lending.getDaysDelayed() > 0) {
-                throw new LendingForbiddenException("Reader has book(s) past their due date");
-            }
-            count++;
-            //Business rule: cannot create a lending if user already has 3 outstanding books to return.
-            if (count >= 3) {
-                throw new LendingForbiddenException("Reader has three books outstanding already");
-            }
-        }
+        //Business rules: cannot create a lending if user has late outstanding books to return, or already has 3
+        //outstanding books to return.
+        readerEligibilityService.checkCanBorrow(resource.getReaderNumber());
 
         final var b = bookRepository.findByIsbn(resource.getIsbn())
                 .orElseThrow(() -> new NotFoundException("Book not found"));
         final var r = readerRepository.findByReaderNumber(resource.getReaderNumber())
                 .orElseThrow(() -> new NotFoundException("Reader not found"));
-        int seq = lendingRepository.getCountFromCurrentYear()+1;
+        int seq = sequenceService.nextValue(SequenceService.LENDING_SEQUENCE, LocalDate.now().getYear(),
+                lendingRepository::getCountFromCurrentYear);
         final Lending l = new Lending(b,r,seq, lendingDurationInDays, fineValuePerDayInCents );
 
         return lendingRepository.save(l);
     }
 
     @Override
+    @Transactional
     public Lending setReturned(String lendingNumber, SetLendingReturnedRequest resource, long desiredVersion) {
         var lending = lendingRepository.findByLendingNumber(lendingNumber)
                 .orElseThrow(() -> new NotFoundException("Cannot update lending with this lending number"));
@@ -102,8 +87,7 @@ public class LendingServiceImpl implements LendingService{
 
     @Override
     public Double getAverageDuration(){
-        Double avg = lendingRepository.getAverageDuration();
-        return Double.valueOf(String.format(Locale.US,"%.1f", avg));
+        return lendingDurationStatsService.getAverageDuration();
     }
 
     @Override
@@ -116,12 +100,11 @@ public class LendingServiceImpl implements LendingService{
 
     @Override
     public Double getAvgLendingDurationByIsbn(String isbn){
-        Double avg = lendingRepository.getAvgLendingDurationByIsbn(isbn);
-        return Double.valueOf(String.format(Locale.US,"%.1f", avg));
+        return lendingDurationStatsService.getAverageDurationByIsbn(isbn);
     }
 
     @Override
-    public List<Lending> searchLendings(Page page, SearchLendingQuery query){
+    public Slice<Lending> searchLendings(Page page, SearchLendingQuery query){
         LocalDate startDate = null;
         LocalDate endDate = null;
 
@@ -0,0 +1,82 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.services;
+
+import lombok.Getter;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+
+/**
+ * Flat, immutable read model of a {@code Lending}, holding only what is needed to render a lending view.
+ * <p>
+ * Unlike the entity it does not reference the {@code Book} or {@code ReaderDetails} graphs, so it can be kept in
+ * memory or built directly from a projection query.
+ */
+@Getter
+public class LendingSummary {
+    /**
+     * Orders lending numbers by year and then by sequential number (so that "2024/9" comes before "2024/10").
+     */
+    public static final Comparator<String> LENDING_NUMBER_ORDER = Comparator
+            .comparingInt((String n) -> Integer.parseInt(n.substring(0, n.indexOf('/'))))
+            .thenComparingInt(n -> Integer.parseInt(n.substring(n.indexOf('/') + 1)));
+
+    private final String lendingNumber;
+    private final String isbn;
+    private final String bookTitle;
+    private final String readerNumber;
+    private final LocalDate startDate;
+    private final LocalDate limitDate;
+    private final LocalDate returnedDate;
+    private final Integer rating;
+    private final int fineValuePerDayInCents;
+
+    public LendingSummary(String lendingNumber, String isbn, String bookTitle, String readerNumber,
+                          LocalDate startDate, LocalDate limitDate, LocalDate returnedDate,
+                          Integer rating, int fineValuePerDayInCents) {
+        this.lendingNumber = lendingNumber;
+        this.isbn = isbn;
+        this.bookTitle = bookTitle;
+        this.readerNumber = readerNumber;
+        this.startDate = startDate;
+        this.limitDate = limitDate;
+        this.returnedDate = returnedDate;
+        this.rating = rating;
+        this.fineValuePerDayInCents = fineValuePerDayInCents;
+    }
+
+    public static LendingSummary of(Lending lending) {
+        return new LendingSummary(lending.getLendingNumber(),
+                lending.getBook().getIsbn(),
+                lending.getTitle(),
+                lending.getReaderDetails().getReaderNumber(),
+                lending.getStartDate(),
+                lending.getLimitDate(),
+                lending.getReturnedDate(),
+                lending.getRating().orElse(null),
+                lending.getFineValuePerDayInCents());
+    }
+
+    public int getDaysDelayed() {
+        final LocalDate end = returnedDate != null ? returnedDate : LocalDate.now();
+        return Math.max((int) ChronoUnit.DAYS.between(limitDate, end), 0);
+    }
+
+    public Integer getDaysUntilReturn() {
+        if (returnedDate != null)
+            return null;
+        final int days = (int) ChronoUnit.DAYS.between(LocalDate.now(), limitDate);
+        return days < 0 ? null : days;
+    }
+
+    public Integer getDaysOverdue() {
+        final int days = getDaysDelayed();
+        return days > 0 ? days : null;
+    }
+
+    public Integer getFineValueInCents() {
+        final int days = getDaysDelayed();
+        return days > 0 ? fineValuePerDayInCents * days : null;
+    }
+}
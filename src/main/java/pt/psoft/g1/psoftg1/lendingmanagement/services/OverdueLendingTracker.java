@@ -0,0 +1,207 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingCreatedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingReturnedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
+import pt.psoft.g1.psoftg1.shared.services.Page;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * In-memory index of outstanding lendings, bucketed by due date.
+ * <p>
+ * The index is a timing wheel with one slot per day: lendings due within the next {@value #WHEEL_DAYS} days sit in
+ * the slot of their due date, lendings due later wait in an overflow map and lendings whose due date has passed are
+ * moved to the overdue buckets as the wheel turns. Buckets keep their lendings sorted by lending number, so both
+ * "overdue" and "due within N days" are answered in due date order without querying the database.
+ * <p>
+ * The index is loaded once the application is ready and kept up to date from the lending events.
+ */
+@Component
+public class OverdueLendingTracker {
+    static final int WHEEL_DAYS = 64;
+
+    private final LendingRepository lendingRepository;
+    private final Clock clock;
+
+    private final List<NavigableMap<String, LendingSummary>> wheel = new ArrayList<>(WHEEL_DAYS);
+    private final NavigableMap<Long, NavigableMap<String, LendingSummary>> overdue = new TreeMap<>();
+    private final NavigableMap<Long, NavigableMap<String, LendingSummary>> overflow = new TreeMap<>();
+    private final Map<String, LendingSummary> tracked = new HashMap<>();
+
+    /**
+     * First day covered by the wheel; every lending due before this day is overdue.
+     */
+    private long currentDay;
+
+    @Autowired
+    public OverdueLendingTracker(LendingRepository lendingRepository) {
+        this(lendingRepository, Clock.systemDefaultZone());
+    }
+
+    OverdueLendingTracker(LendingRepository lendingRepository, Clock clock) {
+        this.lendingRepository = lendingRepository;
+        this.clock = clock;
+        for (int i = 0; i < WHEEL_DAYS; i++) {
+            wheel.add(new TreeMap<>(LendingSummary.LENDING_NUMBER_ORDER));
+        }
+        this.currentDay = today();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        wheel.forEach(Map::clear);
+        overdue.clear();
+        overflow.clear();
+        tracked.clear();
+        currentDay = today();
+
+        lendingRepository.findOutstandingSummaries().forEach(this::track);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLendingCreated(LendingCreatedEvent event) {
+        track(LendingSummary.of(event.getLending()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLendingReturned(LendingReturnedEvent event) {
+        untrack(event.getLending().getLendingNumber());
+    }
+
+    public synchronized void track(LendingSummary lending) {
+        if (lending.getReturnedDate() != null) {
+            untrack(lending.getLendingNumber());
+            return;
+        }
+        advance();
+        final LendingSummary previous = tracked.put(lending.getLendingNumber(), lending);
+        if (previous != null) {
+            remove(previous);
+        }
+        bucketOf(lending.getLimitDate().toEpochDay()).put(lending.getLendingNumber(), lending);
+    }
+
+    public synchronized void untrack(String lendingNumber) {
+        advance();
+        final LendingSummary previous = tracked.remove(lendingNumber);
+        if (previous != null) {
+            remove(previous);
+        }
+    }
+
+    /**
+     * Outstanding lendings whose limit date has passed, oldest first.
+     */
+    public synchronized List<LendingSummary> getOverdue(Page page) {
+        advance();
+        return page(overdue.values(), page);
+    }
+
+    /**
+     * Outstanding lendings due between today and {@code days} days from now (inclusive), earliest first.
+     */
+    public synchronized List<LendingSummary> getDueWithin(int days, Page page) {
+        if (days < 0)
+            throw new IllegalArgumentException("Number of days cannot be negative");
+        advance();
+
+        final long lastDay = currentDay + days;
+        final List<NavigableMap<String, LendingSummary>> buckets = new ArrayList<>();
+        for (long day = currentDay; day <= lastDay && day < currentDay + WHEEL_DAYS; day++) {
+            buckets.add(slot(day));
+        }
+        buckets.addAll(overflow.headMap(lastDay, true).values());
+        return page(buckets, page);
+    }
+
+    /**
+     * Turns the wheel up to today: expired slots become overdue buckets and the days entering the wheel's horizon
+     * are pulled from the overflow map.
+     */
+    private void advance() {
+        final long today = today();
+        while (currentDay < today) {
+            final NavigableMap<String, LendingSummary> expired = slot(currentDay);
+            if (!expired.isEmpty()) {
+                final NavigableMap<String, LendingSummary> bucket = new TreeMap<>(LendingSummary.LENDING_NUMBER_ORDER);
+                bucket.putAll(expired);
+                overdue.put(currentDay, bucket);
+                expired.clear();
+            }
+            currentDay++;
+
+            final long enteringDay = currentDay + WHEEL_DAYS - 1;
+            final NavigableMap<String, LendingSummary> entering = overflow.remove(enteringDay);
+            if (entering != null) {
+                slot(enteringDay).putAll(entering);
+            }
+        }
+    }
+
+    private NavigableMap<String, LendingSummary> bucketOf(long day) {
+        if (isInWheel(day)) {
+            return slot(day);
+        }
+        return (day < currentDay ? overdue : overflow)
+                .computeIfAbsent(day, d -> new TreeMap<>(LendingSummary.LENDING_NUMBER_ORDER));
+    }
+
+    private void remove(LendingSummary lending) {
+        final long day = lending.getLimitDate().toEpochDay();
+        if (isInWheel(day)) {
+            slot(day).remove(lending.getLendingNumber());
+            return;
+        }
+        final NavigableMap<Long, NavigableMap<String, LendingSummary>> buckets = day < currentDay ? overdue : overflow;
+        final NavigableMap<String, LendingSummary> bucket = buckets.get(day);
+        if (bucket != null) {
+            bucket.remove(lending.getLendingNumber());
+            if (bucket.isEmpty()) {
+                buckets.remove(day);
+            }
+        }
+    }
+
+    private boolean isInWheel(long day) {
+        return day >= currentDay && day < currentDay + WHEEL_DAYS;
+    }
+
+    private NavigableMap<String, LendingSummary> slot(long day) {
+        return wheel.get((int) Math.floorMod(day, (long) WHEEL_DAYS));
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    private static List<LendingSummary> page(Collection<NavigableMap<String, LendingSummary>> buckets, Page page) {
+        if (page == null) page = new Page(1, 10);
+        int toSkip = (page.getNumber() - 1) * page.getLimit();
+        final List<LendingSummary> result = new ArrayList<>(page.getLimit());
+        for (NavigableMap<String, LendingSummary> bucket : buckets) {
+            if (toSkip >= bucket.size()) {
+                toSkip -= bucket.size();
+                continue;
+            }
+            for (LendingSummary lending : bucket.values()) {
+                if (toSkip > 0) {
+                    toSkip--;
+                    continue;
+                }
+                result.add(lending);
+                if (result.size() == page.getLimit()) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+}
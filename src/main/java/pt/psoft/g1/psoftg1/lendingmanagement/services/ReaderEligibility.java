@@ -0,0 +1,75 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.services;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Outstanding lendings of a reader, as needed to decide whether the reader may borrow another book: how many there
+ * are and the earliest of their limit dates.
+ * <p>
+ * Instances are immutable. They are keyed by lending number, so applying the same creation or return twice
+ * leaves them unchanged.
+ */
+public final class ReaderEligibility {
+    /**
+     * Outstanding lendings at which a reader can no longer borrow.
+     */
+    public static final int MAX_OUTSTANDING = 3;
+
+    private final Map<String, LocalDate> limitDates;
+    private final LocalDate earliestLimitDate;
+
+    public ReaderEligibility(Map<String, LocalDate> limitDates) {
+        this.limitDates = Collections.unmodifiableMap(new HashMap<>(limitDates));
+        this.earliestLimitDate = limitDates.values().stream().min(LocalDate::compareTo).orElse(null);
+    }
+
+    public ReaderEligibility withLending(String lendingNumber, LocalDate limitDate) {
+        final Map<String, LocalDate> result = new HashMap<>(limitDates);
+        result.put(lendingNumber, limitDate);
+        return new ReaderEligibility(result);
+    }
+
+    public ReaderEligibility withoutLending(String lendingNumber) {
+        if (!limitDates.containsKey(lendingNumber)) {
+            return this;
+        }
+        final Map<String, LocalDate> result = new HashMap<>(limitDates);
+        result.remove(lendingNumber);
+        return new ReaderEligibility(result);
+    }
+
+    public int getOutstandingCount() {
+        return limitDates.size();
+    }
+
+    /**
+     * Limit date of the lending due first, or null if there is no outstanding lending.
+     */
+    public LocalDate getEarliestLimitDate() {
+        return earliestLimitDate;
+    }
+
+    public boolean hasOverdue(LocalDate today) {
+        return earliestLimitDate != null && earliestLimitDate.isBefore(today);
+    }
+
+    /**
+     * Why the reader may not borrow today, or null if they may.
+     */
+    public String getReasonNotToBorrow(LocalDate today) {
+        if (hasOverdue(today)) {
+            return "Reader has book(s) past their due date";
+        }
+        if (getOutstandingCount() >= MAX_OUTSTANDING) {
+            return "Reader has three books outstanding already";
+        }
+        return null;
+    }
+
+    public boolean canBorrow(LocalDate today) {
+        return getReasonNotToBorrow(today) == null;
+    }
+}
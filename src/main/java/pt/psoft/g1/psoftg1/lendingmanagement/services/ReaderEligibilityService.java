@@ -0,0 +1,82 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pt.psoft.g1.psoftg1.exceptions.LendingForbiddenException;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingCreatedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingReturnedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the {@link ReaderEligibility} of readers in memory, so that the checkout policy does not load every
+ * outstanding lending of the reader.
+ * <p>
+ * A reader's record is read from the database the first time it is needed, and is then kept up to date from the
+ * lending events.
+ */
+@Component
+public class ReaderEligibilityService {
+    private final LendingRepository lendingRepository;
+    private final Clock clock;
+
+    private final Map<String, ReaderEligibility> readers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReaderEligibilityService(LendingRepository lendingRepository) {
+        this(lendingRepository, Clock.systemDefaultZone());
+    }
+
+    ReaderEligibilityService(LendingRepository lendingRepository, Clock clock) {
+        this.lendingRepository = lendingRepository;
+        this.clock = clock;
+    }
+
+    public ReaderEligibility getEligibility(String readerNumber) {
+        return readers.computeIfAbsent(readerNumber, this::load);
+    }
+
+    public boolean canBorrow(String readerNumber) {
+        return getEligibility(readerNumber).canBorrow(LocalDate.now(clock));
+    }
+
+    /**
+     * @throws LendingForbiddenException if the reader has overdue lendings or too many outstanding ones
+     */
+    public void checkCanBorrow(String readerNumber) {
+        final String reason = getEligibility(readerNumber).getReasonNotToBorrow(LocalDate.now(clock));
+        if (reason != null) {
+            throw new LendingForbiddenException(reason);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLendingCreated(LendingCreatedEvent event) {
+        final Lending lending = event.getLending();
+        // readers not in memory are read with the new lending when first needed
+        readers.computeIfPresent(lending.getReaderDetails().getReaderNumber(),
+                (readerNumber, eligibility) -> eligibility.withLending(lending.getLendingNumber(), lending.getLimitDate()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLendingReturned(LendingReturnedEvent event) {
+        final Lending lending = event.getLending();
+        readers.computeIfPresent(lending.getReaderDetails().getReaderNumber(),
+                (readerNumber, eligibility) -> eligibility.withoutLending(lending.getLendingNumber()));
+    }
+
+    private ReaderEligibility load(String readerNumber) {
+        final Map<String, LocalDate> limitDates = new HashMap<>();
+        for (Object[] row : lendingRepository.findOutstandingLimitDatesByReaderNumber(readerNumber)) {
+            limitDates.put((String) row[0], (LocalDate) row[1]);
+        }
+        return new ReaderEligibility(limitDates);
+    }
+}
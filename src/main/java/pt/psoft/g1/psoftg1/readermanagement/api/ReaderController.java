@@ -12,22 +12,23 @@ import jakarta.validation.Valid;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import pt.psoft.g1.psoftg1.auth.services.CurrentPrincipal;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.external.service.ApiNinjasService;
 import pt.psoft.g1.psoftg1.lendingmanagement.command.api.LendingView;
 import pt.psoft.g1.psoftg1.lendingmanagement.command.api.LendingViewMapper;
 import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
 import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingService;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.ReaderEligibilityService;
 import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
 import pt.psoft.g1.psoftg1.readermanagement.services.CreateReaderRequest;
 import pt.psoft.g1.psoftg1.readermanagement.services.ReaderService;
@@ -36,8 +37,8 @@ import pt.psoft.g1.psoftg1.readermanagement.services.UpdateReaderRequest;
 import pt.psoft.g1.psoftg1.shared.api.ListResponse;
 import pt.psoft.g1.psoftg1.shared.services.ConcurrencyService;
 import pt.psoft.g1.psoftg1.shared.services.FileStorageService;
+import pt.psoft.g1.psoftg1.shared.services.PhotoSize;
 import pt.psoft.g1.psoftg1.shared.services.SearchRequest;
-import pt.psoft.g1.psoftg1.usermanagement.model.Librarian;
 import pt.psoft.g1.psoftg1.usermanagement.model.Role;
 import pt.psoft.g1.psoftg1.usermanagement.model.User;
 import pt.psoft.g1.psoftg1.usermanagement.services.UserService;
@@ -45,7 +46,6 @@ import pt.psoft.g1.psoftg1.usermanagement.services.UserService;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 @Tag(name = "Readers", description = "Endpoints to manage readers")
@@ -54,10 +54,12 @@ import java.util.Optional;
 @RequestMapping("/api/readers")
 class ReaderController {
     private final ReaderService readerService;
+    private final CurrentPrincipal currentPrincipal;
     private final UserService userService;
     private final ReaderViewMapper readerViewMapper;
     private final LendingService lendingService;
     private final LendingViewMapper lendingViewMapper;
+    private final ReaderEligibilityService readerEligibilityService;
     private final ConcurrencyService concurrencyService;
     private final FileStorageService fileStorageService;
     private final ApiNinjasService apiNinjasService;
@@ -67,12 +69,14 @@ class ReaderController {
             // Use the `array` property instead of `schema`
             array = @ArraySchema(schema = @Schema(implementation = ReaderView.class))) })
     @GetMapping
-    public ResponseEntity<?> getData(Authentication authentication) {
-        User loggedUser = userService.getAuthenticatedUser(authentication);
-
-        if (!(loggedUser instanceof Librarian)) {
-            ReaderDetails readerDetails = readerService.findByUsername(loggedUser.getUsername())
-                    .orElseThrow(() -> new NotFoundException(ReaderDetails.class, loggedUser.getUsername()));
+    public ResponseEntity<?> getData(final WebRequest request) {
+        if (!currentPrincipal.isLibrarian()) {
+            final String readerNumber = currentPrincipal.requireReaderNumber();
+            if (concurrencyService.isNotModified(request, readerService.findVersionByReaderNumber(readerNumber))) {
+                return null;
+            }
+            ReaderDetails readerDetails = readerService.findByReaderNumber(readerNumber)
+                    .orElseThrow(() -> new NotFoundException(ReaderDetails.class, readerNumber));
             //return new ListResponse<>(readerViewMapper.toReaderView(readerService.findAll()));
             return ResponseEntity.ok().eTag(Long.toString(readerDetails.getVersion())).body(readerViewMapper.toReaderView(readerDetails));
         }
@@ -92,8 +96,13 @@ class ReaderController {
                                                            final Integer year,
                                                        @PathVariable("seq")
                                                            @Parameter(description = "The sequencial of the Reader to find")
-                                                           final Integer seq) {
+                                                           final Integer seq,
+                                                       final WebRequest request) {
         String readerNumber = year+"/"+seq;
+        // skips loading the reader and fetching a quote for the birth date when the client already has it
+        if (concurrencyService.isNotModified(request, readerService.findVersionByReaderNumber(readerNumber))) {
+            return null;
+        }
         final var readerDetails = readerService.findByReaderNumber(readerNumber)
                 .orElseThrow(() -> new NotFoundException("Could not find reader from specified reader number"));
 
@@ -126,14 +135,8 @@ class ReaderController {
     @GetMapping(params = "name")
     public ListResponse<ReaderView> findByReaderName(@RequestParam("name") final String name) {
         List<User> userList = this.userService.findByNameLike(name);
-        List<ReaderDetails> readerDetailsList = new ArrayList<>();
-
-        for(User user : userList) {
-            Optional<ReaderDetails> readerDetails = this.readerService.findByUsername(user.getUsername());
-            if(readerDetails.isPresent()) {
-                readerDetailsList.add(readerDetails.get());
-            }
-        }
+        List<ReaderDetails> readerDetailsList = this.readerService.findByUsernames(
+                userList.stream().map(User::getUsername).toList());
 
         if(readerDetailsList.isEmpty()) {
             throw new NotFoundException("Could not find reader with name: " + name);
@@ -145,73 +148,49 @@ class ReaderController {
     @Operation(summary= "Gets a reader photo")
     @GetMapping("/{year}/{seq}/photo")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<byte[]> getSpecificReaderPhoto(@PathVariable("year")
+    public ResponseEntity<Resource> getSpecificReaderPhoto(@PathVariable("year")
                                                      @Parameter(description = "The year of the Reader to find")
                                                      final Integer year,
                                                  @PathVariable("seq")
                                                      @Parameter(description = "The sequencial of the Reader to find")
                                                      final Integer seq,
-                                                         Authentication authentication) {
-        User loggedUser = userService.getAuthenticatedUser(authentication);
-
-        //if Librarian is logged in, skip ahead
-        if (!(loggedUser instanceof Librarian)) {
-            final var loggedReaderDetails = readerService.findByUsername(loggedUser.getUsername())
-                    .orElseThrow(() -> new NotFoundException(ReaderDetails.class, loggedUser.getUsername()));
+                                                         @RequestParam(value = "size", defaultValue = "original") final String size,
+                                                         final WebRequest request) {
+        final String readerNumber = year + "/" + seq;
 
-            //if logged Reader matches the one associated with the lending, skip ahead
-            if (!loggedReaderDetails.getReaderNumber().equals(year + "/" + seq)) {
-                throw new AccessDeniedException("Reader does not have permission to view another reader's photo");
-            }
+        //if Librarian is logged in or the logged Reader is the one requested, skip ahead
+        if (!currentPrincipal.isLibrarian() && !currentPrincipal.isReader(readerNumber)) {
+            throw new AccessDeniedException("Reader does not have permission to view another reader's photo");
         }
 
-
-        ReaderDetails readerDetails = readerService.findByReaderNumber(year + "/" + seq).orElseThrow(() -> new NotFoundException(ReaderDetails.class, loggedUser.getUsername()));
+        ReaderDetails readerDetails = readerService.findByReaderNumber(readerNumber).orElseThrow(() -> new NotFoundException(ReaderDetails.class, readerNumber));
 
         //In case the user has no photo, just return a 200 OK without body
         if(readerDetails.getPhoto() == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        String photoFile = readerDetails.getPhoto().getPhotoFile();
-        byte[] image = this.fileStorageService.getFile(photoFile);
-        String fileFormat = this.fileStorageService.getExtension(readerDetails.getPhoto().getPhotoFile()).orElseThrow(() -> new ValidationException("Unable to get file extension"));
-
-        if(image == null) {
-            return ResponseEntity.ok().build();
-        }
-
-        return ResponseEntity.ok().contentType(fileFormat.equals("png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG).body(image);
+        return this.fileStorageService.getPhoto(readerDetails.getPhoto().getPhotoFile(), PhotoSize.fromParameter(size),
+                request);
     }
 
     @Operation(summary= "Gets a reader photo")
     @GetMapping("/photo")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<byte[]> getReaderOwnPhoto(Authentication authentication) {
+    public ResponseEntity<Resource> getReaderOwnPhoto(@RequestParam(value = "size", defaultValue = "original") final String size,
+                                                      final WebRequest request) {
 
-        User loggedUser = userService.getAuthenticatedUser(authentication);
-
-        Optional<ReaderDetails> optReaderDetails = readerService.findByUsername(loggedUser.getUsername());
-        if(optReaderDetails.isEmpty()) {
-            throw new AccessDeniedException("Could not find a valid reader from current auth");
-        }
-
-        ReaderDetails readerDetails = optReaderDetails.get();
+        final String readerNumber = currentPrincipal.requireReaderNumber();
+        ReaderDetails readerDetails = readerService.findByReaderNumber(readerNumber)
+                .orElseThrow(() -> new NotFoundException(ReaderDetails.class, readerNumber));
 
         //In case the user has no photo, just return a 200 OK without body
         if(readerDetails.getPhoto() == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        byte[] image = this.fileStorageService.getFile(readerDetails.getPhoto().getPhotoFile());
-
-        if(image == null) {
-            return ResponseEntity.ok().build();
-        }
-
-        String fileFormat = this.fileStorageService.getExtension(readerDetails.getPhoto().getPhotoFile()).orElseThrow(() -> new ValidationException("Unable to get file extension"));
-
-        return ResponseEntity.ok().contentType(fileFormat.equals("png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG).body(image);
+        return this.fileStorageService.getPhoto(readerDetails.getPhoto().getPhotoFile(), PhotoSize.fromParameter(size),
+                request);
     }
 
     @Operation(summary = "Creates a reader")
@@ -235,21 +214,15 @@ class ReaderController {
 
     @Operation(summary = "Deletes a reader photo")
     @DeleteMapping("/photo")
-    public ResponseEntity<Void> deleteReaderPhoto(Authentication authentication) {
-        User loggedUser = userService.getAuthenticatedUser(authentication);
-
-        Optional<ReaderDetails> optReaderDetails = readerService.findByUsername(loggedUser.getUsername());
-        if(optReaderDetails.isEmpty()) {
-            throw new AccessDeniedException("Could not find a valid reader from current auth");
-        }
-
-        ReaderDetails readerDetails = optReaderDetails.get();
+    public ResponseEntity<Void> deleteReaderPhoto() {
+        final String readerNumber = currentPrincipal.requireReaderNumber();
+        ReaderDetails readerDetails = readerService.findByReaderNumber(readerNumber)
+                .orElseThrow(() -> new NotFoundException(ReaderDetails.class, readerNumber));
 
         if(readerDetails.getPhoto() == null) {
             throw new NotFoundException("Reader has no photo to delete");
         }
 
-        this.fileStorageService.deleteFile(readerDetails.getPhoto().getPhotoFile());
         readerService.removeReaderPhoto(readerDetails.getReaderNumber(), readerDetails.getVersion());
 
         return ResponseEntity.ok().build();
@@ -260,7 +233,6 @@ class ReaderController {
     @PatchMapping
     public ResponseEntity<ReaderView> updateReader(
             @Valid UpdateReaderRequest readerRequest,
-            Authentication authentication,
             final WebRequest request) {
 
         final String ifMatchValue = request.getHeader(ConcurrencyService.IF_MATCH);
@@ -273,19 +245,41 @@ class ReaderController {
 
         String fileName = this.fileStorageService.getRequestPhoto(file);
 
-        User loggedUser = userService.getAuthenticatedUser(authentication);
         ReaderDetails readerDetails = readerService
-                .update(loggedUser.getId(), readerRequest, concurrencyService.getVersionFromIfMatchHeader(ifMatchValue), fileName);
+                .update(currentPrincipal.getUserId(), readerRequest, concurrencyService.getVersionFromIfMatchHeader(ifMatchValue), fileName);
 
         return ResponseEntity.ok()
                 .eTag(Long.toString(readerDetails.getVersion()))
                 .body(readerViewMapper.toReaderView(readerDetails));
     }
 
+    @Operation(summary = "Tells whether this reader may borrow a book today")
+    @GetMapping(value = "/{year}/{seq}/eligibility")
+    public ReaderEligibilityView getReaderEligibility(
+            @PathVariable("year")
+                @Parameter(description = "The year of the Reader to check")
+                final Integer year,
+            @PathVariable("seq")
+                @Parameter(description = "The sequencial of the Reader to check")
+                final Integer seq)
+    {
+        String readerNumber = year + "/" + seq;
+
+        //if Librarian is logged in or the logged Reader is the one requested, skip ahead
+        if (!currentPrincipal.isLibrarian() && !currentPrincipal.isReader(readerNumber)) {
+            throw new AccessDeniedException("Reader does not have permission to view this eligibility");
+        }
+        if (readerService.findVersionByReaderNumber(readerNumber).isEmpty()) {
+            throw new NotFoundException(ReaderDetails.class, readerNumber);
+        }
+
+        return readerViewMapper.toReaderEligibilityView(readerNumber,
+                readerEligibilityService.getEligibility(readerNumber), LocalDate.now());
+    }
+
     @Operation(summary = "Gets the lendings of this reader by ISBN")
     @GetMapping(value = "/{year}/{seq}/lendings")
     public List<LendingView> getReaderLendings(
-            Authentication authentication,
             @PathVariable("year")
                 @Parameter(description = "The year of the Reader to find")
                 final Integer year,
@@ -304,38 +298,33 @@ class ReaderController {
         final var urlReaderDetails = readerService.findByReaderNumber(urlReaderNumber)
                 .orElseThrow(() -> new NotFoundException(Lending.class, urlReaderNumber));
 
-        User loggedUser = userService.getAuthenticatedUser(authentication);
-
-        //if Librarian is logged in, skip ahead
-        if (!(loggedUser instanceof Librarian)) {
-            final var loggedReaderDetails = readerService.findByUsername(loggedUser.getUsername())
-                    .orElseThrow(() -> new NotFoundException(ReaderDetails.class, loggedUser.getUsername()));
-
-            //if logged Reader matches the one associated with the lendings, skip ahead
-            if(!Objects.equals(loggedReaderDetails.getReaderNumber(), urlReaderDetails.getReaderNumber())){
-                throw new AccessDeniedException("Reader does not have permission to view these lendings");
-            }
+        //if Librarian is logged in or the logged Reader is the one requested, skip ahead
+        if (!currentPrincipal.isLibrarian() && !currentPrincipal.isReader(urlReaderDetails.getReaderNumber())) {
+            throw new AccessDeniedException("Reader does not have permission to view these lendings");
         }
         final var lendings = lendingService.listByReaderNumberAndIsbn(urlReaderNumber, isbn, returned);
 
         if(lendings.isEmpty())
             throw new NotFoundException("No lendings found with provided ISBN");
 
-        return lendingViewMapper.toLendingView(lendings);
+        return lendingViewMapper.toLendingViewFromSummaries(lendings);
     }
 
     @GetMapping("/top5")
-    public ListResponse<ReaderView> getTop() {
-        return new ListResponse<>(readerViewMapper.toReaderView(readerService.findTopReaders(5)));
+    public ListResponse<ReaderView> getTop(
+            @RequestParam(value = "limit", defaultValue = "5") int limit,
+            @RequestParam(value = "days", required = false) Integer days) {
+        return new ListResponse<>(readerViewMapper.toReaderView(readerService.findTopReaders(limit, days)));
     }
 
     @GetMapping("/top5ByGenre")
     public ListResponse<ReaderCountView> getTop5ReaderByGenre(
             @RequestParam("genre") String genre,
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate)
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "limit", defaultValue = "5") int limit)
     {
-        final var books = readerService.findTopByGenre(genre,startDate,endDate);
+        final var books = readerService.findTopByGenre(genre,startDate,endDate,limit);
 
         if(books.isEmpty())
             throw new NotFoundException("No lendings found with provided parameters");
@@ -346,7 +335,7 @@ class ReaderController {
     @PostMapping("/search")
     public ListResponse<ReaderView> searchReaders(
             @RequestBody final SearchRequest<SearchReadersQuery> request) {
-        final var readerList = readerService.searchReaders(request.getPage(), request.getQuery());
-        return new ListResponse<>(readerViewMapper.toReaderView(readerList));
+        final var readerSlice = readerService.searchReaders(request.getPage(), request.getQuery());
+        return new ListResponse<>(readerViewMapper.toReaderView(readerSlice.getItems()), readerSlice.getNext());
     }
 }
@@ -0,0 +1,22 @@
+package pt.psoft.g1.psoftg1.readermanagement.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Schema(description = "Whether a Reader may borrow a book today")
+public class ReaderEligibilityView {
+    private String readerNumber;
+
+    private boolean canBorrow;
+
+    @Schema(description = "Why the reader may not borrow, if they may not")
+    private String reason;
+
+    private int outstandingLendings;
+
+    @Schema(description = "Limit date of the outstanding lending due first")
+    private LocalDate earliestLimitDate;
+}
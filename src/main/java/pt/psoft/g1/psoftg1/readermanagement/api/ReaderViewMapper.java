@@ -5,10 +5,12 @@ import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.ReaderEligibility;
 import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
 import pt.psoft.g1.psoftg1.readermanagement.services.ReaderBookCountDTO;
 import pt.psoft.g1.psoftg1.shared.api.MapperInterface;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -45,6 +47,14 @@ public abstract class ReaderViewMapper extends MapperInterface {
 
     public abstract List<ReaderCountView> toReaderCountViewList(List<ReaderBookCountDTO> readerBookCountDTOList);
 
+    @Mapping(target = "readerNumber", source = "readerNumber")
+    @Mapping(target = "canBorrow", expression = "java(eligibility.canBorrow(today))")
+    @Mapping(target = "reason", expression = "java(eligibility.getReasonNotToBorrow(today))")
+    @Mapping(target = "outstandingLendings", expression = "java(eligibility.getOutstandingCount())")
+    @Mapping(target = "earliestLimitDate", source = "eligibility.earliestLimitDate")
+    public abstract ReaderEligibilityView toReaderEligibilityView(String readerNumber, ReaderEligibility eligibility,
+                                                                  LocalDate today);
+
 
     protected String generatePhotoUrl(ReaderDetails readerDetails) {
         String readerNumber = readerDetails.getReaderNumber();
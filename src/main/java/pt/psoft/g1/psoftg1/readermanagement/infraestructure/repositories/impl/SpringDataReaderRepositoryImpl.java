@@ -5,7 +5,6 @@ import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -13,15 +12,16 @@ import org.springframework.util.StringUtils;
 import pt.psoft.g1.psoftg1.readermanagement.services.SearchReadersQuery;
 import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
 import pt.psoft.g1.psoftg1.readermanagement.repositories.ReaderRepository;
+import pt.psoft.g1.psoftg1.shared.services.Cursor;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 
-import org.springframework.data.domain.Pageable;
-import pt.psoft.g1.psoftg1.readermanagement.services.ReaderBookCountDTO;
 import pt.psoft.g1.psoftg1.usermanagement.model.User;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 
 public interface SpringDataReaderRepositoryImpl extends ReaderRepository, ReaderDetailsRepoCustom, CrudRepository<ReaderDetails, Long> {
@@ -31,6 +31,12 @@ public interface SpringDataReaderRepositoryImpl extends ReaderRepository, Reader
             "WHERE r.readerNumber.readerNumber = :readerNumber")
     Optional<ReaderDetails> findByReaderNumber(@Param("readerNumber") @NotNull String readerNumber);
 
+    @Override
+    @Query("SELECT r.version " +
+            "FROM ReaderDetails r " +
+            "WHERE r.readerNumber.readerNumber = :readerNumber")
+    Optional<Long> findVersionByReaderNumber(@Param("readerNumber") @NotNull String readerNumber);
+
     @Override
     @Query("SELECT r " +
             "FROM ReaderDetails r " +
@@ -59,30 +65,23 @@ public interface SpringDataReaderRepositoryImpl extends ReaderRepository, Reader
             "WHERE YEAR(u.createdAt) = YEAR(CURRENT_DATE)")
     int getCountFromCurrentYear();
 
-    @Query("SELECT rd " +
-            "FROM ReaderDetails rd " +
-            "JOIN Lending l ON l.readerDetails.pk = rd.pk " +
-            "GROUP BY rd " +
-            "ORDER BY COUNT(l) DESC")
-    Page<ReaderDetails> findTopReaders(Pageable pageable);
+    @Override
+    @Query("SELECT r " +
+            "FROM ReaderDetails r " +
+            "WHERE r.readerNumber.readerNumber IN :readerNumbers")
+    List<ReaderDetails> findByReaderNumberIn(@Param("readerNumbers") Collection<String> readerNumbers);
 
     @Override
-    @Query("SELECT NEW pt.psoft.g1.psoftg1.readermanagement.services.ReaderBookCountDTO(rd, count(l)) " +
-            "FROM ReaderDetails rd " +
-            "JOIN Lending l ON l.readerDetails.pk = rd.pk " +
-            "JOIN Book b ON b.pk = l.book.pk " +
-            "JOIN Genre g ON g.pk = b.genre.pk " +
-            "WHERE g.genre = :genre " +
-            "AND l.startDate >= :startDate " +
-            "AND l.startDate <= :endDate " +
-            "GROUP BY rd.pk " +
-            "ORDER BY COUNT(l.pk) DESC")
-    Page<ReaderBookCountDTO> findTopByGenre(Pageable pageable, String genre, LocalDate startDate, LocalDate endDate);
+    @Query("SELECT r " +
+            "FROM ReaderDetails r " +
+            "JOIN FETCH r.reader u " +
+            "WHERE u.username IN :usernames")
+    List<ReaderDetails> findByUsernameIn(@Param("usernames") Collection<String> usernames);
 }
 
 interface ReaderDetailsRepoCustom {
 
-    List<ReaderDetails> searchReaderDetails(pt.psoft.g1.psoftg1.shared.services.Page page, SearchReadersQuery query);
+    Slice<ReaderDetails> searchReaderDetails(pt.psoft.g1.psoftg1.shared.services.Page page, SearchReadersQuery query);
 }
 
 @RequiredArgsConstructor
@@ -91,7 +90,7 @@ class ReaderDetailsRepoCustomImpl implements ReaderDetailsRepoCustom {
     private final EntityManager em;
 
     @Override
-    public List<ReaderDetails> searchReaderDetails(final pt.psoft.g1.psoftg1.shared.services.Page page, final SearchReadersQuery query) {
+    public Slice<ReaderDetails> searchReaderDetails(final pt.psoft.g1.psoftg1.shared.services.Page page, final SearchReadersQuery query) {
 
         final CriteriaBuilder cb = em.getCriteriaBuilder();
         final CriteriaQuery<ReaderDetails> cq = cb.createQuery(ReaderDetails.class);
@@ -101,31 +100,56 @@ class ReaderDetailsRepoCustomImpl implements ReaderDetailsRepoCustom {
         cq.select(readerDetailsRoot);
 
         final List<Predicate> where = new ArrayList<>();
+        // ordered by the last criterion given, then by user id so that the order is total and a page can seek to
+        // the next one
+        Path<String> sortKey = null;
+        Function<ReaderDetails, String> sortValue = null;
         if (StringUtils.hasText(query.getName())) { //'contains' type search
             where.add(cb.like(userJoin.get("name").get("name"), "%" + query.getName() + "%"));
-            cq.orderBy(cb.asc(userJoin.get("name")));
+            sortKey = userJoin.get("name").get("name");
+            sortValue = readerDetails -> readerDetails.getReader().getName().toString();
         }
         if (StringUtils.hasText(query.getEmail())) { //'exatct' type search
             where.add(cb.equal(userJoin.get("username"), query.getEmail()));
-            cq.orderBy(cb.asc(userJoin.get("username")));
-
+            sortKey = userJoin.get("username");
+            sortValue = readerDetails -> readerDetails.getReader().getUsername();
         }
         if (StringUtils.hasText(query.getPhoneNumber())) { //'exatct' type search
             where.add(cb.equal(readerDetailsRoot.get("phoneNumber").get("phoneNumber"), query.getPhoneNumber()));
-            cq.orderBy(cb.asc(readerDetailsRoot.get("phoneNumber").get("phoneNumber")));
+            sortKey = readerDetailsRoot.get("phoneNumber").get("phoneNumber");
+            sortValue = ReaderDetails::getPhoneNumber;
         }
+        final Path<Long> userId = userJoin.get("id");
 
         // search using OR
-        if (!where.isEmpty()) {
-            cq.where(cb.or(where.toArray(new Predicate[0])));
+        Predicate filter = where.isEmpty() ? cb.conjunction() : cb.or(where.toArray(new Predicate[0]));
+        if (page.hasCursor()) {
+            if (sortKey == null) {
+                final Cursor cursor = Cursor.decode(page.getCursor(), 1);
+                filter = cb.and(filter, cb.greaterThan(userId, cursor.getLong(0)));
+            } else {
+                final Cursor cursor = Cursor.decode(page.getCursor(), 2);
+                filter = cb.and(filter, cb.or(cb.greaterThan(sortKey, cursor.get(0)),
+                        cb.and(cb.equal(sortKey, cursor.get(0)), cb.greaterThan(userId, cursor.getLong(1)))));
+            }
+        }
+        cq.where(filter);
+        if (sortKey == null) {
+            cq.orderBy(cb.asc(userId));
+        } else {
+            cq.orderBy(cb.asc(sortKey), cb.asc(userId));
         }
-
 
         final TypedQuery<ReaderDetails> q = em.createQuery(cq);
-        q.setFirstResult((page.getNumber() - 1) * page.getLimit());
-        q.setMaxResults(page.getLimit());
+        if (!page.hasCursor()) {
+            q.setFirstResult((page.getNumber() - 1) * page.getLimit());
+        }
+        q.setMaxResults(page.getLimit() + 1);
 
-        return q.getResultList();
+        final Function<ReaderDetails, String> key = sortValue;
+        return Slice.of(q.getResultList(), page, readerDetails -> key == null
+                ? Cursor.of(readerDetails.getReader().getId())
+                : Cursor.of(key.apply(readerDetails), readerDetails.getReader().getId()));
     }
 }
 
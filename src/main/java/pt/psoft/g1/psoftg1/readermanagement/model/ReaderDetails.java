@@ -4,6 +4,8 @@ import jakarta.annotation.Nullable;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
 import pt.psoft.g1.psoftg1.readermanagement.services.UpdateReaderRequest;
@@ -56,6 +58,7 @@ public class ReaderDetails extends EntityWithPhoto {
     @Getter
     @Setter
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "readerDetails.interestList")
     private List<Genre> interestList;
 
     public ReaderDetails(int readerNumber, Reader reader, String birthDate, String phoneNumber, boolean gdpr, boolean marketing, boolean thirdParty, String photoURI, List<Genre> interestList) {
@@ -109,16 +112,11 @@ public class ReaderDetails extends EntityWithPhoto {
         boolean thirdParty = request.getThirdParty();
         String fullName = request.getFullName();
         String username = request.getUsername();
-        String password = request.getPassword();
 
         if(username != null) {
             this.reader.setUsername(username);
         }
 
-        if(password != null) {
-            this.reader.setPassword(password);
-        }
-
         if(fullName != null) {
             this.reader.setName(fullName);
         }
@@ -3,11 +3,13 @@ package pt.psoft.g1.psoftg1.readermanagement.services;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.multipart.MultipartFile;
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
 import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
 import pt.psoft.g1.psoftg1.shared.model.Photo;
 import pt.psoft.g1.psoftg1.usermanagement.model.Reader;
+import pt.psoft.g1.psoftg1.usermanagement.services.PasswordHashingService;
 import pt.psoft.g1.psoftg1.usermanagement.services.UserService;
 
 import java.nio.file.Paths;
@@ -20,12 +22,20 @@ import java.util.List;
 @Mapper(componentModel = "spring", uses = {ReaderService.class, UserService.class})
 public abstract class ReaderMapper {
 
+    @Autowired
+    protected PasswordHashingService passwordHashingService;
+
     @Mapping(target = "username", source = "username")
-    @Mapping(target = "password", source = "password")
+    @Mapping(target = "password", source = "password", qualifiedByName = "hashPassword")
     @Mapping(target = "name", source = "fullName")
     public abstract Reader createReader(CreateReaderRequest request);
 
     @Mapping(target = "photo", source = "photoURI")
     @Mapping(target = "interestList", source = "interestList")
     public abstract ReaderDetails createReaderDetails(int readerNumber, Reader reader, CreateReaderRequest request, String photoURI, List<Genre> interestList);
+
+    @Named("hashPassword")
+    protected String hashPassword(String password) {
+        return passwordHashingService.hash(password);
+    }
 }
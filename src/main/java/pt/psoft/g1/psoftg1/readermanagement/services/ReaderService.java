@@ -6,6 +6,7 @@ import java.util.Optional;
 
 import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 
 /**
  *
@@ -14,12 +15,17 @@ public interface ReaderService {
     ReaderDetails create(CreateReaderRequest request, String photoURI);
     ReaderDetails update(Long id, UpdateReaderRequest request, long desireVersion, String photoURI);
     Optional<ReaderDetails> findByUsername(final String username);
+    /**
+     * The readers with the given usernames, in the same order; usernames of users who are not readers are left out.
+     */
+    List<ReaderDetails> findByUsernames(final List<String> usernames);
     Optional<ReaderDetails> findByReaderNumber(String readerNumber);
+    Optional<Long> findVersionByReaderNumber(String readerNumber);
     List<ReaderDetails> findByPhoneNumber(String phoneNumber);
     Iterable<ReaderDetails> findAll();
-    List<ReaderDetails> findTopReaders(int minTop);
-    List<ReaderBookCountDTO> findTopByGenre(String genre, LocalDate startDate, LocalDate endDate);
+    List<ReaderDetails> findTopReaders(int minTop, Integer days);
+    List<ReaderBookCountDTO> findTopByGenre(String genre, LocalDate startDate, LocalDate endDate, int limit);
     //Optional<Reader> update(UpdateReaderRequest request) throws Exception;
     Optional<ReaderDetails> removeReaderPhoto(String readerNumber, long desiredVersion);
-    List<ReaderDetails> searchReaders(Page page, SearchReadersQuery query);
+    Slice<ReaderDetails> searchReaders(Page page, SearchReadersQuery query);
 }
@@ -1,26 +1,34 @@
 package pt.psoft.g1.psoftg1.readermanagement.services;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
 import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingLeaderboard;
 import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
 import pt.psoft.g1.psoftg1.readermanagement.repositories.ReaderRepository;
-import pt.psoft.g1.psoftg1.shared.repositories.ForbiddenNameRepository;
+import pt.psoft.g1.psoftg1.shared.services.ForbiddenNameService;
+import pt.psoft.g1.psoftg1.shared.model.Photo;
 import pt.psoft.g1.psoftg1.shared.repositories.PhotoRepository;
+import pt.psoft.g1.psoftg1.shared.services.BatchLoader;
+import pt.psoft.g1.psoftg1.shared.services.FileStorageService;
+import pt.psoft.g1.psoftg1.shared.services.Leaderboard;
+import pt.psoft.g1.psoftg1.shared.services.SequenceService;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 import pt.psoft.g1.psoftg1.usermanagement.model.Reader;
 import pt.psoft.g1.psoftg1.usermanagement.repositories.UserRepository;
+import pt.psoft.g1.psoftg1.usermanagement.services.PasswordHashingService;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import org.springframework.data.domain.Pageable;
 
 @Service
 @RequiredArgsConstructor
@@ -29,8 +37,18 @@ public class ReaderServiceImpl implements ReaderService {
     private final UserRepository userRepo;
     private final ReaderMapper readerMapper;
     private final GenreRepository genreRepo;
-    private final ForbiddenNameRepository forbiddenNameRepository;
+    private final ForbiddenNameService forbiddenNameService;
     private final PhotoRepository photoRepository;
+    private final SequenceService sequenceService;
+    private final LendingLeaderboard lendingLeaderboard;
+    private final FileStorageService fileStorageService;
+    private final PasswordHashingService passwordHashingService;
+    private final BatchLoader batchLoader;
+
+    private static final BatchLoader.Source<String, Genre> GENRES =
+            new BatchLoader.Source<>("genres", Genre::getGenre);
+    private static final BatchLoader.Source<String, ReaderDetails> READERS_BY_USERNAME =
+            new BatchLoader.Source<>("readersByUsername", readerDetails -> readerDetails.getReader().getUsername());
 
 
     @Override
@@ -39,11 +57,8 @@ public class ReaderServiceImpl implements ReaderService {
             throw new ConflictException("Username already exists!");
         }
 
-        Iterable<String> words = List.of(request.getFullName().split("\\s+"));
-        for (String word : words){
-            if(!forbiddenNameRepository.findByForbiddenNameIsContained(word).isEmpty()) {
-                throw new IllegalArgumentException("Name contains a forbidden word");
-            }
+        if (forbiddenNameService.containsForbiddenName(request.getFullName())) {
+            throw new IllegalArgumentException("Name contains a forbidden word");
         }
 
         List<String> stringInterestList = request.getInterestList();
@@ -69,21 +84,31 @@ public class ReaderServiceImpl implements ReaderService {
             request.setPhoto(null);
         }
 
-        int count = readerRepo.getCountFromCurrentYear();
+        int seq = sequenceService.nextValue(SequenceService.READER_SEQUENCE, LocalDate.now().getYear(),
+                readerRepo::getCountFromCurrentYear);
         Reader reader = readerMapper.createReader(request);
-        ReaderDetails rd = readerMapper.createReaderDetails(count+1, reader, request, photoURI, interestList);
+        ReaderDetails rd = readerMapper.createReaderDetails(seq, reader, request, photoURI, interestList);
 
         userRepo.save(reader);
         return readerRepo.save(rd);
     }
 
     @Override
-    public List<ReaderBookCountDTO> findTopByGenre(String genre, LocalDate startDate, LocalDate endDate){
+    public List<ReaderBookCountDTO> findTopByGenre(String genre, LocalDate startDate, LocalDate endDate, int limit){
         if(startDate.isAfter(endDate)){
             throw new IllegalArgumentException("Start date cannot be after end date");
         }
-        Pageable pageableRules = PageRequest.of(0,5);
-        return this.readerRepo.findTopByGenre(pageableRules, genre, startDate, endDate).getContent();
+        final var top = lendingLeaderboard.topReadersByGenre(genre, limit, startDate, endDate);
+        final Map<String, ReaderDetails> readers = findReaders(top);
+
+        final List<ReaderBookCountDTO> result = new ArrayList<>(top.size());
+        for (Leaderboard.Score<String> score : top) {
+            final ReaderDetails readerDetails = readers.get(score.getKey());
+            if (readerDetails != null) {
+                result.add(new ReaderBookCountDTO(readerDetails, score.getCount()));
+            }
+        }
+        return result;
     }
 
     @Override
@@ -112,6 +137,9 @@ public class ReaderServiceImpl implements ReaderService {
         }
 
         readerDetails.applyPatch(desiredVersion, request, photoURI, interestList);
+        if (request.getPassword() != null) {
+            readerDetails.getReader().setPassword(passwordHashingService.hash(request.getPassword()));
+        }
 
         userRepo.save(readerDetails.getReader());
         return readerRepo.save(readerDetails);
@@ -123,6 +151,11 @@ public class ReaderServiceImpl implements ReaderService {
         return this.readerRepo.findByReaderNumber(readerNumber);
     }
 
+    @Override
+    public Optional<Long> findVersionByReaderNumber(String readerNumber) {
+        return this.readerRepo.findVersionByReaderNumber(readerNumber);
+    }
+
     @Override
     public List<ReaderDetails> findByPhoneNumber(String phoneNumber) {
         return this.readerRepo.findByPhoneNumber(phoneNumber);
@@ -130,7 +163,12 @@ public class ReaderServiceImpl implements ReaderService {
 
     @Override
     public Optional<ReaderDetails> findByUsername(final String username) {
-        return this.readerRepo.findByUsername(username);
+        return batchLoader.load(READERS_BY_USERNAME, username, readerRepo::findByUsernameIn);
+    }
+
+    @Override
+    public List<ReaderDetails> findByUsernames(final List<String> usernames) {
+        return new ArrayList<>(batchLoader.loadAll(READERS_BY_USERNAME, usernames, readerRepo::findByUsernameIn).values());
     }
 
 
@@ -140,14 +178,32 @@ public class ReaderServiceImpl implements ReaderService {
     }
 
     @Override
-    public List<ReaderDetails> findTopReaders(int minTop) {
+    public List<ReaderDetails> findTopReaders(int minTop, Integer days) {
         if(minTop < 1) {
             throw new IllegalArgumentException("Minimum top reader must be greater than 0");
         }
 
-        Pageable pageableRules = PageRequest.of(0,minTop);
-        Page<ReaderDetails> page = readerRepo.findTopReaders(pageableRules);
-        return page.getContent();
+        final var top = lendingLeaderboard.topReaders(minTop, days);
+        final Map<String, ReaderDetails> readers = findReaders(top);
+
+        final List<ReaderDetails> result = new ArrayList<>(top.size());
+        for (Leaderboard.Score<String> score : top) {
+            final ReaderDetails readerDetails = readers.get(score.getKey());
+            if (readerDetails != null) {
+                result.add(readerDetails);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, ReaderDetails> findReaders(List<Leaderboard.Score<String>> scores) {
+        final Map<String, ReaderDetails> readers = new HashMap<>();
+        if (!scores.isEmpty()) {
+            for (ReaderDetails readerDetails : readerRepo.findByReaderNumberIn(scores.stream().map(Leaderboard.Score::getKey).toList())) {
+                readers.put(readerDetails.getReaderNumber(), readerDetails);
+            }
+        }
+        return readers;
     }
 
     private List<Genre> getGenreListFromStringList(List<String> interestList) {
@@ -159,44 +215,47 @@ public class ReaderServiceImpl implements ReaderService {
             return new ArrayList<>();
         }
 
+        final Map<String, Genre> genres = batchLoader.loadAll(GENRES, interestList, genreRepo::findByStringIn);
         List<Genre> genreList = new ArrayList<>();
         for(String interest : interestList) {
-            Optional<Genre> optGenre = genreRepo.findByString(interest);
-            if(optGenre.isEmpty()) {
+            Genre genre = genres.get(interest);
+            if(genre == null) {
                 throw new NotFoundException("Could not find genre with name " + interest);
             }
 
-            genreList.add(optGenre.get());
+            genreList.add(genre);
         }
 
         return genreList;
     }
 
     @Override
+    @Transactional
     public Optional<ReaderDetails> removeReaderPhoto(String readerNumber, long desiredVersion) {
         ReaderDetails readerDetails = readerRepo.findByReaderNumber(readerNumber)
                 .orElseThrow(() -> new NotFoundException("Cannot find reader"));
 
-        String photoFile = readerDetails.getPhoto().getPhotoFile();
+        Photo photo = readerDetails.getPhoto();
         readerDetails.removePhoto(desiredVersion);
         Optional<ReaderDetails> updatedReader = Optional.of(readerRepo.save(readerDetails));
-        photoRepository.deleteByPhotoFile(photoFile);
+        photoRepository.delete(photo);
+        fileStorageService.deleteFileIfUnreferenced(photo.getPhotoFile());
         return updatedReader;
     }
 
     @Override
-    public List<ReaderDetails> searchReaders(pt.psoft.g1.psoftg1.shared.services.Page page, SearchReadersQuery query) {
+    public Slice<ReaderDetails> searchReaders(pt.psoft.g1.psoftg1.shared.services.Page page, SearchReadersQuery query) {
         if (page == null)
             page = new pt.psoft.g1.psoftg1.shared.services.Page(1, 10);
 
         if (query == null)
             query = new SearchReadersQuery("", "","");
 
-        final var list = readerRepo.searchReaderDetails(page, query);
+        final var slice = readerRepo.searchReaderDetails(page, query);
 
-        if(list.isEmpty())
+        if(slice.getItems().isEmpty())
             throw new NotFoundException("No results match the search query");
 
-        return list;
+        return slice;
     }
 }
@@ -0,0 +1,69 @@
+package pt.psoft.g1.psoftg1.shared.api;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.security.RolesAllowed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pt.psoft.g1.psoftg1.shared.services.ResponseCache;
+import pt.psoft.g1.psoftg1.usermanagement.model.Role;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Tag(name = "CacheAdmin")
+@RestController
+@RequestMapping(path = "api/admin/caches")
+@RolesAllowed(Role.ADMIN)
+@RequiredArgsConstructor
+public class CacheAdminApi {
+
+    private final CacheManager cacheManager;
+
+    private final javax.cache.CacheManager hibernateCacheManager;
+
+    private final ResponseCache responseCache;
+
+    @Operation(summary = "Gets the hit, miss and eviction statistics of every cache")
+    @GetMapping
+    public ListResponse<CacheStatisticsView> getStatistics() {
+        final List<CacheStatisticsView> statistics = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (cache instanceof CaffeineCache caffeineCache) {
+                final CacheStats stats = caffeineCache.getNativeCache().stats();
+                statistics.add(new CacheStatisticsView(name, caffeineCache.getNativeCache().estimatedSize(),
+                        stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount()));
+            }
+        }
+        final CacheStats responses = responseCache.getStats();
+        statistics.add(new CacheStatisticsView("responses", responseCache.getEstimatedSize(), responses.hitCount(),
+                responses.missCount(), responses.hitRate(), responses.evictionCount()));
+        return new ListResponse<>(statistics);
+    }
+
+    @Operation(summary = "Gets the hit, miss and eviction statistics of every region of the second-level cache")
+    @GetMapping("/regions")
+    public ListResponse<CacheStatisticsView> getRegionStatistics() {
+        final List<CacheStatisticsView> statistics = new ArrayList<>();
+        for (String name : hibernateCacheManager.getCacheNames()) {
+            @SuppressWarnings("unchecked")
+            final com.github.benmanes.caffeine.cache.Cache<Object, Object> region = hibernateCacheManager
+                    .getCache(name).unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+            final CacheStats stats = region.stats();
+            statistics.add(new CacheStatisticsView(name, region.estimatedSize(),
+                    stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount()));
+        }
+        return new ListResponse<>(statistics);
+    }
+}
@@ -0,0 +1,24 @@
+package pt.psoft.g1.psoftg1.shared.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Usage of an in-memory cache since the application started")
+public class CacheStatisticsView {
+    private String name;
+
+    @Schema(description = "Approximate number of entries")
+    private long size;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private double hitRate;
+
+    @Schema(description = "Entries removed because the cache was full or they expired")
+    private long evictionCount;
+}
@@ -22,6 +22,8 @@ package pt.psoft.g1.psoftg1.shared.api;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -32,4 +34,14 @@ import lombok.Data;
 @AllArgsConstructor
 public class ListResponse<T> {
 	private List<T> items;
+
+	/**
+	 * Cursor to the next page of a search, to send back in the page of the next request; absent on the last page.
+	 */
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private String next;
+
+	public ListResponse(final List<T> items) {
+		this(items, null);
+	}
 }
@@ -6,14 +6,9 @@ import org.springframework.data.repository.CrudRepository;
 import pt.psoft.g1.psoftg1.shared.model.ForbiddenName;
 import pt.psoft.g1.psoftg1.shared.repositories.ForbiddenNameRepository;
 
-import java.util.List;
 import java.util.Optional;
 
 public interface SpringDataForbiddenNameRepository extends ForbiddenNameRepository, CrudRepository<ForbiddenName, Long> {
-    @Query("SELECT fn FROM ForbiddenName fn" +
-            " WHERE :pat LIKE CONCAT('%', fn.forbiddenName, '%') ")
-    List<ForbiddenName> findByForbiddenNameIsContained(String pat);
-
     @Override
     @Query("SELECT fn " +
             "FROM ForbiddenName fn " +
@@ -1,10 +1,8 @@
 package pt.psoft.g1.psoftg1.shared.infrastructure.repositories.impl;
 
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
-import org.springframework.transaction.annotation.Transactional;
 import pt.psoft.g1.psoftg1.shared.model.Photo;
 import pt.psoft.g1.psoftg1.shared.repositories.PhotoRepository;
 
@@ -18,10 +16,8 @@ public interface SpringDataPhotoRepository extends PhotoRepository, CrudReposito
             "WHERE p.pk = :photo_id")
     Optional<Photo> findById(@Param("photo_id") long id);*/
     @Override
-    @Modifying
-    @Transactional
-    @Query("DELETE " +
+    @Query("SELECT COUNT(p) " +
             "FROM Photo p " +
             "WHERE p.photoFile = :photoFile")
-    void deleteByPhotoFile(String photoFile);
+    long countByPhotoFile(@Param("photoFile") String photoFile);
 }
@@ -0,0 +1,21 @@
+package pt.psoft.g1.psoftg1.shared.infrastructure.repositories.impl;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pt.psoft.g1.psoftg1.shared.model.SequenceBlock;
+import pt.psoft.g1.psoftg1.shared.repositories.SequenceBlockRepository;
+
+import java.util.Optional;
+
+public interface SpringDataSequenceBlockRepository extends SequenceBlockRepository, JpaRepository<SequenceBlock, Long> {
+    @Override
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s " +
+            "FROM SequenceBlock s " +
+            "WHERE s.sequenceName = :sequenceName " +
+            "AND s.year = :year")
+    Optional<SequenceBlock> findForUpdate(@Param("sequenceName") String sequenceName, @Param("year") int year);
+}
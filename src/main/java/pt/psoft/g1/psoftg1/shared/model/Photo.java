@@ -7,10 +7,13 @@ import jakarta.persistence.Id;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.nio.file.Path;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "photo")
 public class Photo {
     @Id
     @GeneratedValue(strategy= GenerationType.AUTO)
@@ -0,0 +1,62 @@
+package pt.psoft.g1.psoftg1.shared.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+/**
+ * High-water mark of a yearly sequence (e.g., lending or reader numbers).
+ * <p>
+ * Each row stores the next value that has not yet been handed out to any application instance. Instances reserve
+ * whole blocks of values by advancing this mark under a row lock and then serve numbers from memory, so the
+ * database is only touched once per block.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"SEQUENCE_NAME", "SEQUENCE_YEAR"}))
+public class SequenceBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long pk;
+
+    @Version
+    private long version;
+
+    @Getter
+    @Column(name = "SEQUENCE_NAME", nullable = false, length = 32)
+    private String sequenceName;
+
+    @Getter
+    @Column(name = "SEQUENCE_YEAR", nullable = false)
+    private int year;
+
+    @Getter
+    @Column(nullable = false)
+    private int nextValue;
+
+    protected SequenceBlock() {
+        // for ORM only
+    }
+
+    public SequenceBlock(String sequenceName, int year, int nextValue) {
+        if (sequenceName == null || sequenceName.isBlank())
+            throw new IllegalArgumentException("Sequence name cannot be blank");
+        if (nextValue < 1)
+            throw new IllegalArgumentException("Sequence values start at 1");
+        this.sequenceName = sequenceName;
+        this.year = year;
+        this.nextValue = nextValue;
+    }
+
+    /**
+     * Reserves the next {@code blockSize} values.
+     *
+     * @return the first value of the reserved block
+     */
+    public int reserve(int blockSize) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size must be positive");
+        final int first = nextValue;
+        nextValue = Math.addExact(nextValue, blockSize);
+        return first;
+    }
+}
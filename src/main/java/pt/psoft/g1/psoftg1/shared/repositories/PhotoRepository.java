@@ -9,5 +9,7 @@ public interface PhotoRepository {
     //Optional<Photo> findById(long id);
 
     //Photo save(Photo photo);
-    void deleteByPhotoFile(String photoFile);
+    void delete(Photo photo);
+
+    long countByPhotoFile(String photoFile);
 }
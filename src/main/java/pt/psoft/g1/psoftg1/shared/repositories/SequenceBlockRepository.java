@@ -0,0 +1,14 @@
+package pt.psoft.g1.psoftg1.shared.repositories;
+
+import pt.psoft.g1.psoftg1.shared.model.SequenceBlock;
+
+import java.util.Optional;
+
+public interface SequenceBlockRepository {
+    /**
+     * Finds the sequence row and locks it for update until the end of the current transaction.
+     */
+    Optional<SequenceBlock> findForUpdate(String sequenceName, int year);
+
+    SequenceBlock saveAndFlush(SequenceBlock sequenceBlock);
+}
@@ -0,0 +1,91 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Loads entities by key in batches, one query per {@link Source} for all the keys not loaded yet, and remembers
+ * them until the end of the current request.
+ * <p>
+ * Services looking up several entities by key (the authors of a book, the interests of a reader) ask for all the keys
+ * at once, so a request makes the same number of queries however many keys there are, and does not read the same
+ * entity twice. Outside of a request, such as while bootstrapping or on worker threads, keys are still loaded in
+ * batches but nothing is remembered.
+ */
+@Component
+public class BatchLoader {
+    private static final String ATTRIBUTE = BatchLoader.class.getName() + ".loaded";
+
+    /**
+     * Entities of one type looked up by one of their keys; the entities loaded from a source are remembered apart from
+     * those of any other source.
+     */
+    public static final class Source<K, V> {
+        private final String name;
+        private final Function<V, K> keyOf;
+
+        public Source(String name, Function<V, K> keyOf) {
+            this.name = name;
+            this.keyOf = keyOf;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * The entities with the given keys, in the order of the keys; keys without an entity are left out of the result.
+     *
+     * @param query loads the entities with any of the given keys at once, typically with {@code ... WHERE key IN (...)}
+     */
+    public <K, V> Map<K, V> loadAll(Source<K, V> source, Collection<K> keys,
+                                    Function<Collection<K>, ? extends Iterable<V>> query) {
+        final Map<K, Optional<V>> loaded = loaded(source);
+        final Set<K> missing = new LinkedHashSet<>();
+        for (K key : keys) {
+            if (!loaded.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (V value : query.apply(missing)) {
+                loaded.put(source.keyOf.apply(value), Optional.of(value));
+            }
+            // remembered too, so that they are not looked for again
+            for (K key : missing) {
+                loaded.putIfAbsent(key, Optional.empty());
+            }
+        }
+
+        final Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            loaded.get(key).ifPresent(value -> result.put(key, value));
+        }
+        return result;
+    }
+
+    public <K, V> Optional<V> load(Source<K, V> source, K key, Function<Collection<K>, ? extends Iterable<V>> query) {
+        return Optional.ofNullable(loadAll(source, List.of(key), query).get(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> Map<K, Optional<V>> loaded(Source<K, V> source) {
+        final RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return new HashMap<>();
+        }
+        Map<Source<?, ?>, Map<?, ?>> bySource =
+                (Map<Source<?, ?>, Map<?, ?>>) request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (bySource == null) {
+            bySource = new HashMap<>();
+            request.setAttribute(ATTRIBUTE, bySource, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<K, Optional<V>>) bySource.computeIfAbsent(source, s -> new HashMap<>());
+    }
+}
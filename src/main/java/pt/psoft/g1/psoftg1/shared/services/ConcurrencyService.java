@@ -2,6 +2,11 @@ package pt.psoft.g1.psoftg1.shared.services;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -14,4 +19,22 @@ public class ConcurrencyService {
         }
         return Long.parseLong(ifMatchHeader);
     }
+
+    /**
+     * Answers a conditional GET from the version of the resource alone, before the resource itself is loaded.
+     * <p>
+     * The version is the ETag of the resource, so the response is not buffered and hashed by the
+     * {@link ShallowEtagHeaderFilter}. Returns whether the client already has this version, in which case the response
+     * is now 304 Not Modified and there is nothing left to do; otherwise, including when there is no such resource,
+     * the resource must be loaded and returned as usual.
+     */
+    public boolean isNotModified(final WebRequest request, final Optional<Long> version) {
+        if (version.isEmpty()) {
+            return false;
+        }
+        if (request instanceof ServletWebRequest servletWebRequest) {
+            ShallowEtagHeaderFilter.disableContentCaching(servletWebRequest.getRequest());
+        }
+        return request.checkNotModified(Long.toString(version.get()));
+    }
 }
@@ -0,0 +1,87 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import jakarta.validation.ValidationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Position in an ordered result set: the sort key values, primary key last, of the last result of a page.
+ * <p>
+ * The next page is read with a seek on those values ({@code WHERE (key, pk) > (:key, :pk)}) instead of skipping every
+ * row before it, so each page costs the same however deep it is. Clients only see the encoded form, which they must
+ * treat as opaque.
+ */
+public final class Cursor {
+    private final List<String> values;
+
+    private Cursor(final List<String> values) {
+        this.values = values;
+    }
+
+    public static Cursor of(final Object... values) {
+        final List<String> strings = new ArrayList<>(values.length);
+        for (Object value : values) {
+            strings.add(String.valueOf(value));
+        }
+        return new Cursor(strings);
+    }
+
+    /**
+     * @throws ValidationException if the cursor was not produced by {@link #encode()} with that many values
+     */
+    public static Cursor decode(final String cursor, final int size) {
+        final List<String> values = new ArrayList<>(size);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            while (in.available() > 0) {
+                values.add(in.readUTF());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+        if (values.size() != size) {
+            throw new ValidationException("Invalid cursor");
+        }
+        return new Cursor(values);
+    }
+
+    public String encode() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (String value : values) {
+                out.writeUTF(value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public String get(final int index) {
+        return values.get(index);
+    }
+
+    public long getLong(final int index) {
+        try {
+            return Long.parseLong(values.get(index));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    public LocalDateTime getLocalDateTime(final int index) {
+        try {
+            return LocalDateTime.parse(values.get(index));
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+}
@@ -4,6 +4,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import lombok.Data;
 
+import java.time.Duration;
+
 /**
  * <p>
  * code based on
@@ -16,4 +18,9 @@ import lombok.Data;
 public class FileStorageProperties {
     private String uploadDir;
     private long photoMaxSize;
+    private boolean contentAddressed;
+    private int variantThreads = 2;
+    private int variantQueueCapacity = 100;
+    private Duration photoCacheMaxAge = Duration.ofHours(1);
+    private Duration orphanGracePeriod = Duration.ofMinutes(10);
 }
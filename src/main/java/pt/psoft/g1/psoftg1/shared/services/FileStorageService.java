@@ -21,25 +21,52 @@
 package pt.psoft.g1.psoftg1.shared.services;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.validation.ValidationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.multipart.MultipartFile;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.exceptions.FileStorageException;
 import pt.psoft.g1.psoftg1.shared.api.UploadFileResponse;
 import pt.psoft.g1.psoftg1.shared.model.FileUtils;
+import pt.psoft.g1.psoftg1.shared.repositories.PhotoRepository;
 
 /**
  * <p>
@@ -51,15 +78,46 @@ import pt.psoft.g1.psoftg1.shared.model.FileUtils;
 @RequiredArgsConstructor
 @Service
 public class FileStorageService {
+    private static final int LOCK_STRIPES = 64;
+
+    private final Logger logger = LogManager.getLogger();
 
     private final Path fileStorageLocation;
+    private final PhotoRepository photoRepository;
+    private final PhotoVariantService photoVariantService;
+    private final boolean contentAddressed;
     private long photoMaxSize;
+    private final CacheControl photoCacheControl;
     private final String[] validImageFormats = {"image/png", "image/jpeg"};
+    private final Duration orphanGracePeriod;
+    /**
+     * Files waiting for their grace period to end before being deleted -> token of the deletion, so that a deletion
+     * requested again (or cancelled) in between does not go ahead with the old one.
+     */
+    private final Map<String, Object> pendingDeletions = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final ScheduledExecutorService deletionScheduler;
 
     @Autowired
-    public FileStorageService(final FileStorageProperties fileStorageProperties) {
+    public FileStorageService(final FileStorageProperties fileStorageProperties,
+                              final PhotoRepository photoRepository,
+                              final PhotoVariantService photoVariantService) {
         this.fileStorageLocation = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+        this.photoRepository = photoRepository;
+        this.photoVariantService = photoVariantService;
+        this.contentAddressed = fileStorageProperties.isContentAddressed();
         this.photoMaxSize = fileStorageProperties.getPhotoMaxSize();
+        // photos of readers are only visible to their reader and librarians, so shared caches must not keep them
+        this.photoCacheControl = CacheControl.maxAge(fileStorageProperties.getPhotoCacheMaxAge()).cachePrivate();
+        this.orphanGracePeriod = fileStorageProperties.getOrphanGracePeriod();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.deletionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "photo-deletions");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         try {
             Files.createDirectories(fileStorageLocation);
@@ -69,7 +127,16 @@ public class FileStorageService {
         }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        deletionScheduler.shutdownNow();
+    }
+
     public String storeFile(final String prefix, final MultipartFile file) {
+        if (contentAddressed) {
+            return storeBlob(file);
+        }
+
         //final String fileName = prefix + "_" + determineFileName(file);
         //files will contain only the generated uuid passed as prefix
         final String fileName = prefix + "." + getExtension(file.getOriginalFilename()).orElse("");
@@ -85,33 +152,166 @@ public class FileStorageService {
         }
     }
 
-    public void deleteFile(String file) {
-        if(file == null) {
-            throw new IllegalArgumentException("Received null reference to file path");
+    /**
+     * Stores the upload under its SHA-256 digest as {@code ab/cd/<digest>.<ext>}, so that no directory holds more than
+     * a fraction of the files.
+     * <p>
+     * The digest is computed while the upload is read. If the same content is already stored nothing is written and
+     * the existing blob is shared, and any deletion of it still waiting is called off; otherwise the upload is written
+     * to a temporary file, checked against the digest and moved into place atomically.
+     */
+    private String storeBlob(final MultipartFile file) {
+        final String extension = getExtension(file.getOriginalFilename()).map(e -> "." + e).orElse("");
+        try {
+            final String digest;
+            try (InputStream in = file.getInputStream()) {
+                digest = copyAndDigest(in, OutputStream.nullOutputStream());
+            }
+            final String fileName = digest.substring(0, 2) + "/" + digest.substring(2, 4) + "/" + digest + extension;
+            final Path targetLocation = fileStorageLocation.resolve(fileName);
+            synchronized (lockOf(fileName)) {
+                pendingDeletions.remove(fileName);
+                if (Files.exists(targetLocation)) {
+                    return fileName;
+                }
+            }
+
+            Files.createDirectories(targetLocation.getParent());
+            final Path tempLocation = Files.createTempFile(targetLocation.getParent(), digest, ".tmp");
+            try {
+                try (InputStream in = file.getInputStream(); OutputStream out = Files.newOutputStream(tempLocation)) {
+                    if (!digest.equals(copyAndDigest(in, out))) {
+                        throw new FileStorageException("Could not store file " + file.getOriginalFilename()
+                                + " as it changed while being stored. Please try again!");
+                    }
+                }
+                Files.move(tempLocation, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempLocation);
+            }
+            return fileName;
+        } catch (final IOException ex) {
+            throw new FileStorageException("Could not store file " + file.getOriginalFilename()
+                    + ". Please try again!", ex);
         }
+    }
 
-        Path filePath = Paths.get(this.fileStorageLocation + "/" + file);
+    private static String copyAndDigest(final InputStream in, final OutputStream out) throws IOException {
+        final MessageDigest sha256;
         try {
-            Files.delete(filePath);
-        } catch (IOException e) {
-            throw new NotFoundException("Reader photo could not be deleted as his photo file doesn't exist.");
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
+        new DigestInputStream(in, sha256).transferTo(out);
+        return HexFormat.of().formatHex(sha256.digest());
     }
 
-    public byte[] getFile(final String fileName) {
-        String photoPathString = this.fileStorageLocation + "/" + fileName;
-        Path photoPath = Paths.get(photoPathString);
-        byte[] image = null;
+    /**
+     * Deletes a stored file, and its variants, if no photo refers to it any more once the current transaction has
+     * committed and the grace period has passed.
+     * <p>
+     * Files are shared by every photo with the same content, so this must be called after the photo itself is deleted.
+     * A photo sharing the file may have been stored and not yet committed when its file is found unreferenced: the
+     * grace period leaves it time to commit, and storing the same content again calls the deletion off. Deletions still
+     * waiting when the application stops are lost, leaving their files behind.
+     */
+    public void deleteFileIfUnreferenced(final String fileName) {
+        if (fileName == null) {
+            throw new IllegalArgumentException("Received null reference to file path");
+        }
+        AfterCommit.run(() -> {
+            final Object deletion = new Object();
+            pendingDeletions.put(fileName, deletion);
+            deletionScheduler.schedule(() -> deleteIfStillUnreferenced(fileName, deletion),
+                    orphanGracePeriod.toMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void deleteIfStillUnreferenced(final String fileName, final Object deletion) {
+        synchronized (lockOf(fileName)) {
+            if (!pendingDeletions.remove(fileName, deletion) || photoRepository.countByPhotoFile(fileName) > 0) {
+                return;
+            }
+            try {
+                photoVariantService.deleteVariants(fileName);
+                Files.deleteIfExists(fileStorageLocation.resolve(fileName).normalize());
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not delete file {}", fileName, e);
+            }
+        }
+    }
+
+    private Object lockOf(final String fileName) {
+        return locks[Math.floorMod(fileName.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * Serves a stored photo straight from disk, without buffering it on the heap.
+     * <p>
+     * The requested size is served if its variant was already generated, the original otherwise; the original then
+     * stands in for the variant only until it is generated, so clients must revalidate it every time. Stored files are
+     * never rewritten under the same name, so the file name is a strong ETag and a matching {@code If-None-Match} is
+     * answered with 304 once the file is known to exist, without opening it. Otherwise the file is streamed as a
+     * {@link FileSystemResource} with its Last-Modified date; Spring MVC answers {@code If-Modified-Since} from it and
+     * {@code Range} requests with 206 partial content, setting the Content-Length of whatever it sends.
+     *
+     * @param photoFile stored file name, as kept in the entity photo
+     * @return the photo, 304 if the client's copy is current or 404 if the file is missing
+     */
+    public ResponseEntity<Resource> getPhoto(final String photoFile, final PhotoSize size, final WebRequest request) {
+        final String fileName = photoVariantService.resolve(photoFile, size);
+        final String eTag = "\"" + fileName + "\"";
+        final CacheControl cacheControl = size.isVariant() && fileName.equals(photoFile)
+                ? CacheControl.noCache().cachePrivate()
+                : photoCacheControl;
+        // streamed from disk, with an ETag of its own
+        if (request instanceof ServletWebRequest servletWebRequest) {
+            ShallowEtagHeaderFilter.disableContentCaching(servletWebRequest.getRequest());
+        }
+
+        final Path photoPath = fileStorageLocation.resolve(fileName).normalize();
+        final BasicFileAttributes attributes;
         try {
-            image = Files.readAllBytes(photoPath);
-        } catch(IOException e) {
-            return null;
+            attributes = Files.readAttributes(photoPath, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return ResponseEntity.notFound().build();
         }
 
-        return image;
+        if (matchesETag(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        // no Content-Length here: it would be the whole file's, even on a 206 with only part of it
+        return ResponseEntity.ok()
+                .contentType(MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .eTag(eTag)
+                .lastModified(attributes.lastModifiedTime().toInstant())
+                .cacheControl(cacheControl)
+                .body(new FileSystemResource(photoPath));
+    }
+
+    private static boolean matchesETag(final String ifNoneMatch, final String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses the weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    //Returns the string of the fileName of the file (UUID.FILE_FORMAT) stored in the uploads folder | null for error or no photo
+    //Returns the string of the fileName of the file (UUID.FILE_FORMAT, or ab/cd/SHA256.FILE_FORMAT when content addressed) stored in the uploads folder | null for error or no photo
     public String getRequestPhoto(MultipartFile file) {
         UploadFileResponse up = null;
         if(file != null) {
@@ -148,10 +348,8 @@ public class FileStorageService {
                 //throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
             }
 
-            //String fileFormat = validImageFormats[formatIndex].split("/")[1];
-            String originalFileName = file.getOriginalFilename();
-            String fileFormat = originalFileName.substring(originalFileName.lastIndexOf('.')+1);
-            return photoUUID+"."+fileFormat;
+            photoVariantService.generateVariants(up.getFileName());
+            return up.getFileName();
         }
 
         return null;
@@ -0,0 +1,109 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import java.util.*;
+
+/**
+ * Immutable Aho–Corasick automaton over the forbidden names.
+ * <p>
+ * {@link #matches(String)} tells whether any word of a text contains a forbidden name in a single pass over the
+ * text, whatever the number of forbidden names. Matching is case-sensitive and does not span whitespace, like
+ * checking each whitespace-separated word on its own.
+ */
+public final class ForbiddenNameMatcher {
+    private static final int ROOT = 0;
+
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final int[] failure;
+    private final boolean[] accepting;
+    private final int patternCount;
+
+    public ForbiddenNameMatcher(Collection<String> forbiddenNames) {
+        final List<Boolean> terminal = new ArrayList<>();
+        transitions.add(new HashMap<>());
+        terminal.add(false);
+
+        int count = 0;
+        for (String name : forbiddenNames) {
+            // an empty name would forbid every name
+            if (name == null || name.isBlank()) {
+                continue;
+            }
+            count++;
+            int state = ROOT;
+            for (int i = 0; i < name.length(); i++) {
+                final Integer next = transitions.get(state).get(name.charAt(i));
+                if (next != null) {
+                    state = next;
+                } else {
+                    transitions.add(new HashMap<>());
+                    terminal.add(false);
+                    transitions.get(state).put(name.charAt(i), transitions.size() - 1);
+                    state = transitions.size() - 1;
+                }
+            }
+            terminal.set(state, true);
+        }
+        this.patternCount = count;
+
+        failure = new int[transitions.size()];
+        accepting = new boolean[transitions.size()];
+        for (int i = 0; i < accepting.length; i++) {
+            accepting[i] = terminal.get(i);
+        }
+
+        // breadth-first, so the failure state of a node is always resolved before its children's
+        final Deque<Integer> queue = new ArrayDeque<>(transitions.get(ROOT).values());
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            for (Map.Entry<Character, Integer> transition : transitions.get(state).entrySet()) {
+                final int child = transition.getValue();
+                if (state != ROOT) {
+                    failure[child] = next(failure[state], transition.getKey());
+                }
+                // a node also accepts if any of its suffixes is a forbidden name
+                accepting[child] |= accepting[failure[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    public static ForbiddenNameMatcher empty() {
+        return new ForbiddenNameMatcher(List.of());
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    /**
+     * Whether some whitespace-separated word of the text contains a forbidden name.
+     */
+    public boolean matches(String text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                state = ROOT;
+                continue;
+            }
+            state = next(state, c);
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            final Integer next = transitions.get(state).get(c);
+            if (next != null) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failure[state];
+        }
+    }
+}
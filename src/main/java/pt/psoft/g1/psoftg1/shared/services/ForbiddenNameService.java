@@ -2,4 +2,13 @@ package pt.psoft.g1.psoftg1.shared.services;
 
 public interface ForbiddenNameService {
     void loadDataFromFile(String filePath);
+
+    void addForbiddenName(String forbiddenName);
+
+    void deleteForbiddenName(String forbiddenName);
+
+    /**
+     * Whether some word of the name contains a forbidden name.
+     */
+    boolean containsForbiddenName(String name);
 }
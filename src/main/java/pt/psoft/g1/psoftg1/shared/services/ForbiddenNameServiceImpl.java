@@ -1,20 +1,33 @@
 package pt.psoft.g1.psoftg1.shared.services;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import pt.psoft.g1.psoftg1.shared.model.ForbiddenName;
 import pt.psoft.g1.psoftg1.shared.repositories.ForbiddenNameRepository;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Keeps the forbidden names in the database and, compiled into a {@link ForbiddenNameMatcher}, in memory.
+ * <p>
+ * The matcher is rebuilt from the database once names added or deleted are committed, so that it sees them, and swapped
+ * in at once, so names are checked without any database round trip and never against a half-built matcher.
+ */
 @Service
 @RequiredArgsConstructor
 public class ForbiddenNameServiceImpl implements ForbiddenNameService {
     private final ForbiddenNameRepository repo;
 
+    private volatile ForbiddenNameMatcher matcher = ForbiddenNameMatcher.empty();
+
     public void loadDataFromFile(String fileName) {
         try {
             ClassPathResource resource = new ClassPathResource(fileName);
@@ -31,5 +44,39 @@ public class ForbiddenNameServiceImpl implements ForbiddenNameService {
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        rebuild();
+    }
+
+    @Override
+    @Transactional
+    public void addForbiddenName(String forbiddenName) {
+        if (forbiddenName == null || forbiddenName.isBlank())
+            throw new IllegalArgumentException("Forbidden name cannot be blank");
+
+        if (repo.findByForbiddenName(forbiddenName).isEmpty()) {
+            repo.save(new ForbiddenName(forbiddenName));
+        }
+        AfterCommit.run(this::rebuild);
+    }
+
+    @Override
+    @Transactional
+    public void deleteForbiddenName(String forbiddenName) {
+        repo.deleteForbiddenName(forbiddenName);
+        AfterCommit.run(this::rebuild);
+    }
+
+    @Override
+    public boolean containsForbiddenName(String name) {
+        return matcher.matches(name);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        final List<String> forbiddenNames = new ArrayList<>();
+        for (ForbiddenName forbiddenName : repo.findAll()) {
+            forbiddenNames.add(forbiddenName.getForbiddenName());
+        }
+        matcher = new ForbiddenNameMatcher(forbiddenNames);
     }
 }
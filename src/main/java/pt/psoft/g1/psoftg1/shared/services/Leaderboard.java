@@ -0,0 +1,197 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Ranks keys by how many times they were counted.
+ * <p>
+ * Counts are kept in daily buckets, so any date range can be ranked. Two rankings are maintained incrementally as
+ * counts change: one over all time and one over a sliding window of the last {@code windowDays} days (today included).
+ * The most common queries are therefore answered by reading the head of a sorted set; other ranges are summed from
+ * the buckets and their top entries selected with a bounded heap.
+ *
+ * @param <K> the type of the ranked keys; ties are broken by their natural order
+ */
+public class Leaderboard<K extends Comparable<K>> {
+    private final int windowDays;
+    private final Clock clock;
+
+    private final NavigableMap<Long, Map<K, Long>> buckets = new TreeMap<>();
+    private final Map<K, Long> allTimeCounts = new HashMap<>();
+    private final NavigableSet<Score<K>> allTimeRanking = new TreeSet<>();
+    private final Map<K, Long> windowCounts = new HashMap<>();
+    private final NavigableSet<Score<K>> windowRanking = new TreeSet<>();
+
+    /**
+     * First day of the sliding window.
+     */
+    private long windowStart;
+
+    public Leaderboard(int windowDays, Clock clock) {
+        if (windowDays < 1)
+            throw new IllegalArgumentException("Window must span at least one day");
+        this.windowDays = windowDays;
+        this.clock = clock;
+        this.windowStart = firstDayOfWindow();
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    /**
+     * Adds {@code delta} (which may be negative) to the count of {@code key} on the given day.
+     */
+    public synchronized void add(K key, LocalDate day, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        advance();
+
+        final long epochDay = day.toEpochDay();
+        final Map<K, Long> bucket = buckets.computeIfAbsent(epochDay, d -> new HashMap<>());
+        if (bucket.merge(key, delta, Long::sum) == 0) {
+            bucket.remove(key);
+            if (bucket.isEmpty()) {
+                buckets.remove(epochDay);
+            }
+        }
+
+        update(allTimeCounts, allTimeRanking, key, delta);
+        if (epochDay >= windowStart) {
+            update(windowCounts, windowRanking, key, delta);
+        }
+    }
+
+    public synchronized void clear() {
+        buckets.clear();
+        allTimeCounts.clear();
+        allTimeRanking.clear();
+        windowCounts.clear();
+        windowRanking.clear();
+        windowStart = firstDayOfWindow();
+    }
+
+    /**
+     * The {@code limit} keys with the highest counts of all time.
+     */
+    public synchronized List<Score<K>> top(int limit) {
+        checkLimit(limit);
+        return head(allTimeRanking, limit);
+    }
+
+    /**
+     * The {@code limit} keys with the highest counts in the last {@code days} days, today included.
+     */
+    public synchronized List<Score<K>> topInLastDays(int limit, int days) {
+        if (days < 1)
+            throw new IllegalArgumentException("Number of days must be greater than 0");
+        final LocalDate today = LocalDate.now(clock);
+        return top(limit, today.minusDays(days - 1L), today);
+    }
+
+    /**
+     * The {@code limit} keys with the highest counts between the given days (inclusive).
+     */
+    public synchronized List<Score<K>> top(int limit, LocalDate from, LocalDate to) {
+        checkLimit(limit);
+        if (from.isAfter(to))
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        advance();
+
+        if (from.toEpochDay() == windowStart && to.equals(LocalDate.now(clock))
+                && buckets.tailMap(to.toEpochDay(), false).isEmpty()) {
+            return head(windowRanking, limit);
+        }
+
+        final Map<K, Long> counts = new HashMap<>();
+        for (Map<K, Long> bucket : buckets.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+            bucket.forEach((key, count) -> counts.merge(key, count, Long::sum));
+        }
+
+        // min-heap of the best scores seen so far: its head is the first one to give up its place
+        final PriorityQueue<Score<K>> best = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        counts.forEach((key, count) -> {
+            if (count > 0) {
+                best.add(new Score<>(key, count));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        });
+
+        final List<Score<K>> result = new ArrayList<>(best);
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Slides the window up to today, discounting the days that fell out of it.
+     */
+    private void advance() {
+        final long newStart = firstDayOfWindow();
+        if (newStart <= windowStart) {
+            return;
+        }
+        for (Map<K, Long> bucket : buckets.subMap(windowStart, true, newStart, false).values()) {
+            bucket.forEach((key, count) -> update(windowCounts, windowRanking, key, -count));
+        }
+        windowStart = newStart;
+    }
+
+    private long firstDayOfWindow() {
+        return LocalDate.now(clock).toEpochDay() - windowDays + 1;
+    }
+
+    private static <K extends Comparable<K>> void update(Map<K, Long> counts, NavigableSet<Score<K>> ranking,
+                                                         K key, long delta) {
+        final Long previous = counts.remove(key);
+        if (previous != null) {
+            ranking.remove(new Score<>(key, previous));
+        }
+        final long count = (previous == null ? 0 : previous) + delta;
+        if (count > 0) {
+            counts.put(key, count);
+            ranking.add(new Score<>(key, count));
+        }
+    }
+
+    private static <K extends Comparable<K>> List<Score<K>> head(NavigableSet<Score<K>> ranking, int limit) {
+        final List<Score<K>> result = new ArrayList<>(Math.min(limit, ranking.size()));
+        for (Score<K> score : ranking) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(score);
+        }
+        return result;
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("Limit must be greater than 0");
+    }
+
+    /**
+     * A key and its count. Scores are ordered from the highest count to the lowest.
+     */
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class Score<K extends Comparable<K>> implements Comparable<Score<K>> {
+        private final K key;
+        private final long count;
+
+        @Override
+        public int compareTo(Score<K> other) {
+            final int byCount = Long.compare(other.count, count);
+            return byCount != 0 ? byCount : key.compareTo(other.key);
+        }
+    }
+}
@@ -2,14 +2,12 @@ package pt.psoft.g1.psoftg1.shared.services;
 
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 
 /**
  * Based on <a href="https://github.com/Yoh0xFF/java-spring-security-example">https://github.com/Yoh0xFF/java-spring-security-example</a>
  *
  */
-@AllArgsConstructor
 @Data
 public class Page {
     @Min(value = 1, message = "Paging must start with page 1")
@@ -19,7 +17,22 @@ public class Page {
     @Max(value = 100, message = "You can request maximum 100 records")
     int limit;
 
+    /**
+     * The {@code next} cursor of the previous page of results, to continue right after it; the page number is then
+     * ignored. Only supported by the searches that return a cursor.
+     */
+    String cursor;
+
+    public Page(int number, int limit) {
+        this.number = number;
+        this.limit = limit;
+    }
+
     public Page() {
         this(1, 10);
     }
+
+    public boolean hasCursor() {
+        return cursor != null && !cursor.isEmpty();
+    }
 }
@@ -0,0 +1,139 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import pt.psoft.g1.psoftg1.exceptions.ServiceUnavailableException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed set of single-threaded partitions, each with its own bounded queue.
+ * <p>
+ * Tasks with the same key always run on the same partition, one after the other and in the order they were
+ * submitted, so they never race with each other; tasks with keys on different partitions run in parallel. The caller
+ * waits for the result of its task, which runs with the caller's security context. When the queue of a partition is
+ * full the task is refused with {@link ServiceUnavailableException}.
+ */
+public class PartitionedExecutor {
+    private final List<Partition> partitions = new ArrayList<>();
+
+    public PartitionedExecutor(String name, int partitionCount, int queueCapacity) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("There must be at least one partition");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new Partition(name + "-" + i, queueCapacity));
+        }
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    public int partitionOf(String key) {
+        return Math.floorMod(key.hashCode(), partitions.size());
+    }
+
+    /**
+     * Runs the task on the partition of the key and waits for its result.
+     * <p>
+     * A task that submits another task for a key on its own partition runs it straight away, instead of waiting for
+     * itself.
+     */
+    public <T> T execute(String key, Callable<T> task) {
+        final Partition partition = partitions.get(partitionOf(key));
+        if (Thread.currentThread() == partition.thread) {
+            return call(task);
+        }
+
+        final Future<T> result;
+        try {
+            result = partition.executor.submit(new DelegatingSecurityContextCallable<>(task));
+        } catch (RejectedExecutionException e) {
+            partition.rejected.incrementAndGet();
+            throw new ServiceUnavailableException("Too many requests in progress for the same readers, please try again", e);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            // the task may already be running; it is left to finish so the partition stays consistent
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the request to be processed", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Tasks waiting on the partition, not counting the one running.
+     */
+    public int getQueueDepth(int partition) {
+        return partitions.get(partition).executor.getQueue().size();
+    }
+
+    public boolean isBusy(int partition) {
+        return partitions.get(partition).executor.getActiveCount() > 0;
+    }
+
+    /**
+     * Tasks run on the partition. A task is counted shortly after its caller got the result, so the count may lag
+     * behind by the tasks that just finished.
+     */
+    public long getCompletedCount(int partition) {
+        return partitions.get(partition).executor.getCompletedTaskCount();
+    }
+
+    /**
+     * Tasks refused because the queue of the partition was full.
+     */
+    public long getRejectedCount(int partition) {
+        return partitions.get(partition).rejected.get();
+    }
+
+    public void shutdown() {
+        partitions.forEach(partition -> partition.executor.shutdown());
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Partition {
+        private final ThreadPoolExecutor executor;
+        private final AtomicLong rejected = new AtomicLong();
+        private volatile Thread thread;
+
+        Partition(String name, int queueCapacity) {
+            this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import java.util.Locale;
+
+/**
+ * Sizes a photo can be served in. Variants fit within a square of {@code maxDimension} pixels, keeping the aspect ratio
+ * of the original.
+ */
+public enum PhotoSize {
+    ORIGINAL(0), MEDIUM(600), THUMB(150);
+
+    private final int maxDimension;
+
+    PhotoSize(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public boolean isVariant() {
+        return this != ORIGINAL;
+    }
+
+    /**
+     * Parses the {@code size} request parameter, ignoring case.
+     */
+    public static PhotoSize fromParameter(String size) {
+        try {
+            return valueOf(size.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Photo size must be one of original, medium or thumb");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the smaller {@link PhotoSize variants} of uploaded photos in the background.
+ * <p>
+ * Variants are stored next to their original as {@code <name>.<size>.<ext>}. They are generated by a fixed number of
+ * worker threads from a bounded queue; when the queue is full the photo is simply left without variants, as photos are
+ * served in their original size until their variants exist.
+ */
+@Service
+public class PhotoVariantService {
+    private final Logger logger = LogManager.getLogger();
+
+    private final Path fileStorageLocation;
+    private final ThreadPoolExecutor executor;
+
+    public PhotoVariantService(final FileStorageProperties fileStorageProperties) {
+        this.fileStorageLocation = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+
+        final AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(fileStorageProperties.getVariantThreads(),
+                fileStorageProperties.getVariantThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fileStorageProperties.getVariantQueueCapacity()),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "photo-variants-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> logger.warn("Photo variant queue is full, photo will be served in its original size"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues the generation of every variant of a stored photo and returns immediately.
+     */
+    public void generateVariants(final String fileName) {
+        executor.execute(() -> createVariants(fileName));
+    }
+
+    /**
+     * The file to serve for the requested size: the variant if it was already generated, the original otherwise.
+     */
+    public String resolve(final String fileName, final PhotoSize size) {
+        if (!size.isVariant()) {
+            return fileName;
+        }
+        final String variant = variantFileName(fileName, size);
+        return Files.exists(fileStorageLocation.resolve(variant)) ? variant : fileName;
+    }
+
+    public void deleteVariants(final String fileName) throws IOException {
+        for (PhotoSize size : PhotoSize.values()) {
+            if (size.isVariant()) {
+                Files.deleteIfExists(fileStorageLocation.resolve(variantFileName(fileName, size)));
+            }
+        }
+    }
+
+    static String variantFileName(final String fileName, final PhotoSize size) {
+        final String suffix = "." + size.name().toLowerCase(Locale.ROOT);
+        final int extension = fileName.lastIndexOf('.');
+        if (extension <= fileName.lastIndexOf('/')) {
+            return fileName + suffix;
+        }
+        return fileName.substring(0, extension) + suffix + fileName.substring(extension);
+    }
+
+    void createVariants(final String fileName) {
+        final Optional<String> format = imageFormat(fileName);
+        if (format.isEmpty()) {
+            return;
+        }
+        try {
+            final BufferedImage original = ImageIO.read(fileStorageLocation.resolve(fileName).toFile());
+            if (original == null) {
+                return;
+            }
+            for (PhotoSize size : PhotoSize.values()) {
+                if (size.isVariant()) {
+                    createVariant(original, format.get(), fileStorageLocation.resolve(variantFileName(fileName, size)),
+                            size.getMaxDimension());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not generate the variants of photo {}", fileName, e);
+        }
+    }
+
+    private static void createVariant(final BufferedImage original, final String format, final Path target,
+                                      final int maxDimension) throws IOException {
+        final double scale = (double) maxDimension / Math.max(original.getWidth(), original.getHeight());
+        // never enlarge, the original is served instead
+        if (scale >= 1 || Files.exists(target)) {
+            return;
+        }
+        final int width = Math.max(1, (int) Math.round(original.getWidth() * scale));
+        final int height = Math.max(1, (int) Math.round(original.getHeight() * scale));
+
+        final BufferedImage resized = new BufferedImage(width, height,
+                format.equals("png") ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        // written aside and moved, so a half-written variant is never served
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                ImageIO.write(resized, format, out);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Optional<String> imageFormat(final String fileName) {
+        final String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".png")) {
+            return Optional.of("png");
+        }
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+            return Optional.of("jpeg");
+        }
+        return Optional.empty();
+    }
+}
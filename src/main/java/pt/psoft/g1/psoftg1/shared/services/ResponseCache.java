@@ -0,0 +1,228 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JSON responses of single resources, kept already serialized.
+ * <p>
+ * A response is kept for a resource, its id and version, and its representation: the base URI its links were built
+ * from and its media type. A request for a version already kept is answered with the stored bytes, without loading,
+ * mapping or serializing the resource. Responses of older versions are never served again; they are dropped when the
+ * resource is changed, or evicted like any other entry.
+ * <p>
+ * A response may also show other resources, such as the names of the authors of a book, which change without changing
+ * its version. Changing those drops the responses of every resource of the type, and a response built from data read
+ * before such a change is not kept: each type of resource has a generation, counted up as its responses are dropped,
+ * and a response is only kept if the generation is still the one read before loading the resource. Responses also
+ * expire after a while, as a bound on how long anything missed this way is served.
+ * <p>
+ * The cache is bounded by the total size of the responses, and may keep them in direct buffers, off the Java heap and
+ * counting towards {@code -XX:MaxDirectMemorySize} instead. The bound is then on the responses kept, not on the direct
+ * memory in use: the memory of an evicted buffer is only released once the buffer is garbage collected, which a heap
+ * with little garbage may not do for a long while. When direct memory runs short the JVM asks for a full collection
+ * with {@code System.gc()} before failing with an {@code OutOfMemoryError: Direct buffer memory}, so off-heap
+ * responses must not be combined with {@code -XX:+DisableExplicitGC}, and the limit should leave room for several
+ * times the size of the cache. Only requests accepting {@code application/json} are served from the cache; any other
+ * is left to be answered as usual.
+ */
+@Component
+public class ResponseCache {
+    private final ObjectMapper objectMapper;
+    private final boolean offHeap;
+    private final Cache<Key, ByteBuffer> responses;
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResponseCache(final ObjectMapper objectMapper,
+                         @Value("${response-cache.maximum-size:16MB}") final DataSize maximumSize,
+                         @Value("${response-cache.expire-after-write:10m}") final Duration expireAfterWrite,
+                         @Value("${response-cache.off-heap:false}") final boolean offHeap) {
+        this.objectMapper = objectMapper;
+        this.offHeap = offHeap;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((Key key, ByteBuffer payload) -> payload.capacity())
+                .expireAfterWrite(expireAfterWrite)
+                // evicts as responses are added, so the responses kept never exceed the bound; evicted direct
+                // buffers still hold their memory until they are garbage collected
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    private record Key(Class<?> resource, String id, long version, String representation) {
+    }
+
+    /**
+     * Answers the request with the stored response for this version of the resource, if there is one.
+     *
+     * @param version current version of the resource, empty if there is no such resource
+     * @return whether the response was written, in which case there is nothing left to do
+     */
+    public boolean writeCached(final WebRequest request, final Class<?> resource, final Object id,
+                               final Optional<Long> version) {
+        final String representation = representationOf(request);
+        if (representation == null || version.isEmpty()) {
+            return false;
+        }
+        final ByteBuffer payload = responses.getIfPresent(new Key(resource, id.toString(), version.get(), representation));
+        if (payload == null) {
+            return false;
+        }
+        write(request, version.get(), payload);
+        return true;
+    }
+
+    /**
+     * Generation of the responses of the type of resource, to be read before loading a resource whose response is
+     * then {@link #write written}.
+     */
+    public long generation(final Class<?> resource) {
+        return generationOf(resource).get();
+    }
+
+    /**
+     * Serializes the view, keeps it for this version of the resource and answers the request with it.
+     * <p>
+     * The response is written but not kept if responses of the type were dropped since the given generation, as the
+     * view may show data they were dropped for.
+     *
+     * @param generation {@link #generation(Class) generation} read before loading the resource
+     * @return whether the response was written; if the request does not accept JSON nothing is kept nor written
+     */
+    public boolean write(final WebRequest request, final Class<?> resource, final Object id, final long version,
+                         final long generation, final Object view) {
+        final String representation = representationOf(request);
+        if (representation == null) {
+            return false;
+        }
+        final byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(view);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + resource.getSimpleName() + " " + id, e);
+        }
+        final ByteBuffer payload = offHeap
+                ? ByteBuffer.allocateDirect(json.length).put(json).flip()
+                : ByteBuffer.wrap(json);
+        final AtomicLong current = generationOf(resource);
+        synchronized (current) {
+            if (current.get() == generation) {
+                responses.put(new Key(resource, id.toString(), version, representation), payload);
+            }
+        }
+        write(request, version, payload);
+        return true;
+    }
+
+    /**
+     * Drops the responses kept for any version of the resource.
+     */
+    public void invalidate(final Class<?> resource, final Object id) {
+        final String key = id.toString();
+        final AtomicLong generation = generationOf(resource);
+        synchronized (generation) {
+            generation.incrementAndGet();
+            responses.asMap().keySet().removeIf(k -> k.resource() == resource && k.id().equals(key));
+        }
+    }
+
+    /**
+     * Drops the responses kept for every resource of the type, for changes showing in all of them.
+     */
+    public void invalidateAll(final Class<?> resource) {
+        final AtomicLong generation = generationOf(resource);
+        synchronized (generation) {
+            generation.incrementAndGet();
+            responses.asMap().keySet().removeIf(k -> k.resource() == resource);
+        }
+    }
+
+    public long getEstimatedSize() {
+        return responses.estimatedSize();
+    }
+
+    public CacheStats getStats() {
+        return responses.stats();
+    }
+
+    private AtomicLong generationOf(final Class<?> resource) {
+        return generations.computeIfAbsent(resource, r -> new AtomicLong());
+    }
+
+    /**
+     * Base URI and media type of the response to the request, or {@code null} if it cannot be answered from the cache.
+     */
+    private static String representationOf(final WebRequest request) {
+        if (!(request instanceof ServletWebRequest servletWebRequest) || servletWebRequest.getResponse() == null) {
+            return null;
+        }
+        final HttpServletRequest servletRequest = servletWebRequest.getRequest();
+        final String accept = servletRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null) {
+            try {
+                if (MediaType.parseMediaTypes(accept).stream().noneMatch(MediaType.APPLICATION_JSON::isCompatibleWith)) {
+                    return null;
+                }
+            } catch (InvalidMediaTypeException e) {
+                return null;
+            }
+        }
+        return ServletUriComponentsBuilder.fromContextPath(servletRequest).toUriString()
+                + " " + MediaType.APPLICATION_JSON_VALUE;
+    }
+
+    private static void write(final WebRequest request, final long version, final ByteBuffer payload) {
+        final HttpServletResponse response = Objects.requireNonNull(((ServletWebRequest) request).getResponse());
+        // shared by concurrent requests, so each one reads through a view of its own
+        final ByteBuffer body = payload.duplicate();
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.ETAG, "\"" + version + "\"");
+        response.setContentLength(body.remaining());
+        try {
+            final OutputStream out = response.getOutputStream();
+            if (body.hasArray()) {
+                out.write(body.array(), body.arrayOffset() + body.position(), body.remaining());
+            } else {
+                final WritableByteChannel channel = Channels.newChannel(out);
+                while (body.hasRemaining()) {
+                    channel.write(body);
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
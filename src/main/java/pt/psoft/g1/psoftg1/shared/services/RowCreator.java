@@ -0,0 +1,37 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates the rows that running totals are added to, the first time one is needed.
+ * <p>
+ * Each row is created in a transaction of its own, committed before the caller's, so that the caller can then update
+ * it and two transactions creating the same row at once do not fail one another.
+ */
+@Component
+public class RowCreator {
+    private final TransactionTemplate creationTemplate;
+
+    @Autowired
+    public RowCreator(PlatformTransactionManager transactionManager) {
+        this.creationTemplate = new TransactionTemplate(transactionManager);
+        this.creationTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Runs the insert of a row, unless a concurrent transaction already inserted it: either way the row exists once
+     * this returns.
+     */
+    public void createIfAbsent(Runnable insert) {
+        try {
+            creationTemplate.executeWithoutResult(status -> insert.run());
+        } catch (DataIntegrityViolationException e) {
+            // created by another transaction in the meantime
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Hands out yearly sequence numbers (hi/lo style).
+ * <p>
+ * Numbers are unique across application instances and increase within an instance, but are not guaranteed to be
+ * gapless: values of a reserved block that are not used before a restart are simply skipped.
+ */
+public interface SequenceService {
+    String LENDING_SEQUENCE = "LENDING";
+    String READER_SEQUENCE = "READER";
+
+    /**
+     * Returns the next value of the given sequence for the given year.
+     *
+     * @param sequenceName name of the sequence
+     * @param year         year the sequence belongs to
+     * @param initialCount number of values already in use, only called the first time the sequence is needed for
+     *                     that year (e.g., the number of records created before the sequence existed)
+     */
+    int nextValue(String sequenceName, int year, IntSupplier initialCount);
+}
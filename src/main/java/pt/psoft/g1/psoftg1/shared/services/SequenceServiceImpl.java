@@ -0,0 +1,78 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.shared.model.SequenceBlock;
+import pt.psoft.g1.psoftg1.shared.repositories.SequenceBlockRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+@Service
+public class SequenceServiceImpl implements SequenceService {
+    private final SequenceBlockRepository sequenceBlockRepository;
+    private final TransactionTemplate reservationTemplate;
+    private final int blockSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SequenceServiceImpl(SequenceBlockRepository sequenceBlockRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${sequence.block-size:20}") int blockSize) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Sequence block size must be positive");
+        this.sequenceBlockRepository = sequenceBlockRepository;
+        this.blockSize = blockSize;
+
+        // reservations commit on their own so that a rolled back caller never hands the same block out twice
+        this.reservationTemplate = new TransactionTemplate(transactionManager);
+        this.reservationTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public int nextValue(String sequenceName, int year, IntSupplier initialCount) {
+        final Block block = blocks.computeIfAbsent(sequenceName + "/" + year, k -> new Block());
+        synchronized (block) {
+            if (block.next >= block.limit) {
+                final int first = reserveBlock(sequenceName, year, initialCount);
+                block.next = first;
+                block.limit = first + blockSize;
+            }
+            return block.next++;
+        }
+    }
+
+    private int reserveBlock(String sequenceName, int year, IntSupplier initialCount) {
+        try {
+            return reserveBlockInNewTransaction(sequenceName, year, initialCount);
+        } catch (DataIntegrityViolationException e) {
+            // another instance created the sequence row concurrently; it exists now, so lock it and retry
+            return reserveBlockInNewTransaction(sequenceName, year, initialCount);
+        }
+    }
+
+    private int reserveBlockInNewTransaction(String sequenceName, int year, IntSupplier initialCount) {
+        final Integer first = reservationTemplate.execute(status -> {
+            final SequenceBlock sequenceBlock = sequenceBlockRepository.findForUpdate(sequenceName, year)
+                    .orElseGet(() -> new SequenceBlock(sequenceName, year, initialCount.getAsInt() + 1));
+            final int value = sequenceBlock.reserve(blockSize);
+            sequenceBlockRepository.saveAndFlush(sequenceBlock);
+            return value;
+        });
+        if (first == null)
+            throw new IllegalStateException("Unable to reserve a block for sequence " + sequenceName + "/" + year);
+        return first;
+    }
+
+    private static final class Block {
+        private int next;
+        private int limit;
+    }
+}
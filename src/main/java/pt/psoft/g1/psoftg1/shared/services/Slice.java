@@ -0,0 +1,35 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of results and the {@link Cursor} to the page after it.
+ */
+@Getter
+@AllArgsConstructor
+public class Slice<T> {
+    private final List<T> items;
+
+    /**
+     * Encoded cursor to the next page, or null if this is the last one.
+     */
+    private final String next;
+
+    /**
+     * Makes a slice from the results of a query for one more row than the page limit: that extra row, if any, only
+     * tells that there is a next page.
+     *
+     * @param cursorOf position of a result in the order of the query
+     */
+    public static <T> Slice<T> of(final List<T> results, final Page page, final Function<T, Cursor> cursorOf) {
+        if (results.size() <= page.getLimit()) {
+            return new Slice<>(results, null);
+        }
+        final List<T> items = results.subList(0, page.getLimit());
+        return new Slice<>(items, cursorOf.apply(items.get(items.size() - 1)).encode());
+    }
+}
@@ -27,6 +27,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import pt.psoft.g1.psoftg1.shared.api.ListResponse;
 import pt.psoft.g1.psoftg1.shared.services.SearchRequest;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 import pt.psoft.g1.psoftg1.usermanagement.model.Role;
 import pt.psoft.g1.psoftg1.usermanagement.model.User;
 import pt.psoft.g1.psoftg1.usermanagement.services.CreateUserRequest;
@@ -76,7 +77,7 @@ public class UserAdminApi {
 
 	@PostMapping("search")
 	public ListResponse<UserView> search(@RequestBody final SearchRequest<SearchUsersQuery> request) {
-		final List<User> searchUsers = userService.searchUsers(request.getPage(), request.getQuery());
-		return new ListResponse<>(userViewMapper.toUserView(searchUsers));
+		final Slice<User> searchUsers = userService.searchUsers(request.getPage(), request.getQuery());
+		return new ListResponse<>(userViewMapper.toUserView(searchUsers.getItems()), searchUsers.getNext());
 	}
 }
@@ -20,6 +20,8 @@
  */
 package pt.psoft.g1.psoftg1.usermanagement.infrastructure.repositories.impl;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -39,7 +41,9 @@ import org.springframework.util.StringUtils;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.usermanagement.model.User;
 import pt.psoft.g1.psoftg1.usermanagement.repositories.UserRepository;
+import pt.psoft.g1.psoftg1.shared.services.Cursor;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 import pt.psoft.g1.psoftg1.usermanagement.services.SearchUsersQuery;
 
 import lombok.RequiredArgsConstructor;
@@ -56,11 +60,27 @@ public interface SpringDataUserRepository extends UserRepository, UserRepoCustom
 	@CacheEvict(allEntries = true)
 	<S extends User> List<S> saveAll(Iterable<S> entities);
 
+	/**
+	 * evicts the user before saving, straight from the underlying cache so that it
+	 * happens right away rather than when the transaction commits, and again once
+	 * the transaction commits, in case a concurrent request cached the previous
+	 * state in between
+	 */
 	@Override
-	@Caching(evict = { @CacheEvict(key = "#p0.id", condition = "#p0.id != null"),
+	@Caching(evict = {
+			@CacheEvict(key = "#p0.id", condition = "#p0.id != null", beforeInvocation = true,
+					cacheManager = "caffeineCacheManager"),
+			@CacheEvict(key = "#p0.username", condition = "#p0.username != null", beforeInvocation = true,
+					cacheManager = "caffeineCacheManager"),
+			@CacheEvict(key = "#p0.id", condition = "#p0.id != null"),
 			@CacheEvict(key = "#p0.username", condition = "#p0.username != null") })
 	<S extends User> S save(S entity);
 
+	@Override
+	@Caching(evict = { @CacheEvict(key = "#p0.id", condition = "#p0.id != null"),
+			@CacheEvict(key = "#p0.username", condition = "#p0.username != null") })
+	void delete(User user);
+
 	/**
 	 * findById searches a specific user and returns an optional
 	 */
@@ -75,7 +95,6 @@ public interface SpringDataUserRepository extends UserRepository, UserRepoCustom
 	 * @param id
 	 * @return
 	 */
-	@Cacheable
 	default User getById(final Long id) {
 		final Optional<User> maybeUser = findById(id);
 		// throws 404 Not Found if the user does not exist or is not enabled
@@ -85,7 +104,6 @@ public interface SpringDataUserRepository extends UserRepository, UserRepoCustom
 	@Cacheable
 	Optional<User> findByUsername(String username);
 
-	@Cacheable
 	List<User> findByNameName(String name);
 }
 
@@ -98,7 +116,9 @@ public interface SpringDataUserRepository extends UserRepository, UserRepoCustom
  */
 interface UserRepoCustom {
 
-	List<User> searchUsers(Page page, SearchUsersQuery query);
+	Slice<User> searchUsers(Page page, SearchUsersQuery query);
+
+	Optional<User> findUncachedById(Long id);
 }
 
 /**
@@ -115,7 +135,12 @@ class UserRepoCustomImpl implements UserRepoCustom {
 	private final EntityManager em;
 
 	@Override
-	public List<User> searchUsers(final Page page, final SearchUsersQuery query) {
+	public Optional<User> findUncachedById(final Long id) {
+		return Optional.ofNullable(em.find(User.class, id));
+	}
+
+	@Override
+	public Slice<User> searchUsers(final Page page, final SearchUsersQuery query) {
 
 		final CriteriaBuilder cb = em.getCriteriaBuilder();
 		final CriteriaQuery<User> cq = cb.createQuery(User.class);
@@ -127,20 +152,32 @@ class UserRepoCustomImpl implements UserRepoCustom {
 			where.add(cb.equal(root.get("username"), query.getUsername()));
 		}
 		if (StringUtils.hasText(query.getFullName())) {
-			where.add(cb.like(root.get("fullName"), "%" + query.getFullName() + "%"));
+			where.add(cb.like(root.get("name").get("name"), "%" + query.getFullName() + "%"));
 		}
 
 		// search using OR
-		if (!where.isEmpty()) {
-			cq.where(cb.or(where.toArray(new Predicate[0])));
+		Predicate filter = where.isEmpty() ? cb.conjunction() : cb.or(where.toArray(new Predicate[0]));
+
+		// newest first; the id breaks ties between users created at the same instant
+		final Path<LocalDateTime> createdAt = root.get("createdAt");
+		final Path<Long> id = root.get("id");
+		if (page.hasCursor()) {
+			final Cursor cursor = Cursor.decode(page.getCursor(), 2);
+			final LocalDateTime lastCreatedAt = cursor.getLocalDateTime(0);
+			filter = cb.and(filter, cb.or(cb.lessThan(createdAt, lastCreatedAt),
+					cb.and(cb.equal(createdAt, lastCreatedAt), cb.lessThan(id, cursor.getLong(1)))));
 		}
-
-		cq.orderBy(cb.desc(root.get("createdAt")));
+		cq.where(filter);
+		cq.orderBy(cb.desc(createdAt), cb.desc(id));
 
 		final TypedQuery<User> q = em.createQuery(cq);
-		q.setFirstResult((page.getNumber() - 1) * page.getLimit());
-		q.setMaxResults(page.getLimit());
+		if (!page.hasCursor()) {
+			q.setFirstResult((page.getNumber() - 1) * page.getLimit());
+		}
+		q.setMaxResults(page.getLimit() + 1);
 
-		return q.getResultList();
+		// the column keeps microseconds, while a user saved in this session may still hold nanoseconds
+		return Slice.of(q.getResultList(), page,
+				user -> Cursor.of(user.getCreatedAt().truncatedTo(ChronoUnit.MICROS), user.getId()));
 	}
 }
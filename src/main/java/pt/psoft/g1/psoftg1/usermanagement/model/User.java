@@ -35,8 +35,6 @@ import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import pt.psoft.g1.psoftg1.shared.model.Name;
 
 import lombok.Getter;
@@ -110,7 +108,8 @@ public class User implements UserDetails {
 	@Embedded
 	private Name name;
 
-	@ElementCollection
+	// loaded with the user, as users are cached and used outside of the session that loaded them
+	@ElementCollection(fetch = FetchType.EAGER)
 	@Getter
 	private final Set<Role> authorities = new HashSet<>();
 
@@ -121,7 +120,7 @@ public class User implements UserDetails {
 	/**
 	 *
 	 * @param username
-	 * @param password
+	 * @param password already hashed, see {@link pt.psoft.g1.psoftg1.usermanagement.services.PasswordHashingService}
 	 */
 	public User(final String username, final String password) {
 		this.username = username;
@@ -162,10 +161,11 @@ public class User implements UserDetails {
 		return u;
 	}
 
+	/**
+	 * @param password already hashed, see {@link pt.psoft.g1.psoftg1.usermanagement.services.PasswordHashingService}
+	 */
 	public void setPassword(final String password) {
-		Password passwordCheck = new Password(password);
-		final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-		this.password = passwordEncoder.encode(password);
+		this.password = password;
 	}
 
     public void addAuthority(final Role r) {
@@ -26,6 +26,7 @@ import java.util.Optional;
 import pt.psoft.g1.psoftg1.exceptions.NotFoundException;
 import pt.psoft.g1.psoftg1.usermanagement.model.User;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 import pt.psoft.g1.psoftg1.usermanagement.services.SearchUsersQuery;
 
 /**
@@ -47,7 +48,18 @@ public interface UserRepository {
 
 	Optional<User> findByUsername(String username);
 
-	List<User> searchUsers(Page page, SearchUsersQuery query);
+	/**
+	 * Loads an enabled user from the database rather than the cache, to be changed and saved: the cached copy is shared
+	 * by concurrent requests and must not show a change that is never saved.
+	 */
+	default User getForEdit(final Long id) {
+		// throws 404 Not Found if the user does not exist or is not enabled
+		return findUncachedById(id).filter(User::isEnabled).orElseThrow(() -> new NotFoundException(User.class, id));
+	}
+
+	Optional<User> findUncachedById(Long id);
+
+	Slice<User> searchUsers(Page page, SearchUsersQuery query);
 
 	List<User> findByNameName(String name);
 	List<User> findByNameNameContains(String name);
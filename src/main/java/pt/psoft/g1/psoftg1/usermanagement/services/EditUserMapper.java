@@ -44,12 +44,11 @@ import pt.psoft.g1.psoftg1.usermanagement.model.User;
 @Mapper(componentModel = "spring")
 public abstract class EditUserMapper extends MapperInterface {
 
-	@Mapping(source = "authorities", target = "authorities", qualifiedByName = "stringToRole")
-	public abstract User create(CreateUserRequest request);
-
 	@BeanMapping(nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS,
 			nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
 	@Mapping(source = "authorities", target = "authorities", qualifiedByName = "stringToRole")
+	// hashed by the user service
+	@Mapping(target = "password", ignore = true)
 	public abstract void update(EditUserRequest request, @MappingTarget User user);
 
 	@Named("stringToRole")
@@ -0,0 +1,102 @@
+package pt.psoft.g1.psoftg1.usermanagement.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import pt.psoft.g1.psoftg1.exceptions.ServiceUnavailableException;
+import pt.psoft.g1.psoftg1.usermanagement.model.Password;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The only place where passwords are hashed and checked, with BCrypt at the configured strength.
+ * <p>
+ * Hashing is deliberately slow, so it runs on a fixed number of worker threads from a bounded queue instead of on the
+ * request threads: a burst of logins and registrations waits for a worker, or is turned away with
+ * {@link ServiceUnavailableException} when the queue is full, while the other endpoints keep their threads.
+ * <p>
+ * Hashes made with a lower strength than the configured one are reported by {@link #upgradeEncoding(String)}, so
+ * they are replaced the next time their user logs in.
+ */
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public PasswordHashingService(@Value("${password.bcrypt-strength:10}") final int strength,
+                                  @Value("${password.hashing-threads:4}") final int threads,
+                                  @Value("${password.hashing-queue-capacity:64}") final int queueCapacity) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks the password against the password policy and hashes it.
+     *
+     * @throws IllegalArgumentException if the password is too weak
+     */
+    public String hash(final String rawPassword) {
+        new Password(rawPassword);
+        return encode(rawPassword);
+    }
+
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        return run(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(final String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(final Callable<T> task) {
+        final Future<T> result;
+        try {
+            result = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many logins and registrations in progress, please try again", e);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the password to be hashed", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
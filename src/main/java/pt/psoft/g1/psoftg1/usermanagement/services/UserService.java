@@ -21,18 +21,16 @@
 package pt.psoft.g1.psoftg1.usermanagement.services;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pt.psoft.g1.psoftg1.exceptions.ConflictException;
-import pt.psoft.g1.psoftg1.shared.repositories.ForbiddenNameRepository;
+import pt.psoft.g1.psoftg1.shared.services.ForbiddenNameService;
 import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
 import pt.psoft.g1.psoftg1.usermanagement.model.Librarian;
 import pt.psoft.g1.psoftg1.usermanagement.model.Reader;
 import pt.psoft.g1.psoftg1.usermanagement.model.Role;
@@ -48,14 +46,14 @@ import java.util.Optional;
  */
 @Service
 @RequiredArgsConstructor
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
 	private final UserRepository userRepo;
 	private final EditUserMapper userEditMapper;
 
-	private final ForbiddenNameRepository forbiddenNameRepository;
+	private final ForbiddenNameService forbiddenNameService;
 
-	private final PasswordEncoder passwordEncoder;
+	private final PasswordHashingService passwordHashingService;
 
 	public List<User> findByName(String name){
 		return this.userRepo.findByNameName(name);
@@ -68,21 +66,18 @@ public class UserService implements UserDetailsService {
 			throw new ConflictException("Username already exists!");
 		}
 
-		Iterable<String> words = List.of(request.getName().split("\\s+"));
-		for (String word : words){
-			if(!forbiddenNameRepository.findByForbiddenNameIsContained(word).isEmpty()) {
-				throw new IllegalArgumentException("Name contains a forbidden word");
-			}
+		if (forbiddenNameService.containsForbiddenName(request.getName())) {
+			throw new IllegalArgumentException("Name contains a forbidden word");
 		}
 
 		User user;
 		switch(request.getRole()) {
 			case Role.READER: {
-				user = Reader.newReader(request.getUsername(), request.getPassword(), request.getName());
+				user = Reader.newReader(request.getUsername(), passwordHashingService.hash(request.getPassword()), request.getName());
 				break;
 			}
 			case Role.LIBRARIAN: {
-				user = Librarian.newLibrarian(request.getUsername(), request.getPassword(), request.getName());
+				user = Librarian.newLibrarian(request.getUsername(), passwordHashingService.hash(request.getPassword()), request.getName());
 				break;
 			}
 			default: {
@@ -90,8 +85,6 @@ public class UserService implements UserDetailsService {
 			}
 		}
 
-		//final User user = userEditMapper.create(request);
-		user.setPassword(passwordEncoder.encode(request.getPassword()));
 		//user.addAuthority(new Role(request.getRole()));
 
 		return userRepo.save(user);
@@ -99,15 +92,32 @@ public class UserService implements UserDetailsService {
 
 	@Transactional
 	public User update(final Long id, final EditUserRequest request) {
-		final User user = userRepo.getById(id);
+		final User user = userRepo.getForEdit(id);
 		userEditMapper.update(request, user);
+		if (request.getPassword() != null) {
+			user.setPassword(passwordHashingService.hash(request.getPassword()));
+		}
 
 		return userRepo.save(user);
 	}
 
+	/**
+	 * Replaces the hash of a user who just logged in when it was made with a lower strength than the current one.
+	 */
+	@Override
+	@Transactional
+	public UserDetails updatePassword(final UserDetails userDetails, final String newPassword) {
+		final User cached = userRepo.findByUsername(userDetails.getUsername()).orElseThrow(
+				() -> new UsernameNotFoundException(String.format("User with username - %s, not found", userDetails.getUsername())));
+		// the cached user is shared with concurrent requests, so the change is made on a copy of its own
+		final User user = userRepo.getForEdit(cached.getId());
+		user.setPassword(newPassword);
+		return userRepo.save(user);
+	}
+
 	@Transactional
 	public User delete(final Long id) {
-		final User user = userRepo.getById(id);
+		final User user = userRepo.getForEdit(id);
 
 		// user.setUsername(user.getUsername().replace("@", String.format("_%s@",
 		// user.getId().toString())));
@@ -131,7 +141,7 @@ public class UserService implements UserDetailsService {
 
 	public Optional<User> findByUsername(final String username) { return userRepo.findByUsername(username); }
 
-	public List<User> searchUsers(Page page, SearchUsersQuery query) {
+	public Slice<User> searchUsers(Page page, SearchUsersQuery query) {
 		if (page == null) {
 			page = new Page(1, 10);
 		}
@@ -140,20 +150,4 @@ public class UserService implements UserDetailsService {
 		}
 		return userRepo.searchUsers(page, query);
 	}
-
-	public User getAuthenticatedUser(Authentication authentication) {
-		if (authentication == null || !(authentication.getPrincipal() instanceof Jwt jwt)) {
-			throw new AccessDeniedException("User is not logged in");
-		}
-
-		// split is present because jwt is storing the id before the username, separated by a comma
-        String loggedUsername = jwt.getClaimAsString("sub").split(",")[1];
-
-		Optional<User> loggedUser = findByUsername(loggedUsername);
-		if (loggedUser.isEmpty()) {
-			throw new AccessDeniedException("User is not logged in");
-		}
-
-		return loggedUser.get();
-	}
 }
@@ -0,0 +1,85 @@
+package pt.psoft.g1.psoftg1.auth.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import pt.psoft.g1.psoftg1.usermanagement.model.User;
+import pt.psoft.g1.psoftg1.usermanagement.repositories.UserRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+    private static final Instant NOW = Instant.parse("2024-03-01T10:00:00Z");
+
+    private JwtDecoder delegate;
+    private UserRepository userRepository;
+    private User user;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(JwtDecoder.class);
+        userRepository = mock(UserRepository.class);
+        user = mock(User.class);
+        when(user.isEnabled()).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        decoder = new CachingJwtDecoder(delegate, userRepository, 100, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        final Jwt.Builder jwt = Jwt.withTokenValue(token).header("alg", "RS256").subject("1,manuel@gmail.com")
+                .claim(CurrentPrincipal.USER_ID_CLAIM, 1L);
+        if (expiresAt != null) {
+            jwt.issuedAt(NOW.minusSeconds(60)).expiresAt(expiresAt);
+        }
+        return jwt.build();
+    }
+
+    @Test
+    void ensureRepeatedTokensAreVerifiedOnce() {
+        when(delegate.decode("token")).thenReturn(jwt("token", NOW.plusSeconds(3600)));
+
+        final Jwt first = decoder.decode("token");
+        final Jwt second = decoder.decode("token");
+
+        assertSame(first, second);
+        verify(delegate, times(1)).decode("token");
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void ensureTokensWithoutExpiryAreNotCached() {
+        when(delegate.decode("token")).thenReturn(jwt("token", null));
+
+        decoder.decode("token");
+        decoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void ensureDisabledUsersAreRejectedEvenWhenTheTokenIsCached() {
+        when(delegate.decode("token")).thenReturn(jwt("token", NOW.plusSeconds(3600)));
+        decoder.decode("token");
+
+        when(user.isEnabled()).thenReturn(false);
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("token"));
+    }
+
+    @Test
+    void ensureDeletedUsersAreRejected() {
+        when(delegate.decode("token")).thenReturn(jwt("token", NOW.plusSeconds(3600)));
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("token"));
+    }
+}
@@ -0,0 +1,79 @@
+package pt.psoft.g1.psoftg1.auth.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
+import pt.psoft.g1.psoftg1.readermanagement.services.ReaderService;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurrentPrincipalTest {
+    private ReaderService readerService;
+    private CurrentPrincipal currentPrincipal;
+
+    @BeforeEach
+    void setUp() {
+        readerService = mock(ReaderService.class);
+        currentPrincipal = new CurrentPrincipal(readerService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(String subject, Map<String, Object> claims) {
+        final Jwt.Builder jwt = Jwt.withTokenValue("token").header("alg", "RS256").subject(subject);
+        claims.forEach(jwt::claim);
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt.build()));
+    }
+
+    @Test
+    void ensureReaderIsResolvedFromClaimsWithoutQueries() {
+        authenticate("7,manuel@gmail.com", Map.of("uid", 7L, "roles", "READER", "readerNumber", "2024/3"));
+
+        assertEquals(7L, currentPrincipal.getUserId());
+        assertEquals("manuel@gmail.com", currentPrincipal.getUsername());
+        assertFalse(currentPrincipal.isLibrarian());
+        assertTrue(currentPrincipal.isReader("2024/3"));
+        assertFalse(currentPrincipal.isReader("2024/4"));
+        verifyNoInteractions(readerService);
+    }
+
+    @Test
+    void ensureTokensWithoutReaderNumberLookItUpOncePerRequest() {
+        authenticate("7,manuel@gmail.com", Map.of("roles", "READER"));
+        final ReaderDetails readerDetails = mock(ReaderDetails.class);
+        when(readerDetails.getReaderNumber()).thenReturn("2024/3");
+        when(readerService.findByUsername("manuel@gmail.com")).thenReturn(Optional.of(readerDetails));
+
+        assertEquals(7L, currentPrincipal.getUserId());
+        assertEquals("2024/3", currentPrincipal.requireReaderNumber());
+        assertTrue(currentPrincipal.isReader("2024/3"));
+        verify(readerService, times(1)).findByUsername("manuel@gmail.com");
+    }
+
+    @Test
+    void ensureLibrariansAreNotReaders() {
+        authenticate("1,maria@gmail.com", Map.of("uid", 1L, "roles", "LIBRARIAN"));
+
+        assertTrue(currentPrincipal.isLibrarian());
+        assertFalse(currentPrincipal.isReader("2024/3"));
+        assertThrows(AccessDeniedException.class, currentPrincipal::requireReaderNumber);
+        verifyNoInteractions(readerService);
+    }
+
+    @Test
+    void ensureAnonymousRequestsAreDenied() {
+        assertThrows(AccessDeniedException.class, currentPrincipal::getUserId);
+    }
+}
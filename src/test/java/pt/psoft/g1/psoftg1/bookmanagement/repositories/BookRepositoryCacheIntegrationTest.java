@@ -0,0 +1,91 @@
+package pt.psoft.g1.psoftg1.bookmanagement.repositories;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.hibernate.cache.spi.RegionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.services.UpdateBookRequest;
+import pt.psoft.g1.psoftg1.configuration.CacheConfig;
+import pt.psoft.g1.psoftg1.configuration.JpaConfig;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository call in its own transaction and persistence context, so that entities are read either from
+ * the second-level cache or from the database.
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import({CacheConfig.class, JpaConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookRepositoryCacheIntegrationTest {
+    private static final String ISBN = "9780306406157";
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private javax.cache.CacheManager hibernateCacheManager;
+
+    @BeforeEach
+    public void setUp() {
+        if (bookRepository.findByIsbn(ISBN).isEmpty()) {
+            final Genre genre = genreRepository.save(new Genre("Cached genre"));
+            final Author author = authorRepository.save(new Author("Cached Author", "Bio", null));
+            bookRepository.save(new Book(ISBN, "Cached Title", "Description", genre, List.of(author), null));
+        }
+        hibernateCacheManager.getCacheNames().forEach(name -> hibernateCacheManager.getCache(name).clear());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> region(String name) {
+        return hibernateCacheManager.getCache(name).unwrap(Cache.class);
+    }
+
+    @Test
+    public void whenFindByIsbnTwice_thenSecondIsServedFromCache() {
+        bookRepository.findByIsbn(ISBN).orElseThrow();
+        final long queryHits = region(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME).stats().hitCount();
+        final long genreHits = region("genre").stats().hitCount();
+
+        final Book book = bookRepository.findByIsbn(ISBN).orElseThrow();
+
+        assertThat(book.getTitle().toString()).isEqualTo("Cached Title");
+        assertThat(region(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME).stats().hitCount())
+                .isEqualTo(queryHits + 1);
+        // the genre of the book is read from its region rather than the database
+        assertThat(region("genre").stats().hitCount()).isEqualTo(genreHits + 1);
+        assertThat(book.getGenre().getGenre()).isEqualTo("Cached genre");
+    }
+
+    @Test
+    public void whenBookIsUpdated_thenCachedLookupsSeeIt() {
+        final Book book = bookRepository.findByIsbn(ISBN).orElseThrow();
+        final UpdateBookRequest request = new UpdateBookRequest();
+        request.setDescription("Updated description");
+        book.applyPatch(book.getVersion(), request);
+        bookRepository.save(book);
+
+        final Book updated = bookRepository.findByIsbn(ISBN).orElseThrow();
+
+        assertThat(updated.getDescription()).isEqualTo("Updated description");
+        assertThat(updated.getVersion()).isGreaterThan(book.getVersion());
+    }
+}
@@ -0,0 +1,125 @@
+package pt.psoft.g1.psoftg1.bookmanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingCreatedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
+import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
+import pt.psoft.g1.psoftg1.shared.services.FakeTransaction;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookRecommenderTest {
+    private static final String ROMANCE_1 = "9789721041233";
+    private static final String ROMANCE_2 = "9789896681234";
+    private static final String FICTION_1 = "9789722331234";
+    private static final String FICTION_2 = "9789721000018";
+    private static final String THRILLER = "9789721000025";
+
+    private BookRecommender recommender;
+
+    @BeforeEach
+    void setUp() {
+        final BookRepository bookRepository = mock(BookRepository.class);
+        when(bookRepository.findAll()).thenReturn(List.of(
+                book(ROMANCE_1, "Romance"), book(ROMANCE_2, "Romance"),
+                book(FICTION_1, "Ficção"), book(FICTION_2, "Ficção"),
+                book(THRILLER, "Policial")));
+
+        final LendingRepository lendingRepository = mock(LendingRepository.class);
+        when(lendingRepository.findReaderBookPairs()).thenReturn(List.of(
+                pair("2024/1", ROMANCE_1), pair("2024/1", FICTION_1),
+                pair("2024/2", ROMANCE_1), pair("2024/2", FICTION_1), pair("2024/2", FICTION_2),
+                pair("2024/3", ROMANCE_1), pair("2024/3", ROMANCE_2),
+                pair("2024/4", ROMANCE_1)));
+
+        recommender = new BookRecommender(bookRepository, lendingRepository);
+        recommender.load();
+    }
+
+    private static Book book(String isbn, String genre) {
+        return new Book(isbn, "Title", null, new Genre(genre), List.of(mock(Author.class)), null);
+    }
+
+    private static Object[] pair(String readerNumber, String isbn) {
+        return new Object[]{readerNumber, isbn};
+    }
+
+    private static LendingCreatedEvent lent(String readerNumber, Book book) {
+        final ReaderDetails readerDetails = mock(ReaderDetails.class);
+        when(readerDetails.getReaderNumber()).thenReturn(readerNumber);
+        final Lending lending = mock(Lending.class);
+        when(lending.getReaderDetails()).thenReturn(readerDetails);
+        when(lending.getBook()).thenReturn(book);
+        return new LendingCreatedEvent(lending);
+    }
+
+    @Test
+    void ensureBooksBorrowedByTheSameReadersAreRecommended() {
+        // FICTION_1 was borrowed with ROMANCE_1 by two readers, the others by one
+        assertEquals(List.of(FICTION_1, FICTION_2, ROMANCE_2), recommender.recommend("2024/4", List.of(), 5));
+    }
+
+    @Test
+    void ensureInterestGenresAreBlendedIn() {
+        assertEquals(List.of(THRILLER, FICTION_1, FICTION_2, ROMANCE_2),
+                recommender.recommend("2024/4", List.of("Policial"), 5));
+    }
+
+    @Test
+    void ensureReadersWithoutLendingsGetTheMostBorrowedBooksOfTheirGenres() {
+        assertEquals(List.of(ROMANCE_1, ROMANCE_2), recommender.recommend("2024/9", List.of("Romance"), 5));
+        assertEquals(List.of(), recommender.recommend("2024/9", List.of("Unknown"), 5));
+    }
+
+    @Test
+    void ensureNewLendingsAreTakenIntoAccount() {
+        recommender.onLendingCreated(lent("2024/4", book(FICTION_1, "Ficção")));
+
+        // FICTION_2 now also co-occurs with FICTION_1, which is no longer recommended
+        assertEquals(List.of(FICTION_2, ROMANCE_2), recommender.recommend("2024/4", List.of(), 5));
+    }
+
+    @Test
+    void ensureBorrowingTheSameBookAgainChangesNothing() {
+        recommender.onLendingCreated(lent("2024/4", book(ROMANCE_1, "Romance")));
+        recommender.onLendingCreated(lent("2024/1", book(FICTION_1, "Ficção")));
+
+        assertEquals(List.of(FICTION_1, FICTION_2, ROMANCE_2), recommender.recommend("2024/4", List.of(), 5));
+    }
+
+    @Test
+    void ensureGenreChangesAreIndexed() {
+        recommender.index(book(ROMANCE_2, "Policial"));
+
+        assertEquals(List.of(ROMANCE_2, THRILLER), recommender.recommend("2024/9", List.of("Policial"), 5));
+    }
+
+    @Test
+    void ensureGenreChangesAreOnlyIndexedOnceCommitted() {
+        final List<String> before = recommender.recommend("2024/9", List.of("Policial"), 5);
+
+        try (FakeTransaction transaction = FakeTransaction.begin()) {
+            recommender.index(book(ROMANCE_2, "Policial"));
+            assertEquals(before, recommender.recommend("2024/9", List.of("Policial"), 5));
+            transaction.rollback();
+        }
+        assertEquals(before, recommender.recommend("2024/9", List.of("Policial"), 5));
+        assertNotEquals(ROMANCE_2, before.get(0));
+    }
+
+    @Test
+    void ensureResultsAreLimited() {
+        assertEquals(List.of(FICTION_1), recommender.recommend("2024/4", List.of(), 1));
+        assertThrows(IllegalArgumentException.class, () -> recommender.recommend("2024/4", List.of(), 0));
+    }
+}
@@ -0,0 +1,137 @@
+package pt.psoft.g1.psoftg1.bookmanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.bookmanagement.services.BookSearchIndex.Criterion;
+import pt.psoft.g1.psoftg1.bookmanagement.services.BookSearchIndex.Field;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.shared.services.FakeTransaction;
+import pt.psoft.g1.psoftg1.shared.services.Page;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSearchIndexTest {
+    private static final String ISBN_1 = "9789721041233";
+    private static final String ISBN_2 = "9789896681234";
+    private static final String ISBN_3 = "9789722331234";
+    private static final Page PAGE = new Page(1, 10);
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex(mock(BookRepository.class));
+        final Author saramago = author(1L, "José Saramago");
+
+        index.index(new Book(ISBN_1, "Memorial do Convento", "Romance passado na construção do convento de Mafra",
+                new Genre("Romance"), List.of(saramago), null));
+        index.index(new Book(ISBN_2, "Ensaio sobre a Cegueira", "Uma epidemia de cegueira branca",
+                new Genre("Ficção"), List.of(saramago), null));
+        index.index(new Book(ISBN_3, "Os Maias", "Episódios da vida romanceada",
+                new Genre("Romance"), List.of(author(2L, "Eça de Queirós")), null));
+    }
+
+    private static Author author(Long authorNumber, String name) {
+        final Author author = mock(Author.class);
+        when(author.getAuthorNumber()).thenReturn(authorNumber);
+        when(author.getName()).thenReturn(name);
+        return author;
+    }
+
+    private List<String> search(boolean matchAll, Criterion... criteria) {
+        return index.search(List.of(criteria), matchAll, PAGE);
+    }
+
+    @Test
+    void ensureTextIsFoldedAndSplitIntoWords() {
+        assertEquals(List.of("eca", "de", "queiros"), BookSearchIndex.tokenize("  Eça de QUEIRÓS! "));
+        assertEquals(List.of(), BookSearchIndex.tokenize(" - "));
+    }
+
+    @Test
+    void ensureSearchIgnoresCaseAndAccents() {
+        assertEquals(List.of(ISBN_3), search(true, new Criterion("eca queiros", Field.AUTHOR)));
+        assertEquals(List.of(ISBN_2), search(true, new Criterion("FICCAO", Field.GENRE)));
+    }
+
+    @Test
+    void ensureWordsMatchByPrefix() {
+        assertEquals(List.of(ISBN_1), search(true, new Criterion("memo conv", Field.TITLE)));
+    }
+
+    @Test
+    void ensureMatchAllRequiresEveryCriterion() {
+        assertEquals(List.of(ISBN_1), search(true,
+                new Criterion("Romance", Field.GENRE), new Criterion("Saramago", Field.AUTHOR)));
+    }
+
+    @Test
+    void ensureMatchAnyRanksBooksMatchingMoreCriteriaFirst() {
+        final List<String> result = search(false,
+                new Criterion("Romance", Field.GENRE), new Criterion("Saramago", Field.AUTHOR));
+        assertEquals(3, result.size());
+        assertEquals(ISBN_1, result.get(0));
+    }
+
+    @Test
+    void ensureExactWordsRankAbovePrefixes() {
+        // "romance" is a whole word in the first description and only a prefix of "romanceada" in the third
+        assertEquals(List.of(ISBN_1, ISBN_3), search(true, new Criterion("romance", Field.DESCRIPTION)));
+    }
+
+    @Test
+    void ensureEmptyCriteriaListEveryBookByTitle() {
+        assertEquals(List.of(ISBN_2, ISBN_1, ISBN_3), search(true, new Criterion(" ", Field.TITLE)));
+    }
+
+    @Test
+    void ensureResultsArePaginated() {
+        final List<String> secondPage = index.search(List.of(), true, new Page(2, 2));
+        assertEquals(List.of(ISBN_3), secondPage);
+    }
+
+    @Test
+    void ensureReindexingReplacesPreviousVersion() {
+        index.index(new Book(ISBN_3, "A Cidade e as Serras", null,
+                new Genre("Romance"), List.of(author(2L, "Eça de Queirós")), null));
+
+        assertEquals(List.of(), search(true, new Criterion("Maias", Field.TITLE)));
+        assertEquals(List.of(ISBN_3), search(true, new Criterion("serras", Field.TITLE)));
+    }
+
+    @Test
+    void ensureRenamedAuthorsAreReindexed() {
+        index.authorRenamed(1L, "J. Saramago");
+
+        assertEquals(List.of(), search(true, new Criterion("jose", Field.AUTHOR)));
+        assertEquals(List.of(ISBN_2, ISBN_1), search(true, new Criterion("saramago", Field.AUTHOR)));
+    }
+
+    @Test
+    void ensureChangesAreOnlyIndexedOnceCommitted() {
+        try (FakeTransaction transaction = FakeTransaction.begin()) {
+            index.index(new Book(ISBN_3, "A Cidade e as Serras", null,
+                    new Genre("Romance"), List.of(author(2L, "Eça de Queirós")), null));
+            index.authorRenamed(1L, "J. Saramago");
+            assertEquals(List.of(ISBN_3), search(true, new Criterion("Maias", Field.TITLE)));
+            transaction.rollback();
+        }
+
+        assertEquals(List.of(ISBN_3), search(true, new Criterion("Maias", Field.TITLE)));
+        assertEquals(List.of(ISBN_2, ISBN_1), search(true, new Criterion("jose", Field.AUTHOR)));
+
+        try (FakeTransaction transaction = FakeTransaction.begin()) {
+            index.authorRenamed(1L, "J. Saramago");
+            transaction.commit();
+        }
+
+        assertEquals(List.of(), search(true, new Criterion("jose", Field.AUTHOR)));
+    }
+}
@@ -0,0 +1,89 @@
+package pt.psoft.g1.psoftg1.bookmanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.shared.services.FakeTransaction;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class BookSimilarityIndexTest {
+    private static final String ISBN_1 = "9789721041233";
+    private static final String ISBN_2 = "9789896681234";
+    private static final String ISBN_3 = "9789722331234";
+
+    private BookSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSimilarityIndex(mock(BookRepository.class));
+        index.index(book(ISBN_1, "Memorial do Convento",
+                "Romance passado durante a construção do convento de Mafra no reinado de João"));
+        index.index(book(ISBN_2, "Memorial do Convento",
+                "Romance passado durante a construção do convento de Mafra, no tempo do rei João"));
+        index.index(book(ISBN_3, "Os Maias", "Episódios da vida romanceada de uma família lisboeta"));
+    }
+
+    private static Book book(String isbn, String title, String description) {
+        return new Book(isbn, title, description, new Genre("Romance"), List.of(mock(Author.class)), null);
+    }
+
+    private static String words(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "palavra" + i).collect(Collectors.joining(" "));
+    }
+
+    @Test
+    void ensureSignaturesEstimateTheShareOfCommonWords() {
+        // 100 words in common out of 300 distinct ones
+        final double similarity = BookSimilarityIndex.similarity(
+                BookSimilarityIndex.signature(words(0, 200)), BookSimilarityIndex.signature(words(100, 300)));
+        assertEquals(1.0 / 3, similarity, 0.15);
+
+        assertEquals(1.0, BookSimilarityIndex.similarity(
+                BookSimilarityIndex.signature("Ação e reação"), BookSimilarityIndex.signature("acao, REACAO")));
+    }
+
+    @Test
+    void ensureShortWordsAreIgnored() {
+        assertNull(BookSimilarityIndex.signature("o a de em"));
+    }
+
+    @Test
+    void ensureSimilarBooksAreFoundAndOthersAreNot() {
+        assertEquals(List.of(ISBN_2), index.similar(ISBN_1, 5));
+        assertEquals(List.of(), index.similar(ISBN_3, 5));
+    }
+
+    @Test
+    void ensureReindexingReplacesPreviousVersion() {
+        index.index(book(ISBN_2, "Os Maias", "Episódios da vida romanceada de uma família de Lisboa"));
+
+        assertEquals(List.of(), index.similar(ISBN_1, 5));
+        assertEquals(List.of(ISBN_2), index.similar(ISBN_3, 5));
+    }
+
+    @Test
+    void ensureChangesAreOnlyIndexedOnceCommitted() {
+        try (FakeTransaction transaction = FakeTransaction.begin()) {
+            index.index(book(ISBN_2, "Os Maias", "Episódios da vida romanceada de uma família de Lisboa"));
+            assertEquals(List.of(ISBN_2), index.similar(ISBN_1, 5));
+            transaction.rollback();
+        }
+        assertEquals(List.of(ISBN_2), index.similar(ISBN_1, 5));
+        assertEquals(List.of(), index.similar(ISBN_3, 5));
+    }
+
+    @Test
+    void ensureUnknownBooksHaveNoSimilarBooks() {
+        assertEquals(List.of(), index.similar("9789721000018", 5));
+        assertThrows(IllegalArgumentException.class, () -> index.similar(ISBN_1, 0));
+    }
+}
@@ -0,0 +1,30 @@
+package pt.psoft.g1.psoftg1.genremanagement.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenreLendingStatsTest {
+    @Test
+    void ensureAverageDurationIsComputedFromReturnedLendings() {
+        GenreLendingStats stats = new GenreLendingStats("Fantasia", 2024, 3, 5, 2, 9);
+        assertEquals(4.5, stats.getAverageDuration());
+    }
+
+    @Test
+    void ensureAverageDurationIsNullWithoutReturnedLendings() {
+        GenreLendingStats stats = new GenreLendingStats("Fantasia", 2024, 3, 5, 0, 0);
+        assertNull(stats.getAverageDuration());
+    }
+
+    @Test
+    void ensureMonthMustBeValid() {
+        assertThrows(IllegalArgumentException.class, () -> new GenreLendingStats("Fantasia", 2024, 0, 1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GenreLendingStats("Fantasia", 2024, 13, 1, 0, 0));
+    }
+
+    @Test
+    void ensureGenreMustNotBeBlank() {
+        assertThrows(IllegalArgumentException.class, () -> new GenreLendingStats("", 2024, 3, 1, 0, 0));
+    }
+}
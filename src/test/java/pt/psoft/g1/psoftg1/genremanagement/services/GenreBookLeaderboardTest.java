@@ -0,0 +1,71 @@
+package pt.psoft.g1.psoftg1.genremanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.psoft.g1.psoftg1.bookmanagement.services.GenreBookCountDTO;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+import pt.psoft.g1.psoftg1.shared.services.FakeTransaction;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GenreBookLeaderboardTest {
+    private GenreBookLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        final GenreRepository genreRepository = mock(GenreRepository.class);
+        when(genreRepository.countBooksByGenre()).thenReturn(List.of(
+                new GenreBookCountDTO("Fantasia", 5L),
+                new GenreBookCountDTO("Romance", 3L),
+                new GenreBookCountDTO("Policial", 1L)));
+        leaderboard = new GenreBookLeaderboard(genreRepository);
+        leaderboard.load();
+    }
+
+    private List<String> top(int limit) {
+        return leaderboard.top(limit).stream().map(GenreBookCountDTO::getGenre).toList();
+    }
+
+    @Test
+    void ensureRankingIsLimitedAndOrderedByCount() {
+        assertEquals(List.of("Fantasia", "Romance"), top(2));
+        assertEquals(5L, leaderboard.top(1).get(0).getBookCount());
+    }
+
+    @Test
+    void ensureChangingGenreMovesTheBookWithoutGoingNegative() {
+        leaderboard.bookGenreChanged(new Genre("Policial"), new Genre("Romance"));
+
+        assertEquals(List.of("Fantasia", "Romance"), top(5));
+        assertEquals(4L, leaderboard.top(5).get(1).getBookCount());
+    }
+
+    @Test
+    void ensureChangesAreOnlyCountedOnceCommitted() {
+        try (FakeTransaction transaction = FakeTransaction.begin()) {
+            leaderboard.bookAdded(new Genre("Policial"));
+            leaderboard.bookAdded(new Genre("Policial"));
+            assertEquals(List.of("Fantasia", "Romance", "Policial"), top(5));
+            transaction.rollback();
+        }
+        assertEquals(List.of("Fantasia", "Romance", "Policial"), top(5));
+
+        try (FakeTransaction transaction = FakeTransaction.begin()) {
+            leaderboard.bookAdded(new Genre("Policial"));
+            leaderboard.bookAdded(new Genre("Policial"));
+            leaderboard.bookAdded(new Genre("Policial"));
+            transaction.commit();
+        }
+        assertEquals(List.of("Fantasia", "Policial", "Romance"), top(5));
+    }
+
+    @Test
+    void ensureLimitMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.top(0));
+    }
+}
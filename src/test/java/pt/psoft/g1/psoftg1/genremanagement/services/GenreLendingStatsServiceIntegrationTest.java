@@ -0,0 +1,58 @@
+package pt.psoft.g1.psoftg1.genremanagement.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.genremanagement.model.GenreLendingStats;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreLendingStatsRepository;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingCreatedEvent;
+import pt.psoft.g1.psoftg1.testutils.ConcurrentTransactionsIntegrationTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@Import(GenreLendingStatsService.class)
+public class GenreLendingStatsServiceIntegrationTest extends ConcurrentTransactionsIntegrationTest {
+    @Autowired
+    private GenreLendingStatsService statsService;
+    @Autowired
+    private GenreLendingStatsRepository statsRepository;
+
+    private static LendingCreatedEvent lendingCreated(String genre, LocalDate startDate) {
+        final Lending lending = lending(startDate);
+        when(lending.getBook().getGenre().getGenre()).thenReturn(genre);
+        return new LendingCreatedEvent(lending);
+    }
+
+    @Test
+    public void whenFirstLendingsOfAMonthAreConcurrent_thenAllAreCounted() throws Exception {
+        final LendingCreatedEvent event = lendingCreated("Concurrent genre", LocalDate.of(2020, 1, 5));
+
+        inConcurrentTransactions(() -> statsService.onLendingCreated(event));
+
+        assertThat(statsRepository.findByPeriodBetween(202001, 202001))
+                .filteredOn(stats -> stats.getGenre().equals("Concurrent genre"))
+                .extracting(GenreLendingStats::getLendingCount)
+                .containsExactly((long) THREADS);
+    }
+
+    @Test
+    public void whenLendingsPerMonthOfTheLastYear_thenTwelveMonthsAreCovered() {
+        final LocalDate now = LocalDate.now();
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (LocalDate startDate : List.of(now, now.minusMonths(11), now.minusMonths(12))) {
+            transaction.executeWithoutResult(status ->
+                    statsService.onLendingCreated(lendingCreated("Last year genre", startDate)));
+        }
+
+        assertThat(statsService.getLendingsPerMonthLastYearByGenre())
+                .filteredOn(month -> month.getValues().stream().anyMatch(v -> v.getGenre().equals("Last year genre")))
+                .extracting(month -> LocalDate.of(month.getYear(), month.getMonth(), 1))
+                .containsExactly(now.minusMonths(11).withDayOfMonth(1), now.withDayOfMonth(1));
+    }
+}
@@ -0,0 +1,73 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.command.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import pt.psoft.g1.psoftg1.lendingmanagement.command.api.LendingExportWriter.Format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LendingExportWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private static LendingExportView lending(String lendingNumber, String bookTitle) {
+        final LendingExportView lending = new LendingExportView();
+        lending.setLendingNumber(lendingNumber);
+        lending.setReaderNumber("2024/1");
+        lending.setIsbn("9789721041233");
+        lending.setBookTitle(bookTitle);
+        lending.setStartDate(LocalDate.of(2024, 3, 1));
+        lending.setLimitDate(LocalDate.of(2024, 3, 15));
+        lending.setDaysOverdue(2);
+        return lending;
+    }
+
+    private String export(Format format, LendingExportView... lendings) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final LendingExportWriter writer = LendingExportWriter.of(format, out, objectMapper);
+        for (LendingExportView lending : lendings) {
+            writer.write(lending);
+        }
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void ensureNdJsonWritesOneObjectPerLine() throws IOException {
+        final String[] lines = export(Format.NDJSON, lending("2024/1", "Os Maias"), lending("2024/2", "Ensaio")).split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("2024/2", objectMapper.readTree(lines[1]).get("lendingNumber").asText());
+        assertEquals("2024-03-01", objectMapper.readTree(lines[0]).get("startDate").asText());
+    }
+
+    @Test
+    void ensureCsvHasHeaderAndEmptyFieldsForMissingValues() throws IOException {
+        final String[] lines = export(Format.CSV, lending("2024/1", "Os Maias")).split("\r\n");
+
+        assertEquals("lendingNumber,readerNumber,isbn,bookTitle,startDate,limitDate,returnedDate,"
+                + "daysOverdue,fineValueInCents,rating", lines[0]);
+        assertEquals("2024/1,2024/1,9789721041233,Os Maias,2024-03-01,2024-03-15,,2,,", lines[1]);
+    }
+
+    @Test
+    void ensureCsvQuotesFieldsWithSeparatorsOrQuotes() throws IOException {
+        final String[] lines = export(Format.CSV, lending("2024/1", "Sim, \"o\" livro")).split("\r\n");
+
+        assertTrue(lines[1].contains(",\"Sim, \"\"o\"\" livro\","));
+    }
+
+    @Test
+    void ensureFormatIsParsedIgnoringCase() {
+        assertEquals(Format.CSV, Format.parse("csv"));
+        assertEquals(Format.NDJSON, Format.parse("NDJSON"));
+        assertThrows(IllegalArgumentException.class, () -> Format.parse("xml"));
+    }
+}
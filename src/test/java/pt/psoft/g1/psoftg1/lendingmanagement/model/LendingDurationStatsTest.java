@@ -0,0 +1,30 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LendingDurationStatsTest {
+    @Test
+    void ensureAverageIsRoundedToOneDecimalPlace() {
+        LendingDurationStats stats = new LendingDurationStats("9782826012092", 3, 10);
+        assertEquals(3.3, stats.getAverageDuration());
+    }
+
+    @Test
+    void ensureAverageIsZeroWithoutReturnedLendings() {
+        LendingDurationStats stats = new LendingDurationStats(LendingDurationStats.GLOBAL_SCOPE, 0, 0);
+        assertEquals(0.0, stats.getAverageDuration());
+    }
+
+    @Test
+    void ensureScopeMustNotBeBlank() {
+        assertThrows(IllegalArgumentException.class, () -> new LendingDurationStats(" ", 1, 1));
+    }
+
+    @Test
+    void ensureStatisticsMustNotBeNegative() {
+        assertThrows(IllegalArgumentException.class, () -> new LendingDurationStats("9782826012092", -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LendingDurationStats("9782826012092", 1, -1));
+    }
+}
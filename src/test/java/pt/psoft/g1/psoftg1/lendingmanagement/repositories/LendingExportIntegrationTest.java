@@ -0,0 +1,102 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.repositories;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.configuration.CacheConfig;
+import pt.psoft.g1.psoftg1.configuration.JpaConfig;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
+import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
+import pt.psoft.g1.psoftg1.readermanagement.repositories.ReaderRepository;
+import pt.psoft.g1.psoftg1.usermanagement.model.Reader;
+import pt.psoft.g1.psoftg1.usermanagement.repositories.UserRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import({CacheConfig.class, JpaConfig.class})
+public class LendingExportIntegrationTest {
+    private static final String ISBN = "9789720046789";
+    private static final int YEAR = 2022;
+
+    @Autowired
+    private LendingRepository lendingRepository;
+    @Autowired
+    private ReaderRepository readerRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void whenNothingMatches_thenNothingIsExported() {
+        final List<LendingSummary> exported = new ArrayList<>();
+
+        final long count = lendingRepository.exportLendings("2024/1", "9789721041233", false,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), 2, exported::add);
+
+        assertThat(count).isZero();
+        assertThat(exported).isEmpty();
+    }
+
+    @Test
+    public void whenMoreLendingsThanTheFetchSize_thenAllAreExportedInOneQuery() {
+        final Author author = authorRepository.save(new Author("Sophia de Mello Breyner", "Poeta", null));
+        final Genre genre = genreRepository.save(new Genre("Poesia exportada"));
+        final Book book = bookRepository.save(new Book(ISBN, "Mar Novo", "Poemas do mar", genre, List.of(author), null));
+        final Reader reader = userRepository.save(Reader.newReader("export@mail.com", "Password1!", "Leitor Export"));
+        final ReaderDetails readerDetails = readerRepository.save(new ReaderDetails(1, reader, "2000-01-01",
+                "919191919", true, true, true, null, null));
+        for (int i = 1; i <= 7; i++) {
+            // every other lending returned ten days late
+            lendingRepository.save(Lending.newBootstrappingLending(book, readerDetails, YEAR, i,
+                    LocalDate.of(YEAR, i, 1), i % 2 == 0 ? LocalDate.of(YEAR, i, 26) : null, 15, 300, null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        final Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        final List<LendingSummary> exported = new ArrayList<>();
+        final long count;
+        try {
+            count = lendingRepository.exportLendings(null, ISBN, null, null, null, 2, exported::add);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        assertThat(count).isEqualTo(7);
+        assertThat(exported).extracting(LendingSummary::getLendingNumber)
+                .containsExactly(YEAR + "/1", YEAR + "/2", YEAR + "/3", YEAR + "/4", YEAR + "/5", YEAR + "/6", YEAR + "/7");
+        assertThat(exported).extracting(LendingSummary::getBookTitle).containsOnly("Mar Novo");
+        assertThat(exported).extracting(LendingSummary::getReaderNumber).containsOnly(readerDetails.getReaderNumber());
+        assertThat(exported.get(1).getReturnedDate()).isEqualTo(LocalDate.of(YEAR, 2, 26));
+        assertThat(exported.get(1).getFineValueInCents()).isEqualTo(10 * 300);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
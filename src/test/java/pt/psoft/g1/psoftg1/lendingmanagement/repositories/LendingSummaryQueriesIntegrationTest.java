@@ -0,0 +1,112 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.repositories.AuthorRepository;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.repositories.BookRepository;
+import pt.psoft.g1.psoftg1.configuration.CacheConfig;
+import pt.psoft.g1.psoftg1.configuration.JpaConfig;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.genremanagement.repositories.GenreRepository;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingSummary;
+import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
+import pt.psoft.g1.psoftg1.readermanagement.repositories.ReaderRepository;
+import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
+import pt.psoft.g1.psoftg1.usermanagement.model.Reader;
+import pt.psoft.g1.psoftg1.usermanagement.repositories.UserRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import({CacheConfig.class, JpaConfig.class})
+public class LendingSummaryQueriesIntegrationTest {
+    private static final String ISBN = "9782826012092";
+    private static final int YEAR = 2023;
+
+    @Autowired
+    private LendingRepository lendingRepository;
+    @Autowired
+    private ReaderRepository readerRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    private String readerNumber;
+
+    @BeforeEach
+    public void setUp() {
+        final Author author = authorRepository.save(new Author("Manuel Antonio Pina", "Jornalista e escritor", null));
+        final Genre genre = genreRepository.save(new Genre("Policial"));
+        final Book book = bookRepository.save(new Book(ISBN, "O Inspetor Max", "Um pastor-alemão da Judiciária",
+                genre, List.of(author), null));
+        final Reader reader = userRepository.save(Reader.newReader("max@mail.com", "Password1!", "Leitor Max"));
+        final ReaderDetails readerDetails = readerRepository.save(new ReaderDetails(1, reader, "2000-01-01",
+                "919191919", true, true, true, null, null));
+        readerNumber = readerDetails.getReaderNumber();
+
+        // returned on time, and still outstanding
+        lendingRepository.save(Lending.newBootstrappingLending(book, readerDetails, YEAR, 1,
+                LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 1, 11), 15, 300, 8));
+        lendingRepository.save(Lending.newBootstrappingLending(book, readerDetails, YEAR, 2,
+                LocalDate.of(YEAR, 2, 1), null, 15, 300, null));
+    }
+
+    @Test
+    public void whenFindingSummaryByLendingNumber_thenColumnsAreProjected() {
+        final LendingSummary summary = lendingRepository.findSummaryByLendingNumber(YEAR + "/1").orElseThrow();
+
+        assertThat(summary.getIsbn()).isEqualTo(ISBN);
+        assertThat(summary.getBookTitle()).isEqualTo("O Inspetor Max");
+        assertThat(summary.getReaderNumber()).isEqualTo(readerNumber);
+        assertThat(summary.getReturnedDate()).isEqualTo(LocalDate.of(YEAR, 1, 11));
+        assertThat(summary.getRating()).isEqualTo(8);
+        assertThat(lendingRepository.findSummaryByLendingNumber(YEAR + "/3")).isEmpty();
+    }
+
+    @Test
+    public void whenListingByReaderAndIsbn_thenReturnedIsFilteredByTheQuery() {
+        assertThat(lendingRepository.listByReaderNumberAndIsbn(readerNumber, ISBN, null)).hasSize(2);
+        assertThat(lendingRepository.listByReaderNumberAndIsbn(readerNumber, ISBN, true))
+                .extracting(LendingSummary::getLendingNumber).containsExactly(YEAR + "/1");
+        assertThat(lendingRepository.listByReaderNumberAndIsbn(readerNumber, ISBN, false))
+                .extracting(LendingSummary::getLendingNumber).containsExactly(YEAR + "/2");
+    }
+
+    @Test
+    public void whenFindingOutstandingLimitDates_thenOnlyOutstandingLendingsAreListed() {
+        assertThat(lendingRepository.findOutstandingLimitDatesByReaderNumber(readerNumber))
+                .containsExactly(new Object[]{YEAR + "/2", LocalDate.of(YEAR, 2, 16)});
+    }
+
+    @Test
+    public void whenSearchingSummaries_thenPagesSeekByLendingNumber() {
+        final Page page = new Page(1, 1);
+        final Slice<LendingSummary> first = lendingRepository.searchLendingSummaries(page, readerNumber, ISBN,
+                null, null, null);
+        assertThat(first.getItems()).extracting(LendingSummary::getLendingNumber).containsExactly(YEAR + "/1");
+
+        page.setCursor(first.getNext());
+        final Slice<LendingSummary> second = lendingRepository.searchLendingSummaries(page, readerNumber, ISBN,
+                null, null, null);
+        assertThat(second.getItems()).extracting(LendingSummary::getLendingNumber).containsExactly(YEAR + "/2");
+        assertThat(second.getNext()).isNull();
+    }
+}
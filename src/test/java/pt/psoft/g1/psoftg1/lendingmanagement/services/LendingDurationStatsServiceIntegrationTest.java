@@ -0,0 +1,63 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingDurationStats;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingReturnedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingDurationStatsRepository;
+import pt.psoft.g1.psoftg1.testutils.ConcurrentTransactionsIntegrationTest;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@Import(LendingDurationStatsService.class)
+public class LendingDurationStatsServiceIntegrationTest extends ConcurrentTransactionsIntegrationTest {
+    private static final String ISBN = "9789722331234";
+
+    @Autowired
+    private LendingDurationStatsService statsService;
+    @Autowired
+    private LendingDurationStatsRepository statsRepository;
+
+    private static LendingReturnedEvent returned(String isbn, int durationInDays) {
+        final Lending lending = lending(LocalDate.of(2020, 1, 1));
+        when(lending.getBook().getIsbn()).thenReturn(isbn);
+        when(lending.getReturnedDate()).thenReturn(LocalDate.of(2020, 1, 1).plusDays(durationInDays));
+        return new LendingReturnedEvent(lending);
+    }
+
+    @Test
+    public void whenFirstReturnsOfABookAreConcurrent_thenAllAreCounted() throws Exception {
+        final LendingReturnedEvent event = returned(ISBN, 4);
+        final long globalCount = statsRepository.findByScope(LendingDurationStats.GLOBAL_SCOPE)
+                .map(LendingDurationStats::getReturnedCount).orElse(0L);
+
+        inConcurrentTransactions(() -> statsService.onLendingReturned(event));
+
+        assertThat(statsRepository.findByScope(ISBN).orElseThrow().getReturnedCount()).isEqualTo(THREADS);
+        assertThat(statsRepository.findByScope(ISBN).orElseThrow().getTotalDurationInDays()).isEqualTo(4 * THREADS);
+        assertThat(statsRepository.findByScope(LendingDurationStats.GLOBAL_SCOPE).orElseThrow().getReturnedCount())
+                .isEqualTo(globalCount + THREADS);
+    }
+
+    @Test
+    public void whenRebuilt_thenTotalsComeFromTheLendingTable() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                statsService.onLendingReturned(returned("9789896681234", 3)));
+
+        statsService.rebuild();
+        statsService.rebuild();
+
+        // no lending in the table was ever returned
+        assertThat(statsRepository.findByScope("9789896681234")).isEmpty();
+        assertThat(statsRepository.findByScope(LendingDurationStats.GLOBAL_SCOPE).orElseThrow().getReturnedCount())
+                .isEqualTo(statsRepository.sumReturnedDurationsByIsbn().stream()
+                        .mapToLong(row -> ((Number) row[1]).longValue()).sum());
+        assertThat(statsService.getAverageDurationByIsbn("9789896681234")).isEqualTo(0.0);
+    }
+}
@@ -0,0 +1,146 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
+import pt.psoft.g1.psoftg1.shared.services.Page;
+
+import java.time.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OverdueLendingTrackerTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+
+    private MutableClock clock;
+    private OverdueLendingTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(TODAY);
+        tracker = new OverdueLendingTracker(mock(LendingRepository.class), clock);
+    }
+
+    private static LendingSummary lending(String lendingNumber, LocalDate limitDate) {
+        return new LendingSummary(lendingNumber, "9782826012092", "Title", "2024/1",
+                limitDate.minusDays(15), limitDate, null, null, 200);
+    }
+
+    private static List<String> numbers(List<LendingSummary> lendings) {
+        return lendings.stream().map(LendingSummary::getLendingNumber).toList();
+    }
+
+    @Test
+    void ensureOnlyLendingsPastTheirLimitDateAreOverdue() {
+        tracker.track(lending("2024/1", TODAY.minusDays(1)));
+        tracker.track(lending("2024/2", TODAY));
+        tracker.track(lending("2024/3", TODAY.plusDays(1)));
+
+        assertEquals(List.of("2024/1"), numbers(tracker.getOverdue(new Page(1, 10))));
+    }
+
+    @Test
+    void ensureOverdueLendingsAreSortedByLimitDateThenLendingNumber() {
+        tracker.track(lending("2024/10", TODAY.minusDays(2)));
+        tracker.track(lending("2024/3", TODAY.minusDays(5)));
+        tracker.track(lending("2024/9", TODAY.minusDays(2)));
+
+        assertEquals(List.of("2024/3", "2024/9", "2024/10"), numbers(tracker.getOverdue(new Page(1, 10))));
+    }
+
+    @Test
+    void ensureLendingsBecomeOverdueAsDaysPass() {
+        tracker.track(lending("2024/1", TODAY.plusDays(2)));
+        tracker.track(lending("2024/2", TODAY.plusDays(100)));
+        assertTrue(tracker.getOverdue(new Page(1, 10)).isEmpty());
+
+        clock.setToday(TODAY.plusDays(3));
+        assertEquals(List.of("2024/1"), numbers(tracker.getOverdue(new Page(1, 10))));
+
+        clock.setToday(TODAY.plusDays(101));
+        assertEquals(List.of("2024/1", "2024/2"), numbers(tracker.getOverdue(new Page(1, 10))));
+    }
+
+    @Test
+    void ensureReturnedLendingsAreNoLongerTracked() {
+        tracker.track(lending("2024/1", TODAY.minusDays(1)));
+        tracker.track(lending("2024/2", TODAY.plusDays(200)));
+
+        tracker.untrack("2024/1");
+        tracker.untrack("2024/2");
+
+        assertTrue(tracker.getOverdue(new Page(1, 10)).isEmpty());
+        assertTrue(tracker.getDueWithin(365, new Page(1, 10)).isEmpty());
+    }
+
+    @Test
+    void ensureDueWithinIncludesTodayAndLendingsBeyondTheWheel() {
+        tracker.track(lending("2024/1", TODAY.minusDays(1)));
+        tracker.track(lending("2024/2", TODAY));
+        tracker.track(lending("2024/3", TODAY.plusDays(7)));
+        tracker.track(lending("2024/4", TODAY.plusDays(8)));
+        tracker.track(lending("2024/5", TODAY.plusDays(OverdueLendingTracker.WHEEL_DAYS + 10)));
+
+        assertEquals(List.of("2024/2", "2024/3"), numbers(tracker.getDueWithin(7, new Page(1, 10))));
+        assertEquals(List.of("2024/2", "2024/3", "2024/4", "2024/5"),
+                numbers(tracker.getDueWithin(OverdueLendingTracker.WHEEL_DAYS + 10, new Page(1, 10))));
+    }
+
+    @Test
+    void ensureResultsArePaged() {
+        for (int i = 1; i <= 5; i++) {
+            tracker.track(lending("2024/" + i, TODAY.minusDays(10 - i)));
+        }
+
+        assertEquals(List.of("2024/1", "2024/2"), numbers(tracker.getOverdue(new Page(1, 2))));
+        assertEquals(List.of("2024/3", "2024/4"), numbers(tracker.getOverdue(new Page(2, 2))));
+        assertEquals(List.of("2024/5"), numbers(tracker.getOverdue(new Page(3, 2))));
+    }
+
+    @Test
+    void ensureLoadReplacesTrackedLendings() {
+        LendingRepository repository = mock(LendingRepository.class);
+        when(repository.findOutstandingSummaries()).thenReturn(List.of(lending("2024/7", TODAY.minusDays(3))));
+        OverdueLendingTracker loaded = new OverdueLendingTracker(repository, clock);
+        loaded.track(lending("2024/1", TODAY.minusDays(1)));
+
+        loaded.load();
+
+        assertEquals(List.of("2024/7"), numbers(loaded.getOverdue(new Page(1, 10))));
+    }
+
+    @Test
+    void ensureNegativeNumberOfDaysIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> tracker.getDueWithin(-1, new Page(1, 10)));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(LocalDate today) {
+            setToday(today);
+        }
+
+        void setToday(LocalDate today) {
+            instant = today.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
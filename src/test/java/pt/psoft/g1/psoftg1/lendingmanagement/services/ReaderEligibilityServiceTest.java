@@ -0,0 +1,125 @@
+package pt.psoft.g1.psoftg1.lendingmanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.psoft.g1.psoftg1.exceptions.LendingForbiddenException;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingCreatedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.LendingReturnedEvent;
+import pt.psoft.g1.psoftg1.lendingmanagement.repositories.LendingRepository;
+import pt.psoft.g1.psoftg1.readermanagement.model.ReaderDetails;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReaderEligibilityServiceTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+    private static final String READER = "2024/1";
+
+    private LendingRepository lendingRepository;
+    private ReaderEligibilityService service;
+
+    @BeforeEach
+    void setUp() {
+        lendingRepository = mock(LendingRepository.class);
+        final Clock clock = Clock.fixed(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+        service = new ReaderEligibilityService(lendingRepository, clock);
+    }
+
+    private void outstandingInDatabase(Object[]... rows) {
+        final List<Object[]> result = new ArrayList<>(List.of(rows));
+        when(lendingRepository.findOutstandingLimitDatesByReaderNumber(READER)).thenReturn(result);
+    }
+
+    private static Lending lending(String lendingNumber, LocalDate limitDate) {
+        final ReaderDetails readerDetails = mock(ReaderDetails.class);
+        when(readerDetails.getReaderNumber()).thenReturn(READER);
+        final Lending lending = mock(Lending.class);
+        when(lending.getReaderDetails()).thenReturn(readerDetails);
+        when(lending.getLendingNumber()).thenReturn(lendingNumber);
+        when(lending.getLimitDate()).thenReturn(limitDate);
+        return lending;
+    }
+
+    @Test
+    void ensureEligibilityIsReadFromTheDatabaseOnlyOnce() {
+        outstandingInDatabase(new Object[]{"2024/1", TODAY.plusDays(3)}, new Object[]{"2024/2", TODAY.plusDays(1)});
+
+        final ReaderEligibility eligibility = service.getEligibility(READER);
+        service.getEligibility(READER);
+
+        assertEquals(2, eligibility.getOutstandingCount());
+        assertEquals(TODAY.plusDays(1), eligibility.getEarliestLimitDate());
+        verify(lendingRepository, times(1)).findOutstandingLimitDatesByReaderNumber(READER);
+    }
+
+    @Test
+    void ensureReaderWithOverdueLendingCannotBorrow() {
+        outstandingInDatabase(new Object[]{"2024/1", TODAY.minusDays(1)});
+
+        final LendingForbiddenException e = assertThrows(LendingForbiddenException.class,
+                () -> service.checkCanBorrow(READER));
+        assertEquals("Reader has book(s) past their due date", e.getMessage());
+    }
+
+    @Test
+    void ensureLendingDueTodayIsNotOverdue() {
+        outstandingInDatabase(new Object[]{"2024/1", TODAY});
+
+        assertTrue(service.canBorrow(READER));
+    }
+
+    @Test
+    void ensureCreatedLendingsCountTowardsTheLimit() {
+        outstandingInDatabase(new Object[]{"2024/1", TODAY.plusDays(10)});
+        service.checkCanBorrow(READER);
+
+        service.onLendingCreated(new LendingCreatedEvent(lending("2024/2", TODAY.plusDays(15))));
+        assertTrue(service.canBorrow(READER));
+        service.onLendingCreated(new LendingCreatedEvent(lending("2024/3", TODAY.plusDays(15))));
+
+        final LendingForbiddenException e = assertThrows(LendingForbiddenException.class,
+                () -> service.checkCanBorrow(READER));
+        assertEquals("Reader has three books outstanding already", e.getMessage());
+    }
+
+    @Test
+    void ensureReturnedLendingsFreeTheReader() {
+        outstandingInDatabase(new Object[]{"2024/1", TODAY.minusDays(2)}, new Object[]{"2024/2", TODAY.plusDays(5)});
+        assertFalse(service.canBorrow(READER));
+
+        service.onLendingReturned(new LendingReturnedEvent(lending("2024/1", TODAY.minusDays(2))));
+
+        assertTrue(service.canBorrow(READER));
+        assertEquals(TODAY.plusDays(5), service.getEligibility(READER).getEarliestLimitDate());
+    }
+
+    @Test
+    void ensureEventsAreIdempotent() {
+        outstandingInDatabase(new Object[]{"2024/1", TODAY.plusDays(5)});
+        service.getEligibility(READER);
+
+        // a lending already read from the database, and a return seen twice
+        service.onLendingCreated(new LendingCreatedEvent(lending("2024/1", TODAY.plusDays(5))));
+        service.onLendingReturned(new LendingReturnedEvent(lending("2024/9", TODAY.plusDays(5))));
+
+        assertEquals(1, service.getEligibility(READER).getOutstandingCount());
+    }
+
+    @Test
+    void ensureEventsOfReadersNotInMemoryAreIgnored() {
+        outstandingInDatabase();
+
+        service.onLendingCreated(new LendingCreatedEvent(lending("2024/1", TODAY.plusDays(5))));
+
+        verifyNoInteractions(lendingRepository);
+        assertEquals(0, service.getEligibility(READER).getOutstandingCount());
+        assertNull(service.getEligibility(READER).getEarliestLimitDate());
+    }
+}
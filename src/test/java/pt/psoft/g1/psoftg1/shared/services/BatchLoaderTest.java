@@ -0,0 +1,82 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchLoaderTest {
+    private static final BatchLoader.Source<Integer, String> NAMES = new BatchLoader.Source<>("names", Integer::parseInt);
+
+    private final BatchLoader batchLoader = new BatchLoader();
+    private final List<Collection<Integer>> queries = new ArrayList<>();
+    private final Function<Collection<Integer>, List<String>> query = keys -> {
+        queries.add(List.copyOf(keys));
+        // only even numbers exist
+        return keys.stream().filter(key -> key % 2 == 0).map(String::valueOf).toList();
+    };
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static void startRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @Test
+    void ensureKeysAreLoadedWithASingleQueryInTheirOrder() {
+        final Map<Integer, String> loaded = batchLoader.loadAll(NAMES, List.of(4, 1, 2, 4), query);
+
+        assertEquals(List.of(4, 2), List.copyOf(loaded.keySet()));
+        assertEquals("2", loaded.get(2));
+        assertEquals(List.of(List.of(4, 1, 2)), queries);
+    }
+
+    @Test
+    void ensureLoadedKeysAreRememberedForTheRestOfTheRequest() {
+        startRequest();
+        batchLoader.loadAll(NAMES, List.of(1, 2), query);
+
+        assertEquals(Optional.of("2"), batchLoader.load(NAMES, 2, query));
+        assertEquals(Optional.empty(), batchLoader.load(NAMES, 1, query));
+        batchLoader.loadAll(NAMES, List.of(2, 3, 4), query);
+
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4)), queries);
+    }
+
+    @Test
+    void ensureNothingIsRememberedAcrossRequests() {
+        startRequest();
+        batchLoader.load(NAMES, 2, query);
+        startRequest();
+        batchLoader.load(NAMES, 2, query);
+
+        assertEquals(2, queries.size());
+    }
+
+    @Test
+    void ensureNothingIsRememberedOutsideOfARequest() {
+        batchLoader.load(NAMES, 2, query);
+        batchLoader.load(NAMES, 2, query);
+
+        assertEquals(2, queries.size());
+    }
+
+    @Test
+    void ensureSourcesAreRememberedApart() {
+        startRequest();
+        final BatchLoader.Source<Integer, String> others = new BatchLoader.Source<>("others", Integer::parseInt);
+        batchLoader.load(NAMES, 2, query);
+        batchLoader.load(others, 2, query);
+
+        assertEquals(2, queries.size());
+    }
+}
@@ -0,0 +1,55 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyServiceTest {
+    private final ConcurrencyService concurrencyService = new ConcurrencyService();
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/books/9789721041233");
+        response = new MockHttpServletResponse();
+    }
+
+    private boolean isNotModified(Optional<Long> version) {
+        return concurrencyService.isNotModified(new ServletWebRequest(request, response), version);
+    }
+
+    @Test
+    void ensureCurrentVersionIsNotModified() {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"3\"");
+
+        assertTrue(isNotModified(Optional.of(3L)));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        assertEquals("\"3\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void ensureOtherVersionsAreLoaded() {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"2\"");
+
+        assertFalse(isNotModified(Optional.of(3L)));
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+    }
+
+    @Test
+    void ensureMissingResourcesAreLoaded() {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "*");
+
+        assertFalse(isNotModified(Optional.empty()));
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+    }
+}
@@ -0,0 +1,50 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorTest {
+
+    @Test
+    void ensureEncodedCursorDecodesToTheSameValues() {
+        final LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+        final Cursor cursor = Cursor.decode(Cursor.of(createdAt, 42L, "Ação/+=").encode(), 3);
+
+        assertEquals(createdAt, cursor.getLocalDateTime(0));
+        assertEquals(42L, cursor.getLong(1));
+        assertEquals("Ação/+=", cursor.get(2));
+    }
+
+    @Test
+    void ensureEncodedCursorIsUrlSafe() {
+        assertTrue(Cursor.of("???>>>", 1L).encode().matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void ensureTamperedCursorsAreRejected() {
+        final String encoded = Cursor.of("2024/1").encode();
+
+        assertThrows(ValidationException.class, () -> Cursor.decode(encoded, 2));
+        assertThrows(ValidationException.class, () -> Cursor.decode("not a cursor!", 1));
+        assertThrows(ValidationException.class, () -> Cursor.decode(encoded, 1).getLong(0));
+        assertThrows(ValidationException.class, () -> Cursor.decode(encoded, 1).getLocalDateTime(0));
+    }
+
+    @Test
+    void ensureSliceHasNextCursorOnlyWhenThereAreMoreResults() {
+        final Page page = new Page(1, 2);
+
+        final Slice<Long> last = Slice.of(List.of(1L, 2L), page, Cursor::of);
+        assertEquals(List.of(1L, 2L), last.getItems());
+        assertNull(last.getNext());
+
+        final Slice<Long> notLast = Slice.of(List.of(1L, 2L, 3L), page, Cursor::of);
+        assertEquals(List.of(1L, 2L), notLast.getItems());
+        assertEquals(2L, Cursor.decode(notLast.getNext(), 1).getLong(0));
+    }
+}
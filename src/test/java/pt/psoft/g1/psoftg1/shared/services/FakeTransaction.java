@@ -0,0 +1,47 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Just the synchronizations of a transaction, for unit tests of in-memory state changed through {@link AfterCommit}.
+ * They are run when the transaction completes, as a transaction manager would; closing a transaction that has not
+ * completed discards them, as a rollback that never runs them.
+ */
+public final class FakeTransaction implements AutoCloseable {
+    private FakeTransaction() {
+    }
+
+    public static FakeTransaction begin() {
+        TransactionSynchronizationManager.initSynchronization();
+        return new FakeTransaction();
+    }
+
+    public void commit() {
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    public void rollback() {
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+
+    @Override
+    public void close() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(int status) {
+        final List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import pt.psoft.g1.psoftg1.shared.repositories.PhotoRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class FileStorageServiceTest {
+    private static final String PHOTO = "5b1e4ad4-9c8f-4f6e-9d52-3f1a6a1c2b7d.png";
+    private static final Duration GRACE_PERIOD = Duration.ofMillis(100);
+
+    @TempDir
+    Path uploadDir;
+
+    private PhotoRepository photoRepository;
+    private FileStorageService fileStorageService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final FileStorageProperties properties = new FileStorageProperties();
+        properties.setUploadDir(uploadDir.toString());
+        properties.setPhotoMaxSize(20000);
+        properties.setContentAddressed(true);
+        properties.setOrphanGracePeriod(GRACE_PERIOD);
+        photoRepository = mock(PhotoRepository.class);
+        fileStorageService = new FileStorageService(properties, photoRepository, new PhotoVariantService(properties));
+        Files.write(uploadDir.resolve(PHOTO), new byte[]{1, 2, 3, 4});
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/photo");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request);
+    }
+
+    @Test
+    void ensurePhotoIsServedWithValidators() throws IOException {
+        final ResponseEntity<Resource> response = fileStorageService.getPhoto(PHOTO, PhotoSize.ORIGINAL, request(null));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.IMAGE_PNG, response.getHeaders().getContentType());
+        assertEquals("\"" + PHOTO + "\"", response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getLastModified() > 0);
+        assertEquals("max-age=3600, private", response.getHeaders().getCacheControl());
+        assertEquals(4, response.getBody().contentLength());
+    }
+
+    @Test
+    void ensureOriginalStandingInForAVariantIsRevalidated() throws IOException {
+        final ResponseEntity<Resource> fallback = fileStorageService.getPhoto(PHOTO, PhotoSize.THUMB, request(null));
+        assertEquals("\"" + PHOTO + "\"", fallback.getHeaders().getETag());
+        assertEquals("no-cache, private", fallback.getHeaders().getCacheControl());
+
+        final String thumb = PhotoVariantService.variantFileName(PHOTO, PhotoSize.THUMB);
+        Files.write(uploadDir.resolve(thumb), new byte[]{1});
+        final ResponseEntity<Resource> variant = fileStorageService.getPhoto(PHOTO, PhotoSize.THUMB, request(null));
+        assertEquals("\"" + thumb + "\"", variant.getHeaders().getETag());
+        assertEquals("max-age=3600, private", variant.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void ensureMatchingETagIsNotModified() {
+        final ResponseEntity<Resource> response = fileStorageService.getPhoto(PHOTO, PhotoSize.ORIGINAL,
+                request("\"other\", W/\"" + PHOTO + "\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void ensureMissingFileIsNotFoundWhateverTheETag() throws IOException {
+        Files.delete(uploadDir.resolve(PHOTO));
+
+        assertEquals(HttpStatus.NOT_FOUND,
+                fileStorageService.getPhoto(PHOTO, PhotoSize.ORIGINAL, request("*")).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+                fileStorageService.getPhoto(PHOTO, PhotoSize.ORIGINAL, request("\"" + PHOTO + "\"")).getStatusCode());
+    }
+
+    @RestController
+    private class PhotoController {
+        @GetMapping("/photo")
+        public ResponseEntity<Resource> photo(final WebRequest request) {
+            return fileStorageService.getPhoto(PHOTO, PhotoSize.ORIGINAL, request);
+        }
+    }
+
+    private MvcResult getRange(final byte[] photo, final String range) throws Exception {
+        Files.write(uploadDir.resolve(PHOTO), photo);
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new PhotoController()).build();
+        return mockMvc.perform(get("/photo").header(HttpHeaders.RANGE, range)).andReturn();
+    }
+
+    @Test
+    void ensureSingleRangeIsServedWithItsOwnLength() throws Exception {
+        final byte[] photo = new byte[1000];
+        Arrays.fill(photo, (byte) 7);
+        photo[5] = 42;
+
+        final MvcResult result = getRange(photo, "bytes=0-9");
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT.value(), result.getResponse().getStatus());
+        assertArrayEquals(Arrays.copyOfRange(photo, 0, 10), result.getResponse().getContentAsByteArray());
+        assertEquals("10", result.getResponse().getHeader(HttpHeaders.CONTENT_LENGTH));
+        assertEquals("bytes 0-9/1000", result.getResponse().getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void ensureMultipleRangesAreServedWithTheLengthOfTheBody() throws Exception {
+        final MvcResult result = getRange(new byte[1000], "bytes=0-9,20-29");
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT.value(), result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentType().startsWith("multipart/byteranges"));
+        final int bodyLength = result.getResponse().getContentAsByteArray().length;
+        assertTrue(bodyLength > 20 && bodyLength < 1000, "body of " + bodyLength + " bytes");
+        final String contentLength = result.getResponse().getHeader(HttpHeaders.CONTENT_LENGTH);
+        assertTrue(contentLength == null || Integer.parseInt(contentLength) == bodyLength,
+                "Content-Length " + contentLength + " for a body of " + bodyLength + " bytes");
+    }
+
+    @Test
+    void ensureStaleETagGetsThePhoto() {
+        assertEquals(HttpStatus.OK,
+                fileStorageService.getPhoto(PHOTO, PhotoSize.ORIGINAL, request("\"other.png\"")).getStatusCode());
+    }
+
+    @Test
+    void ensureMissingFileIsNotFound() {
+        assertEquals(HttpStatus.NOT_FOUND,
+                fileStorageService.getPhoto("missing.png", PhotoSize.ORIGINAL, request(null)).getStatusCode());
+    }
+
+    @Test
+    void ensureUploadsAreStoredUnderTheirDigestInShardedDirectories() throws IOException {
+        final String fileName = fileStorageService.storeFile("ignored",
+                new MockMultipartFile("photo", "cover.png", "image/png", "abc".getBytes()));
+
+        // SHA-256 of "abc"
+        final String digest = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        assertEquals("ba/78/" + digest + ".png", fileName);
+        assertArrayEquals("abc".getBytes(), Files.readAllBytes(uploadDir.resolve(fileName)));
+    }
+
+    @Test
+    void ensureIdenticalUploadsShareOneFile() throws IOException {
+        final String first = fileStorageService.storeFile("a",
+                new MockMultipartFile("photo", "a.png", "image/png", "same".getBytes()));
+        final long written = Files.getLastModifiedTime(uploadDir.resolve(first)).toMillis();
+        final String second = fileStorageService.storeFile("b",
+                new MockMultipartFile("photo", "b.png", "image/png", "same".getBytes()));
+
+        assertEquals(first, second);
+        assertEquals(written, Files.getLastModifiedTime(uploadDir.resolve(second)).toMillis());
+        try (var files = Files.list(uploadDir.resolve(first).getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void ensureFilesAreOnlyDeletedOnceUnreferenced() throws InterruptedException {
+        when(photoRepository.countByPhotoFile(PHOTO)).thenReturn(1L);
+        fileStorageService.deleteFileIfUnreferenced(PHOTO);
+        verify(photoRepository, timeout(2000)).countByPhotoFile(PHOTO);
+        assertTrue(Files.exists(uploadDir.resolve(PHOTO)));
+
+        when(photoRepository.countByPhotoFile(PHOTO)).thenReturn(0L);
+        fileStorageService.deleteFileIfUnreferenced(PHOTO);
+        assertTrue(Files.exists(uploadDir.resolve(PHOTO)));
+        awaitDeletion(uploadDir.resolve(PHOTO));
+    }
+
+    @Test
+    void ensureStoringTheSameContentCallsOffItsDeletion() throws IOException, InterruptedException {
+        final String fileName = fileStorageService.storeFile("a",
+                new MockMultipartFile("photo", "a.png", "image/png", "kept".getBytes()));
+        when(photoRepository.countByPhotoFile(fileName)).thenReturn(0L);
+        fileStorageService.deleteFileIfUnreferenced(fileName);
+
+        // the photo storing it again has not committed yet, so the file is still unreferenced
+        fileStorageService.storeFile("b", new MockMultipartFile("photo", "b.png", "image/png", "kept".getBytes()));
+        Thread.sleep(GRACE_PERIOD.multipliedBy(3).toMillis());
+
+        assertTrue(Files.exists(uploadDir.resolve(fileName)));
+    }
+
+    private static void awaitDeletion(Path file) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 2000;
+        while (Files.exists(file) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,116 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import pt.psoft.g1.psoftg1.shared.model.ForbiddenName;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the in-memory matcher with the previous check, one LIKE query per word of the name, over the real list
+ * of forbidden names. Both must agree on every name; the timings are only logged.
+ * <p>
+ * Left out of the default build; run it with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+public class ForbiddenNameMatcherBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(ForbiddenNameMatcherBenchmarkTest.class);
+    private static final int NAMES = 1_000;
+    private static final String[] WORDS = {"Maria", "João", "Silva", "Ana", "Pedro", "Costa", "Rita", "Sousa",
+            "Tiago", "Ferreira", "Inês", "Pereira", "Rui", "Santos", "Marta", "Oliveira"};
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private List<String> loadForbiddenNames() throws IOException {
+        final List<String> names = new ArrayList<>();
+        final ClassPathResource resource = new ClassPathResource("forbiddenNames.txt");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                names.add(line);
+            }
+        }
+        return names;
+    }
+
+    private static List<String> generateNames(List<String> forbiddenNames) {
+        final Random random = new Random(42);
+        final List<String> names = new ArrayList<>(NAMES);
+        for (int i = 0; i < NAMES; i++) {
+            final StringBuilder name = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+            for (int words = 1 + random.nextInt(3); words > 0; words--) {
+                name.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            // roughly one name in ten embeds a forbidden name inside one of its words
+            if (random.nextInt(10) == 0) {
+                name.append(" X").append(forbiddenNames.get(random.nextInt(forbiddenNames.size())));
+            }
+            names.add(name.toString());
+        }
+        return names;
+    }
+
+    private boolean containsForbiddenNameWithQueries(String name) {
+        for (String word : name.split("\\s+")) {
+            final List<ForbiddenName> found = entityManager.getEntityManager()
+                    .createQuery("SELECT fn FROM ForbiddenName fn " +
+                            "WHERE :pat LIKE CONCAT('%', fn.forbiddenName, '%')", ForbiddenName.class)
+                    .setParameter("pat", word)
+                    .getResultList();
+            if (!found.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void compareMatcherWithPerWordQueries() throws IOException {
+        final List<String> forbiddenNames = loadForbiddenNames();
+        for (String forbiddenName : forbiddenNames) {
+            entityManager.persist(new ForbiddenName(forbiddenName));
+        }
+        entityManager.flush();
+        final List<String> names = generateNames(forbiddenNames);
+
+        final long queriesStart = System.nanoTime();
+        final List<Boolean> expected = new ArrayList<>(names.size());
+        for (String name : names) {
+            expected.add(containsForbiddenNameWithQueries(name));
+        }
+        final long queriesNanos = System.nanoTime() - queriesStart;
+
+        final long matcherStart = System.nanoTime();
+        final ForbiddenNameMatcher matcher = new ForbiddenNameMatcher(forbiddenNames);
+        final List<Boolean> actual = new ArrayList<>(names.size());
+        for (String name : names) {
+            actual.add(matcher.matches(name));
+        }
+        final long matcherNanos = System.nanoTime() - matcherStart;
+
+        log.info(String.format("Forbidden name check of %d names against %d forbidden names: " +
+                        "per-word queries %.1f ms, matcher (including build) %.1f ms",
+                names.size(), forbiddenNames.size(), queriesNanos / 1e6, matcherNanos / 1e6));
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual).contains(true, false);
+    }
+}
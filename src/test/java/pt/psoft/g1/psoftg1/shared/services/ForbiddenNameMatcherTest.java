@@ -0,0 +1,50 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForbiddenNameMatcherTest {
+    private final ForbiddenNameMatcher matcher = new ForbiddenNameMatcher(List.of("Batman", "man", "Lúcifer", "Bat"));
+
+    @Test
+    void ensureNamesContainingAForbiddenNameMatch() {
+        assertTrue(matcher.matches("Bruce Batman"));
+        assertTrue(matcher.matches("Superman"));
+        assertTrue(matcher.matches("Maria Lúcifer Silva"));
+    }
+
+    @Test
+    void ensureAllowedNamesDoNotMatch() {
+        assertFalse(matcher.matches("Maria Silva"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void ensureMatchingIsCaseSensitive() {
+        assertFalse(matcher.matches("BATMAN"));
+    }
+
+    @Test
+    void ensureMatchesDoNotSpanWords() {
+        assertFalse(matcher.matches("Lúci fer"));
+        assertFalse(matcher.matches("Joana Ba\tt"));
+    }
+
+    @Test
+    void ensureOverlappingNamesAreFoundThroughFailureLinks() {
+        final ForbiddenNameMatcher overlapping = new ForbiddenNameMatcher(List.of("abcd", "bce"));
+        assertTrue(overlapping.matches("xabce"));
+        assertFalse(overlapping.matches("xabcx"));
+    }
+
+    @Test
+    void ensureBlankNamesAreIgnored() {
+        final ForbiddenNameMatcher blank = new ForbiddenNameMatcher(List.of("", " ", "Hulk"));
+        assertEquals(1, blank.getPatternCount());
+        assertFalse(blank.matches("Maria"));
+        assertTrue(blank.matches("Hulka"));
+    }
+}
@@ -0,0 +1,53 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.configuration.CacheConfig;
+import pt.psoft.g1.psoftg1.configuration.JpaConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every change in its own transaction, as the matcher is only rebuilt once changes commit. The service is proxied
+ * as a class, as in the application, since its event listener is not part of its interface.
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({CacheConfig.class, JpaConfig.class, ForbiddenNameServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ForbiddenNameServiceImplIntegrationTest {
+    @Autowired
+    private ForbiddenNameService forbiddenNameService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void whenNameIsAddedAndDeleted_thenTheMatcherFollows() {
+        forbiddenNameService.addForbiddenName("Zorglub");
+        assertThat(forbiddenNameService.containsForbiddenName("Sir Zorglub")).isTrue();
+
+        forbiddenNameService.deleteForbiddenName("Zorglub");
+        assertThat(forbiddenNameService.containsForbiddenName("Sir Zorglub")).isFalse();
+    }
+
+    @Test
+    public void whenAddingANameIsRolledBack_thenItIsNotMatched() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            forbiddenNameService.addForbiddenName("Kraknar");
+            status.setRollbackOnly();
+        });
+
+        assertThat(forbiddenNameService.containsForbiddenName("Kraknar")).isFalse();
+    }
+}
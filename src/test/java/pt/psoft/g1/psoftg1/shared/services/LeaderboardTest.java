@@ -0,0 +1,118 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.psoft.g1.psoftg1.shared.services.Leaderboard.Score;
+
+import java.time.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+
+    private MutableClock clock;
+    private Leaderboard<String> leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(TODAY);
+        leaderboard = new Leaderboard<>(30, clock);
+    }
+
+    private static List<String> keys(List<Score<String>> scores) {
+        return scores.stream().map(Score::getKey).toList();
+    }
+
+    @Test
+    void ensureAllTimeRankingIsOrderedByCountThenKey() {
+        leaderboard.add("b", TODAY, 2);
+        leaderboard.add("a", TODAY.minusYears(2), 2);
+        leaderboard.add("c", TODAY, 3);
+        leaderboard.add("d", TODAY, 1);
+
+        final List<Score<String>> top = leaderboard.top(3);
+        assertEquals(List.of("c", "a", "b"), keys(top));
+        assertEquals(3, top.get(0).getCount());
+    }
+
+    @Test
+    void ensureWindowOnlyCountsRecentDays() {
+        leaderboard.add("old", TODAY.minusDays(30), 5);
+        leaderboard.add("recent", TODAY.minusDays(29), 1);
+
+        assertEquals(List.of("recent"), keys(leaderboard.topInLastDays(5, 30)));
+        assertEquals(List.of("old", "recent"), keys(leaderboard.topInLastDays(5, 31)));
+    }
+
+    @Test
+    void ensureDaysLeaveTheWindowAsTimePasses() {
+        leaderboard.add("a", TODAY.minusDays(29), 3);
+        leaderboard.add("b", TODAY, 1);
+        assertEquals(List.of("a", "b"), keys(leaderboard.topInLastDays(5, 30)));
+
+        clock.setToday(TODAY.plusDays(1));
+        assertEquals(List.of("b"), keys(leaderboard.topInLastDays(5, 30)));
+        assertEquals(List.of("a", "b"), keys(leaderboard.top(5)));
+    }
+
+    @Test
+    void ensureArbitraryRangesAreRankedFromTheDailyBuckets() {
+        leaderboard.add("a", LocalDate.of(2023, 1, 10), 1);
+        leaderboard.add("b", LocalDate.of(2023, 1, 15), 2);
+        leaderboard.add("a", LocalDate.of(2023, 1, 20), 2);
+        leaderboard.add("c", LocalDate.of(2023, 2, 1), 9);
+
+        final List<Score<String>> top = leaderboard.top(2, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31));
+        assertEquals(List.of("a", "b"), keys(top));
+        assertEquals(3, top.get(0).getCount());
+        assertEquals(List.of("a"), keys(leaderboard.top(1, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31))));
+    }
+
+    @Test
+    void ensureNegativeDeltasRemoveKeysWithoutCounts() {
+        leaderboard.add("a", TODAY, 1);
+        leaderboard.add("b", TODAY, 2);
+        leaderboard.add("b", TODAY, -2);
+
+        assertEquals(List.of("a"), keys(leaderboard.top(5)));
+        assertEquals(List.of("a"), keys(leaderboard.topInLastDays(5, 30)));
+        assertEquals(List.of("a"), keys(leaderboard.top(5, TODAY, TODAY)));
+    }
+
+    @Test
+    void ensureInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.top(0));
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.topInLastDays(5, 0));
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.top(5, TODAY, TODAY.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> new Leaderboard<String>(0, clock));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(LocalDate today) {
+            setToday(today);
+        }
+
+        void setToday(LocalDate today) {
+            instant = today.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pt.psoft.g1.psoftg1.exceptions.ServiceUnavailableException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedExecutorTest {
+    private PartitionedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private static String keyOnPartition(PartitionedExecutor executor, int partition) {
+        for (int i = 0; ; i++) {
+            if (executor.partitionOf("key" + i) == partition) {
+                return "key" + i;
+            }
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void ensureTasksWithTheSameKeyNeverOverlap() throws InterruptedException {
+        executor = new PartitionedExecutor("test", 4, 1000);
+        final AtomicBoolean running = new AtomicBoolean();
+        final int[] counter = {0};
+
+        final List<CompletableFuture<Void>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < 100; j++) {
+                    executor.execute("1999/1", () -> {
+                        assertTrue(running.compareAndSet(false, true));
+                        counter[0]++;
+                        running.set(false);
+                        return null;
+                    });
+                }
+            }));
+        }
+        callers.forEach(CompletableFuture::join);
+
+        assertEquals(800, counter[0]);
+        // counted only after the caller got its result
+        awaitTrue(() -> executor.getCompletedCount(executor.partitionOf("1999/1")) == 800);
+    }
+
+    @Test
+    void ensureOtherPartitionsAreNotBlocked() throws Exception {
+        executor = new PartitionedExecutor("test", 2, 10);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<String> blocked = CompletableFuture.supplyAsync(() ->
+                executor.execute(keyOnPartition(executor, 0), () -> {
+                    release.await();
+                    return "first";
+                }));
+        awaitTrue(() -> executor.isBusy(0));
+
+        assertEquals("second", executor.execute(keyOnPartition(executor, 1), () -> "second"));
+        assertFalse(blocked.isDone());
+
+        release.countDown();
+        assertEquals("first", blocked.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void ensureQueueDepthIsReportedAndFullQueuesRefuseTasks() throws Exception {
+        executor = new PartitionedExecutor("test", 1, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Object> running = CompletableFuture.supplyAsync(() ->
+                executor.execute("a", () -> {
+                    release.await();
+                    return null;
+                }));
+        awaitTrue(() -> executor.isBusy(0));
+        final CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> executor.execute("b", () -> "b"));
+        awaitTrue(() -> executor.getQueueDepth(0) == 1);
+
+        assertThrows(ServiceUnavailableException.class, () -> executor.execute("c", () -> "c"));
+        assertEquals(1, executor.getRejectedCount(0));
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        assertEquals("b", waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.getQueueDepth(0));
+    }
+
+    @Test
+    void ensureExceptionsReachTheCaller() {
+        executor = new PartitionedExecutor("test", 2, 10);
+
+        final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> executor.execute("a", () -> {
+                    throw new IllegalArgumentException("Invalid");
+                }));
+        assertEquals("Invalid", thrown.getMessage());
+    }
+
+    @Test
+    void ensureNestedTasksOnTheSamePartitionRunInline() {
+        executor = new PartitionedExecutor("test", 1, 1);
+
+        assertEquals("inner", executor.execute("a", () -> executor.execute("b", () -> "inner")));
+    }
+
+    @Test
+    void ensureInvalidArgumentsAreRejected() {
+        executor = new PartitionedExecutor("test", 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedExecutor("test", 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedExecutor("test", 1, 0));
+    }
+}
@@ -0,0 +1,83 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhotoVariantServiceTest {
+    private static final String PHOTO = "ab/cd/abcdef.png";
+
+    @TempDir
+    Path uploadDir;
+
+    private PhotoVariantService photoVariantService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final FileStorageProperties properties = new FileStorageProperties();
+        properties.setUploadDir(uploadDir.toString());
+        photoVariantService = new PhotoVariantService(properties);
+        Files.createDirectories(uploadDir.resolve("ab/cd"));
+    }
+
+    private void writeImage(String fileName, int width, int height) throws IOException {
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png",
+                uploadDir.resolve(fileName).toFile());
+    }
+
+    @Test
+    void ensureVariantsAreNamedAfterTheOriginal() {
+        assertEquals("ab/cd/abcdef.thumb.png", PhotoVariantService.variantFileName(PHOTO, PhotoSize.THUMB));
+        assertEquals("photo.medium", PhotoVariantService.variantFileName("photo", PhotoSize.MEDIUM));
+    }
+
+    @Test
+    void ensureVariantsFitTheirSizeKeepingTheAspectRatio() throws IOException {
+        writeImage(PHOTO, 1200, 600);
+
+        photoVariantService.createVariants(PHOTO);
+
+        final BufferedImage thumb = ImageIO.read(uploadDir.resolve("ab/cd/abcdef.thumb.png").toFile());
+        assertEquals(150, thumb.getWidth());
+        assertEquals(75, thumb.getHeight());
+        final BufferedImage medium = ImageIO.read(uploadDir.resolve("ab/cd/abcdef.medium.png").toFile());
+        assertEquals(600, medium.getWidth());
+        assertEquals(300, medium.getHeight());
+    }
+
+    @Test
+    void ensureOriginalIsServedUntilTheVariantExists() throws IOException {
+        writeImage(PHOTO, 1200, 600);
+        assertEquals(PHOTO, photoVariantService.resolve(PHOTO, PhotoSize.THUMB));
+
+        photoVariantService.createVariants(PHOTO);
+
+        assertEquals("ab/cd/abcdef.thumb.png", photoVariantService.resolve(PHOTO, PhotoSize.THUMB));
+        assertEquals(PHOTO, photoVariantService.resolve(PHOTO, PhotoSize.ORIGINAL));
+    }
+
+    @Test
+    void ensureSmallPhotosAreNotEnlarged() throws IOException {
+        writeImage(PHOTO, 300, 200);
+
+        photoVariantService.createVariants(PHOTO);
+
+        assertTrue(Files.exists(uploadDir.resolve("ab/cd/abcdef.thumb.png")));
+        assertFalse(Files.exists(uploadDir.resolve("ab/cd/abcdef.medium.png")));
+        assertEquals(PHOTO, photoVariantService.resolve(PHOTO, PhotoSize.MEDIUM));
+    }
+
+    @Test
+    void ensureSizeParameterIsParsedIgnoringCase() {
+        assertEquals(PhotoSize.THUMB, PhotoSize.fromParameter("Thumb"));
+        assertThrows(IllegalArgumentException.class, () -> PhotoSize.fromParameter("huge"));
+    }
+}
@@ -0,0 +1,147 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import pt.psoft.g1.psoftg1.auth.services.CurrentPrincipal;
+import pt.psoft.g1.psoftg1.authormanagement.api.AuthorController;
+import pt.psoft.g1.psoftg1.authormanagement.api.AuthorViewMapperImpl;
+import pt.psoft.g1.psoftg1.authormanagement.model.Author;
+import pt.psoft.g1.psoftg1.authormanagement.services.AuthorService;
+import pt.psoft.g1.psoftg1.authormanagement.services.UpdateAuthorRequest;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookController;
+import pt.psoft.g1.psoftg1.bookmanagement.api.BookViewMapperImpl;
+import pt.psoft.g1.psoftg1.bookmanagement.model.Book;
+import pt.psoft.g1.psoftg1.bookmanagement.services.BookService;
+import pt.psoft.g1.psoftg1.genremanagement.model.Genre;
+import pt.psoft.g1.psoftg1.lendingmanagement.services.LendingService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+/**
+ * The book and author endpoints answered from the cache, next to the same endpoints answered without it.
+ */
+class ResponseCacheMvcTest {
+    private static final String ISBN = "9782826012092";
+    private static final long AUTHOR_NUMBER = 7L;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final BookService bookService = mock(BookService.class);
+    private final AuthorService authorService = mock(AuthorService.class);
+
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        author = new Author("Frank Herbert", "Wrote Dune", null);
+        ReflectionTestUtils.setField(author, "authorNumber", AUTHOR_NUMBER);
+        ReflectionTestUtils.setField(author, "version", 2L);
+        final Book book = new Book(ISBN, "Dune", "A desert planet", new Genre("Science Fiction"), List.of(author), null);
+        ReflectionTestUtils.setField(book, "version", 3L);
+
+        when(bookService.findVersionByIsbn(ISBN)).thenReturn(Optional.of(3L));
+        when(bookService.findByIsbn(ISBN)).thenReturn(book);
+        when(authorService.findVersionByAuthorNumber(AUTHOR_NUMBER)).thenReturn(Optional.of(2L));
+        when(authorService.findByAuthorNumber(AUTHOR_NUMBER)).thenReturn(Optional.of(author));
+    }
+
+    private MockMvc mockMvc(ResponseCache responseCache) {
+        final FileStorageService fileStorageService = mock(FileStorageService.class);
+        return MockMvcBuilders.standaloneSetup(
+                        new BookController(bookService, mock(CurrentPrincipal.class), mock(LendingService.class),
+                                new ConcurrencyService(), fileStorageService, responseCache, new BookViewMapperImpl()),
+                        new AuthorController(authorService, new AuthorViewMapperImpl(), new ConcurrencyService(),
+                                fileStorageService, responseCache, new BookViewMapperImpl()))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+    }
+
+    private ResponseCache responseCache(boolean offHeap) {
+        return new ResponseCache(objectMapper, DataSize.ofKilobytes(64), Duration.ofMinutes(10), offHeap);
+    }
+
+    /**
+     * A cache that never answers nor keeps anything, so the controllers return their views as usual.
+     */
+    private static ResponseCache noCache() {
+        return mock(ResponseCache.class);
+    }
+
+    private static MockHttpServletResponse fetch(MockMvc mockMvc, String uri) throws Exception {
+        return mockMvc.perform(get(uri)).andReturn().getResponse();
+    }
+
+    private static void assertSameResponse(MockHttpServletResponse expected, MockHttpServletResponse actual) {
+        assertEquals(200, actual.getStatus());
+        assertArrayEquals(expected.getContentAsByteArray(), actual.getContentAsByteArray());
+        assertEquals(expected.getHeader(HttpHeaders.ETAG), actual.getHeader(HttpHeaders.ETAG));
+        assertEquals(expected.getContentType(), actual.getContentType());
+        assertEquals(actual.getContentAsByteArray().length, actual.getContentLength());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void ensureCachedResponsesMatchTheUncachedOnes(boolean offHeap) throws Exception {
+        final MockMvc uncached = mockMvc(noCache());
+        final MockMvc cached = mockMvc(responseCache(offHeap));
+
+        for (String uri : List.of("/api/books/" + ISBN, "/api/authors/" + AUTHOR_NUMBER)) {
+            final MockHttpServletResponse expected = fetch(uncached, uri);
+            assertEquals(200, expected.getStatus());
+            assertEquals("\"" + (uri.contains("books") ? 3 : 2) + "\"", expected.getHeader(HttpHeaders.ETAG));
+
+            assertSameResponse(expected, fetch(cached, uri));
+            assertSameResponse(expected, fetch(cached, uri));
+        }
+        // once for the uncached response and once for the cached one, the second time it is only read from the cache
+        verify(bookService, times(2)).findByIsbn(ISBN);
+        verify(authorService, times(2)).findByAuthorNumber(AUTHOR_NUMBER);
+    }
+
+    @Test
+    void ensurePatchingAnAuthorDropsTheBooksShowingIt() throws Exception {
+        final MockMvc mockMvc = mockMvc(responseCache(false));
+        final String bookUri = "/api/books/" + ISBN;
+        assertTrue(fetch(mockMvc, bookUri).getContentAsString().contains("Frank Herbert"));
+        fetch(mockMvc, bookUri);
+        verify(bookService, times(1)).findByIsbn(ISBN);
+
+        when(authorService.partialUpdate(eq(AUTHOR_NUMBER), any(UpdateAuthorRequest.class), anyLong()))
+                .thenAnswer(invocation -> {
+                    author.setName("Franklin Herbert");
+                    return author;
+                });
+        assertEquals(200, mockMvc.perform(patch("/api/authors/" + AUTHOR_NUMBER)
+                .header(ConcurrencyService.IF_MATCH, "\"2\"")
+                .param("name", "Franklin Herbert")).andReturn().getResponse().getStatus());
+
+        // the book keeps its version, but its response shows the new name of the author
+        final MockHttpServletResponse afterPatch = fetch(mockMvc, bookUri);
+        assertEquals("\"3\"", afterPatch.getHeader(HttpHeaders.ETAG));
+        assertTrue(afterPatch.getContentAsString().contains("Franklin Herbert"));
+        verify(bookService, times(2)).findByIsbn(ISBN);
+    }
+}
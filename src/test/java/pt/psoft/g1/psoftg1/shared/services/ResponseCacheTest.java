@@ -0,0 +1,132 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+    private static final Duration EXPIRY = Duration.ofMinutes(10);
+
+    private final ResponseCache responseCache = new ResponseCache(new ObjectMapper(), DataSize.ofKilobytes(64), EXPIRY, false);
+
+    private static ServletWebRequest request(String accept) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+        if (accept != null) {
+            request.addHeader("Accept", accept);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static MockHttpServletResponse response(ServletWebRequest request) {
+        return (MockHttpServletResponse) request.getResponse();
+    }
+
+    @Test
+    void ensureWrittenViewIsServedForTheSameVersion() throws Exception {
+        final ServletWebRequest first = request(null);
+        assertFalse(responseCache.writeCached(first, String.class, "1", Optional.of(3L)));
+        assertTrue(responseCache.write(first, String.class, "1", 3L, 0, Map.of("title", "Dune")));
+
+        final ServletWebRequest second = request("application/json");
+        assertTrue(responseCache.writeCached(second, String.class, "1", Optional.of(3L)));
+
+        assertEquals("{\"title\":\"Dune\"}", response(second).getContentAsString());
+        assertEquals(response(first).getContentAsString(), response(second).getContentAsString());
+        assertEquals("\"3\"", response(second).getHeader("ETag"));
+        assertEquals("application/json", response(second).getContentType());
+        assertEquals(1, responseCache.getStats().hitCount());
+    }
+
+    @Test
+    void ensureOtherVersionsAndRepresentationsAreNotServed() {
+        responseCache.write(request(null), String.class, "1", 3L, 0, Map.of("title", "Dune"));
+
+        assertFalse(responseCache.writeCached(request(null), String.class, "1", Optional.of(4L)));
+        assertFalse(responseCache.writeCached(request(null), String.class, "2", Optional.of(3L)));
+        assertFalse(responseCache.writeCached(request(null), Integer.class, "1", Optional.of(3L)));
+        assertFalse(responseCache.writeCached(request(null), String.class, "1", Optional.empty()));
+
+        final MockHttpServletRequest otherHost = new MockHttpServletRequest("GET", "/api/books/1");
+        otherHost.setServerName("library.example.com");
+        assertFalse(responseCache.writeCached(new ServletWebRequest(otherHost, new MockHttpServletResponse()),
+                String.class, "1", Optional.of(3L)));
+    }
+
+    @Test
+    void ensureRequestsNotAcceptingJsonAreLeftToTheCaller() {
+        final ServletWebRequest request = request("application/xml");
+
+        assertFalse(responseCache.write(request, String.class, "1", 3L, 0, Map.of("title", "Dune")));
+        assertFalse(responseCache.writeCached(request(null), String.class, "1", Optional.of(3L)));
+        assertEquals(0, response(request).getContentLength());
+    }
+
+    @Test
+    void ensureInvalidatedResourcesAreNoLongerServed() {
+        responseCache.write(request(null), String.class, "1", 3L, 0, Map.of("title", "Dune"));
+        responseCache.write(request(null), String.class, "2", 1L, 0, Map.of("title", "Emma"));
+        responseCache.write(request(null), Integer.class, "1", 1L, 0, Map.of("name", "Austen"));
+
+        responseCache.invalidate(String.class, "1");
+        assertFalse(responseCache.writeCached(request(null), String.class, "1", Optional.of(3L)));
+        assertTrue(responseCache.writeCached(request(null), String.class, "2", Optional.of(1L)));
+
+        responseCache.invalidateAll(String.class);
+        assertFalse(responseCache.writeCached(request(null), String.class, "2", Optional.of(1L)));
+        assertTrue(responseCache.writeCached(request(null), Integer.class, "1", Optional.of(1L)));
+    }
+
+    @Test
+    void ensureResponsesLoadedBeforeAnInvalidationAreNotKept() throws Exception {
+        final long generation = responseCache.generation(String.class);
+        // a related resource changes while the response is being built
+        responseCache.invalidateAll(String.class);
+
+        final ServletWebRequest request = request(null);
+        assertTrue(responseCache.write(request, String.class, "1", 3L, generation, Map.of("title", "Dune")));
+        assertEquals("{\"title\":\"Dune\"}", response(request).getContentAsString());
+        assertFalse(responseCache.writeCached(request(null), String.class, "1", Optional.of(3L)));
+
+        responseCache.write(request(null), String.class, "1", 3L, responseCache.generation(String.class),
+                Map.of("title", "Dune"));
+        assertTrue(responseCache.writeCached(request(null), String.class, "1", Optional.of(3L)));
+    }
+
+    @Test
+    void ensureOffHeapResponsesAreServedWhole() throws Exception {
+        final ResponseCache offHeap = new ResponseCache(new ObjectMapper(), DataSize.ofKilobytes(64), EXPIRY, true);
+        final String description = "x".repeat(20_000);
+        offHeap.write(request(null), String.class, "1", 1L, 0, Map.of("description", description));
+
+        final ServletWebRequest request = request(null);
+        assertTrue(offHeap.writeCached(request, String.class, "1", Optional.of(1L)));
+        assertEquals("{\"description\":\"" + description + "\"}", response(request).getContentAsString());
+    }
+
+    @Test
+    void ensureCacheIsBoundedByTotalSize() {
+        final ResponseCache small = new ResponseCache(new ObjectMapper(), DataSize.ofBytes(1_000), EXPIRY, false);
+        for (int i = 0; i < 20; i++) {
+            small.write(request(null), String.class, Integer.toString(i), 1L, 0, Map.of("title", "x".repeat(90)));
+        }
+
+        int served = 0;
+        for (int i = 0; i < 20; i++) {
+            if (small.writeCached(request(null), String.class, Integer.toString(i), Optional.of(1L))) {
+                served++;
+            }
+        }
+        // each response takes about 100 bytes
+        assertTrue(served <= 10, "served " + served);
+        assertTrue(small.getStats().evictionCount() >= 10);
+    }
+}
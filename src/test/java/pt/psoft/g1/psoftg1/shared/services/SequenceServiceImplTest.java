@@ -0,0 +1,82 @@
+package pt.psoft.g1.psoftg1.shared.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import pt.psoft.g1.psoftg1.shared.model.SequenceBlock;
+import pt.psoft.g1.psoftg1.shared.repositories.SequenceBlockRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SequenceServiceImplTest {
+    private final Map<String, SequenceBlock> table = new HashMap<>();
+    private SequenceBlockRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SequenceBlockRepository.class);
+        when(repository.findForUpdate(anyString(), anyInt()))
+                .thenAnswer(i -> Optional.ofNullable(table.get(i.getArgument(0) + "/" + i.getArgument(1))));
+        when(repository.saveAndFlush(any())).thenAnswer(i -> {
+            SequenceBlock block = i.getArgument(0);
+            table.put(block.getSequenceName() + "/" + block.getYear(), block);
+            return block;
+        });
+    }
+
+    private SequenceService newService(int blockSize) {
+        return new SequenceServiceImpl(repository, mock(PlatformTransactionManager.class), blockSize);
+    }
+
+    @Test
+    void ensureSequenceStartsAfterExistingRecords() {
+        SequenceService service = newService(5);
+        assertEquals(8, service.nextValue("LENDING", 2024, () -> 7));
+        assertEquals(9, service.nextValue("LENDING", 2024, () -> 7));
+    }
+
+    @Test
+    void ensureDatabaseIsOnlyHitOncePerBlock() {
+        SequenceService service = newService(5);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i, service.nextValue("LENDING", 2024, () -> 0));
+        }
+        verify(repository, times(1)).saveAndFlush(any());
+
+        assertEquals(6, service.nextValue("LENDING", 2024, () -> 0));
+        verify(repository, times(2)).saveAndFlush(any());
+    }
+
+    @Test
+    void ensureInstancesGetDisjointBlocks() {
+        SequenceService first = newService(3);
+        SequenceService second = newService(3);
+
+        assertEquals(1, first.nextValue("READER", 2024, () -> 0));
+        assertEquals(4, second.nextValue("READER", 2024, () -> 0));
+        assertEquals(2, first.nextValue("READER", 2024, () -> 0));
+        assertEquals(5, second.nextValue("READER", 2024, () -> 0));
+    }
+
+    @Test
+    void ensureSequencesAreIndependentPerNameAndYear() {
+        SequenceService service = newService(10);
+        assertEquals(1, service.nextValue("LENDING", 2024, () -> 0));
+        assertEquals(1, service.nextValue("LENDING", 2025, () -> 0));
+        assertEquals(1, service.nextValue("READER", 2024, () -> 0));
+        assertEquals(2, service.nextValue("LENDING", 2024, () -> 0));
+    }
+
+    @Test
+    void ensureBlockSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> newService(0));
+    }
+}
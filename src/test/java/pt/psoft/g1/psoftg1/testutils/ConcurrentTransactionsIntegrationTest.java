@@ -0,0 +1,75 @@
+package pt.psoft.g1.psoftg1.testutils;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.configuration.CacheConfig;
+import pt.psoft.g1.psoftg1.configuration.JpaConfig;
+import pt.psoft.g1.psoftg1.lendingmanagement.model.Lending;
+import pt.psoft.g1.psoftg1.shared.services.RowCreator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Base of the tests handling lendings in transactions of their own and at the same time, as lendings of different
+ * readers are. The tests themselves run outside of any transaction, so that each transaction they start commits.
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import({CacheConfig.class, JpaConfig.class, RowCreator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class ConcurrentTransactionsIntegrationTest {
+    protected static final int THREADS = 8;
+
+    @Autowired
+    protected PlatformTransactionManager transactionManager;
+
+    /**
+     * Runs the action in {@link #THREADS} transactions at once, each in a thread of its own, and waits for them all.
+     */
+    protected void inConcurrentTransactions(Runnable action) throws Exception {
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        final CyclicBarrier start = new CyclicBarrier(THREADS);
+        final List<Future<?>> transactions = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                transactions.add(pool.submit(() -> {
+                    start.await();
+                    transaction.executeWithoutResult(status -> action.run());
+                    return null;
+                }));
+            }
+            for (Future<?> committed : transactions) {
+                committed.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A lending started on the date, whose book and anything else it leads to can be stubbed as well.
+     */
+    protected static Lending lending(LocalDate startDate) {
+        final Lending lending = mock(Lending.class, RETURNS_DEEP_STUBS);
+        when(lending.getStartDate()).thenReturn(startDate);
+        return lending;
+    }
+}
@@ -0,0 +1,114 @@
+package pt.psoft.g1.psoftg1.usermanagement.repositories;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pt.psoft.g1.psoftg1.configuration.CacheConfig;
+import pt.psoft.g1.psoftg1.configuration.JpaConfig;
+import pt.psoft.g1.psoftg1.usermanagement.model.Role;
+import pt.psoft.g1.psoftg1.usermanagement.model.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository call in its own transaction, as the cache is only invalidated when transactions commit.
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import({CacheConfig.class, JpaConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserRepositoryCacheIntegrationTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CaffeineCache users;
+
+    @BeforeEach
+    public void setUp() {
+        users = (CaffeineCache) ((TransactionAwareCacheDecorator) cacheManager.getCache("users")).getTargetCache();
+        users.clear();
+    }
+
+    private CacheStats stats() {
+        return users.getNativeCache().stats();
+    }
+
+    @Test
+    public void whenFindByUsernameTwice_thenSecondIsServedFromCache() {
+        userRepository.save(User.newUser("cached@mail.com", "Password1!", "Cached User", Role.READER));
+
+        final long hits = stats().hitCount();
+        final User first = userRepository.findByUsername("cached@mail.com").orElseThrow();
+        final User second = userRepository.findByUsername("cached@mail.com").orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(stats().hitCount()).isEqualTo(hits + 1);
+        // authorities must be usable outside of the session that loaded the user
+        assertThat(second.getAuthorities()).extracting(Role::getAuthority).containsExactly(Role.READER);
+    }
+
+    @Test
+    public void whenUserIsDisabled_thenCachedLookupsSeeIt() {
+        final User saved = userRepository.save(User.newUser("disabled@mail.com", "Password1!", "Disabled User"));
+        assertThat(userRepository.findById(saved.getId()).orElseThrow().isEnabled()).isTrue();
+        final User user = userRepository.findByUsername("disabled@mail.com").orElseThrow();
+
+        user.setEnabled(false);
+        userRepository.save(user);
+
+        assertThat(userRepository.findByUsername("disabled@mail.com").orElseThrow().isEnabled()).isFalse();
+        assertThat(userRepository.findById(saved.getId()).orElseThrow().isEnabled()).isFalse();
+    }
+
+    @Test
+    public void whenUserIsLoadedForEdit_thenUnsavedChangesAreNotCached() {
+        final User saved = userRepository.save(User.newUser("edited@mail.com", "Password1!", "Edited User"));
+        final User cached = userRepository.findById(saved.getId()).orElseThrow();
+
+        final User edited = userRepository.getForEdit(saved.getId());
+        edited.setEnabled(false);
+
+        assertThat(edited).isNotSameAs(cached);
+        assertThat(userRepository.findById(saved.getId()).orElseThrow().isEnabled()).isTrue();
+    }
+
+    @Test
+    public void whenUserIsSavedInATransaction_thenItIsEvictedBeforeTheCommit() {
+        final User saved = userRepository.save(User.newUser("evicted@mail.com", "Password1!", "Evicted User"));
+        userRepository.findById(saved.getId()).orElseThrow();
+        assertThat(users.get(saved.getId())).isNotNull();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            final User user = userRepository.getForEdit(saved.getId());
+            user.setEnabled(false);
+            userRepository.save(user);
+
+            assertThat(users.get(saved.getId())).isNull();
+        });
+    }
+
+    @Test
+    public void whenUsernameIsUnknown_thenRegisteringItIsSeen() {
+        assertThat(userRepository.findByUsername("new@mail.com")).isEmpty();
+
+        userRepository.save(User.newUser("new@mail.com", "Password1!", "New User"));
+
+        assertThat(userRepository.findByUsername("new@mail.com")).isPresent();
+    }
+}
@@ -0,0 +1,73 @@
+package pt.psoft.g1.psoftg1.usermanagement.repositories;
+
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import pt.psoft.g1.psoftg1.configuration.CacheConfig;
+import pt.psoft.g1.psoftg1.configuration.JpaConfig;
+import pt.psoft.g1.psoftg1.shared.services.Page;
+import pt.psoft.g1.psoftg1.shared.services.Slice;
+import pt.psoft.g1.psoftg1.usermanagement.model.User;
+import pt.psoft.g1.psoftg1.usermanagement.services.SearchUsersQuery;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import({CacheConfig.class, JpaConfig.class})
+public class UserRepositorySearchIntegrationTest {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void whenWalkingWithCursors_thenEveryUserIsSeenOnceNewestFirst() {
+        for (int i = 0; i < 5; i++) {
+            userRepository.save(User.newUser("walker" + i + "@mail.com", "Password1!", "Walker User"));
+        }
+        final SearchUsersQuery everyone = new SearchUsersQuery("", "");
+
+        final List<User> seen = new ArrayList<>();
+        final Page page = new Page(1, 2);
+        Slice<User> slice = userRepository.searchUsers(page, everyone);
+        seen.addAll(slice.getItems());
+        while (slice.getNext() != null) {
+            page.setCursor(slice.getNext());
+            slice = userRepository.searchUsers(page, everyone);
+            assertThat(slice.getItems()).hasSizeBetween(1, 2);
+            seen.addAll(slice.getItems());
+        }
+
+        final List<User> all = userRepository.searchUsers(new Page(1, 1000), everyone).getItems();
+        assertThat(seen).hasSizeGreaterThanOrEqualTo(5).containsExactlyElementsOf(all);
+        assertThat(seen).isSortedAccordingTo(Comparator.comparing(User::getCreatedAt).reversed()
+                .thenComparing(Comparator.comparing(User::getId).reversed()));
+    }
+
+    @Test
+    public void whenSearchingByName_thenOnlyMatchingUsersAreReturned() {
+        userRepository.save(User.newUser("named@mail.com", "Password1!", "Distinctive Name"));
+
+        final Slice<User> slice = userRepository.searchUsers(new Page(1, 10), new SearchUsersQuery("", "Distinctive"));
+
+        assertThat(slice.getItems()).extracting(User::getUsername).containsExactly("named@mail.com");
+        assertThat(slice.getNext()).isNull();
+    }
+
+    @Test
+    public void whenCursorIsInvalid_thenSearchIsRejected() {
+        final Page page = new Page(1, 10);
+        page.setCursor("garbage");
+
+        assertThrows(ValidationException.class,
+                () -> userRepository.searchUsers(page, new SearchUsersQuery("", "")));
+    }
+}
@@ -0,0 +1,102 @@
+package pt.psoft.g1.psoftg1.usermanagement.services;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares registrations and logins before and after the password hashing service, at the default strength.
+ * <p>
+ * Before, a registration hashed the password twice and every login checked it on the request thread. After, a
+ * registration hashes once and logins are checked by the hashing service's workers. Every login must succeed; the
+ * timings are only logged.
+ * <p>
+ * Left out of the default build; run it with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PasswordHashingBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingBenchmarkTest.class);
+    private static final int STRENGTH = 10;
+    private static final int REGISTRATIONS = 8;
+    private static final int CONCURRENT_LOGINS = 32;
+    private static final int LOGINS_PER_CLIENT = 1;
+    private static final String USERNAME = "manuel@gmail.com";
+    private static final String PASSWORD = "Manuelino123!";
+
+    private static DaoAuthenticationProvider provider(PasswordEncoder passwordEncoder, String encodedPassword) {
+        final UserDetailsService users = username -> User.withUsername(username).password(encodedPassword)
+                .roles("READER").build();
+        final DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(users);
+        provider.setPasswordEncoder(passwordEncoder);
+        return provider;
+    }
+
+    private static double loginsPerSecond(DaoAuthenticationProvider provider) throws Exception {
+        final ExecutorService requestThreads = Executors.newFixedThreadPool(CONCURRENT_LOGINS);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<Boolean>> logins = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_LOGINS * LOGINS_PER_CLIENT; i++) {
+                logins.add(requestThreads.submit(() -> provider
+                        .authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD)).isAuthenticated()));
+            }
+            for (Future<Boolean> login : logins) {
+                assertThat(login.get()).isTrue();
+            }
+            return logins.size() / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            requestThreads.shutdownNow();
+        }
+    }
+
+    @Test
+    void compareRegistrationsAndLogins() throws Exception {
+        final BCryptPasswordEncoder requestThreadEncoder = new BCryptPasswordEncoder(STRENGTH);
+        final PasswordHashingService service = new PasswordHashingService(STRENGTH,
+                Runtime.getRuntime().availableProcessors(), CONCURRENT_LOGINS * LOGINS_PER_CLIENT);
+        try {
+            // warm up BCrypt so the first measurement does not pay for it
+            requestThreadEncoder.encode(PASSWORD);
+
+            final long doubleStart = System.nanoTime();
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                requestThreadEncoder.encode(requestThreadEncoder.encode(PASSWORD));
+            }
+            final long doubleNanos = System.nanoTime() - doubleStart;
+
+            final long singleStart = System.nanoTime();
+            String encodedPassword = null;
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                encodedPassword = service.hash(PASSWORD);
+            }
+            final long singleNanos = System.nanoTime() - singleStart;
+
+            final double before = loginsPerSecond(provider(requestThreadEncoder, encodedPassword));
+            final double after = loginsPerSecond(provider(service, encodedPassword));
+
+            log.info(String.format("Registration at strength %d: hashed twice %.1f ms, hashed once %.1f ms",
+                    STRENGTH, doubleNanos / 1e6 / REGISTRATIONS, singleNanos / 1e6 / REGISTRATIONS));
+            log.info(String.format("%d concurrent logins: on request threads %.1f logins/s, " +
+                            "on %d hashing threads %.1f logins/s",
+                    CONCURRENT_LOGINS, before, Runtime.getRuntime().availableProcessors(), after));
+        } finally {
+            service.shutdown();
+        }
+    }
+}
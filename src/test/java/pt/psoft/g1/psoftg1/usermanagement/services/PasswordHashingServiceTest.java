@@ -0,0 +1,102 @@
+package pt.psoft.g1.psoftg1.usermanagement.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import pt.psoft.g1.psoftg1.exceptions.ServiceUnavailableException;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+    // the lowest strength BCrypt accepts, to keep the tests fast
+    private static final int STRENGTH = 4;
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void ensurePasswordsAreHashedOnce() {
+        service = new PasswordHashingService(STRENGTH, 1, 1);
+
+        final String hash = service.hash("Password1!");
+
+        assertTrue(new BCryptPasswordEncoder().matches("Password1!", hash));
+        assertTrue(service.matches("Password1!", hash));
+        assertFalse(service.matches("Password2!", hash));
+    }
+
+    @Test
+    void ensureWeakPasswordsAreRejected() {
+        service = new PasswordHashingService(STRENGTH, 1, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> service.hash("weak"));
+        assertThrows(IllegalArgumentException.class, () -> service.hash(null));
+    }
+
+    @Test
+    void ensureHashesWithALowerStrengthNeedUpgrading() {
+        service = new PasswordHashingService(STRENGTH + 1, 1, 1);
+
+        assertTrue(service.upgradeEncoding(new BCryptPasswordEncoder(STRENGTH).encode("Password1!")));
+        assertFalse(service.upgradeEncoding(service.encode("Password1!")));
+    }
+
+    @Test
+    void ensureRequestsBeyondTheQueueAreRefused() throws Exception {
+        service = new PasswordHashingService(STRENGTH, 1, 1);
+        final CountDownLatch hashing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        // the only worker is kept busy by the first password and the second one waits in the queue
+        final Thread busy = new Thread(() -> service.encode(new BlockingPassword(hashing, release)));
+        busy.start();
+        hashing.await();
+        final Thread queued = new Thread(() -> service.encode("Password1!"));
+        queued.start();
+        while (queued.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+
+        try {
+            assertThrows(ServiceUnavailableException.class, () -> service.encode("Password1!"));
+        } finally {
+            release.countDown();
+            busy.join();
+            queued.join();
+        }
+    }
+
+    private record BlockingPassword(CountDownLatch hashing, CountDownLatch release) implements CharSequence {
+        @Override
+        public String toString() {
+            hashing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "Password1!";
+        }
+
+        @Override
+        public int length() {
+            return toString().length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return toString().charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+    }
+}